@@ -1,67 +1,98 @@
 package com.yuksel.investmenttracker.config;
 
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.annotation.Primary;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 
+/**
+ * Cache managers built from per-cache policies. Every cache records statistics, and the
+ * actuator binds hits, misses, evictions and load times of each one under
+ * {@code cache.*} in /actuator/metrics, tagged with the cache and manager name.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    private static final long MB = 1024 * 1024;
+
+    @Bean
+    public CachePolicyRegistry cachePolicyRegistry() {
+        return new CachePolicyRegistry()
+                .register(CachePolicy.sized("asset-prices", 1000, Duration.ofMinutes(5)))
+                .register(CachePolicy.sized("asset-allocation", 1000, Duration.ofMinutes(5)))
+                .register(CachePolicy.sized("top-movers", 1000, Duration.ofMinutes(5)))
+                // Up to 5 years of daily points per entry, so bounded by estimated bytes
+                .register(CachePolicy.weighed("portfolio-history", 64 * MB,
+                        CacheValueSizes::estimateBytes, Duration.ofMinutes(5)))
+                .register(CachePolicy.sized("portfolio-summary", 1000, Duration.ofMinutes(15))
+                        .refreshedAfter(Duration.ofMinutes(5)))
+                .register(CachePolicy.weighed("portfolio-analytics", 64 * MB,
+                                CacheValueSizes::estimateBytes, Duration.ofMinutes(15))
+                        .refreshedAfter(Duration.ofMinutes(5)))
+                .register(CachePolicy.sized("asset-details", 500, Duration.ofHours(1)))
+                .register(CachePolicy.sized("user-preferences", 500, Duration.ofHours(1)))
+                // Only for access tokens without profile claims; evicted when a user changes
+                .register(CachePolicy.sized("user-principals", 10_000, Duration.ofMinutes(5)))
+                .register(CachePolicy.sized("price-history", 2000, Duration.ofMinutes(2)));
+    }
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "portfolio-summary",
-                "asset-prices", 
-                "portfolio-analytics",
-                "asset-allocation",
-                "top-movers",
-                "portfolio-history"
-        );
-        
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .initialCapacity(100)
-                .maximumSize(1000)
-                .expireAfterWrite(Duration.ofMinutes(5)) // Cache for 5 minutes
-                .recordStats());
-        
+    @Primary
+    public CacheManager cacheManager(CachePolicyRegistry policies) {
+        return caffeineCacheManager(policies, "asset-prices", "asset-allocation", "top-movers", "portfolio-history");
+    }
+
+    /**
+     * Heavy per-user views served stale-while-refreshing: once an entry is past its
+     * refresh interval the next read triggers one background recomputation
+     */
+    @Bean("refreshAheadCacheManager")
+    public CacheManager refreshAheadCacheManager(CachePolicyRegistry policies,
+                                                 @Qualifier("portfolioRefreshExecutor") Executor refreshExecutor) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new RefreshAheadCache(policies.get("portfolio-summary"), refreshExecutor),
+                new RefreshAheadCache(policies.get("portfolio-analytics"), refreshExecutor)
+        ));
         return cacheManager;
     }
 
     @Bean("longTermCacheManager")
-    public CacheManager longTermCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "asset-details",
-                "user-preferences"
-        );
-        
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .initialCapacity(50)
-                .maximumSize(500)
-                .expireAfterWrite(Duration.ofHours(1)) // Cache for 1 hour
-                .recordStats());
-        
-        return cacheManager;
+    public CacheManager longTermCacheManager(CachePolicyRegistry policies) {
+        return caffeineCacheManager(policies, "asset-details", "user-preferences", "user-principals");
     }
 
     @Bean("pricesCacheManager")
-    public CacheManager pricesCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "current-prices",
-                "price-history"
-        );
-        
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .initialCapacity(200)
-                .maximumSize(2000)
-                .expireAfterWrite(Duration.ofMinutes(2)) // Prices change frequently
-                .recordStats());
-        
+    public CacheManager pricesCacheManager(CachePolicyRegistry policies) {
+        return caffeineCacheManager(policies, "price-history");
+    }
+
+    /**
+     * Lets the actuator bind refresh-ahead caches the same way it binds plain Caffeine ones
+     */
+    @Bean
+    public CacheMeterBinderProvider<RefreshAheadCache> refreshAheadCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache().synchronous(), cache.getName(), tags);
+    }
+
+    private static CacheManager caffeineCacheManager(CachePolicyRegistry policies, String... cacheNames) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Static manager: names outside this list resolve to null instead of a new cache
+        cacheManager.setCacheNames(List.of());
+        for (String cacheName : cacheNames) {
+            cacheManager.registerCustomCache(cacheName, policies.get(cacheName).caffeine().build());
+        }
         return cacheManager;
     }
-}
\ No newline at end of file
+}
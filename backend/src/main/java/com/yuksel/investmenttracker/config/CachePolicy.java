@@ -0,0 +1,57 @@
+package com.yuksel.investmenttracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Size, weight, expiry and refresh settings of one named cache. A cache is bounded either
+ * by entry count or, when a weigher is set, by the estimated bytes of its values.
+ */
+public record CachePolicy(String name,
+                          long maximumSize,
+                          long maximumWeight,
+                          ToIntFunction<Object> weigher,
+                          Duration expireAfterWrite,
+                          Duration refreshAfterWrite) {
+
+    public static CachePolicy sized(String name, long maximumSize, Duration expireAfterWrite) {
+        return new CachePolicy(name, maximumSize, 0, null, expireAfterWrite, null);
+    }
+
+    public static CachePolicy weighed(String name, long maximumBytes, ToIntFunction<Object> weigher,
+                                      Duration expireAfterWrite) {
+        return new CachePolicy(name, 0, maximumBytes, weigher, expireAfterWrite, null);
+    }
+
+    public CachePolicy refreshedAfter(Duration refreshAfterWrite) {
+        return new CachePolicy(name, maximumSize, maximumWeight, weigher, expireAfterWrite, refreshAfterWrite);
+    }
+
+    public Caffeine<Object, Object> caffeine() {
+        return caffeine(Function.identity());
+    }
+
+    /**
+     * @param valueOf extracts the cached value from what the cache actually stores, for
+     *                caches that wrap their values
+     */
+    public Caffeine<Object, Object> caffeine(Function<Object, Object> valueOf) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (weigher != null) {
+            builder.maximumWeight(maximumWeight)
+                    .weigher((key, value) -> weigher.applyAsInt(valueOf.apply(value)));
+        } else {
+            builder.maximumSize(maximumSize);
+        }
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        if (refreshAfterWrite != null) {
+            builder.refreshAfterWrite(refreshAfterWrite);
+        }
+        return builder;
+    }
+}
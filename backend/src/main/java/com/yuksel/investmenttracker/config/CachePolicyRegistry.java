@@ -0,0 +1,31 @@
+package com.yuksel.investmenttracker.config;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every named cache and its policy, so sizes and lifetimes are set per cache in one place
+ * instead of one spec shared by a whole cache manager
+ */
+public class CachePolicyRegistry {
+
+    private final Map<String, CachePolicy> policies = new LinkedHashMap<>();
+
+    public CachePolicyRegistry register(CachePolicy policy) {
+        policies.put(policy.name(), policy);
+        return this;
+    }
+
+    public CachePolicy get(String name) {
+        CachePolicy policy = policies.get(name);
+        if (policy == null) {
+            throw new IllegalArgumentException("No cache policy registered for " + name);
+        }
+        return policy;
+    }
+
+    public Collection<CachePolicy> getAll() {
+        return policies.values();
+    }
+}
@@ -0,0 +1,39 @@
+package com.yuksel.investmenttracker.config;
+
+import com.yuksel.investmenttracker.dto.response.PortfolioAnalyticsResponse;
+
+import java.util.List;
+
+/**
+ * Rough retained-heap estimates of cached valuation responses, used as Caffeine weights.
+ * Figures assume compressed oops: a history point is the DTO, a LocalDate and three
+ * compact BigDecimals plus its list slot; allocation and mover rows add their strings.
+ */
+public final class CacheValueSizes {
+
+    static final int HISTORY_POINT_BYTES = 180;
+    static final int ALLOCATION_ROW_BYTES = 240;
+    static final int MOVER_ROW_BYTES = 320;
+    static final int RESPONSE_BYTES = 300;
+
+    private CacheValueSizes() {
+    }
+
+    public static int estimateBytes(Object value) {
+        if (value instanceof List<?> list) {
+            // History, allocation and movers are all cached as flat lists of small rows
+            return RESPONSE_BYTES + list.size() * HISTORY_POINT_BYTES;
+        }
+        if (value instanceof PortfolioAnalyticsResponse analytics) {
+            return RESPONSE_BYTES
+                    + sizeOf(analytics.getPortfolioHistory()) * HISTORY_POINT_BYTES
+                    + sizeOf(analytics.getAssetAllocation()) * ALLOCATION_ROW_BYTES
+                    + sizeOf(analytics.getTopMovers()) * MOVER_ROW_BYTES;
+        }
+        return RESPONSE_BYTES;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.yuksel.investmenttracker.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Spring cache for expensive per-user values that refreshes ahead instead of expiring.
+ * Once {@code refreshAfterWrite} has passed, the next read still returns the cached value
+ * and starts one background recomputation on the refresh executor; Caffeine keeps at most
+ * one refresh per key in flight. A cold key is computed once by the first caller while
+ * concurrent callers for that key wait for the same result.
+ *
+ * <p>Each entry keeps the loader that produced it, bound to the caller's security context,
+ * so a refresh can recompute it off the request thread. A value stored with {@link #put}
+ * keeps the loader of the entry it replaces; one stored without any loader is dropped at
+ * its first refresh, and the next {@link #get(Object, Callable)} computes it again.
+ */
+public class RefreshAheadCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final AsyncLoadingCache<Object, Entry> cache;
+
+    private record Entry(Object value, Callable<?> loader) {
+    }
+
+    public RefreshAheadCache(CachePolicy policy, Executor refreshExecutor) {
+        this(policy.name(), policy.caffeine(RefreshAheadCache::valueOf), refreshExecutor);
+    }
+
+    public RefreshAheadCache(String name, Caffeine<Object, Object> builder, Executor refreshExecutor) {
+        super(false);
+        this.name = name;
+        this.cache = builder.executor(refreshExecutor).buildAsync(new EntryLoader());
+    }
+
+    private static Object valueOf(Object stored) {
+        return stored instanceof Entry entry ? entry.value() : stored;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public AsyncLoadingCache<Object, ?> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry = completedEntry(cache.getIfPresent(key));
+        return entry != null ? entry.value() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // getIfPresent goes through the policy, so a stale hit schedules its refresh here
+        CompletableFuture<Entry> existing = cache.getIfPresent(key);
+        if (existing == null) {
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            existing = cache.asMap().putIfAbsent(key, created);
+            if (existing == null) {
+                return (T) compute(key, created, new DelegatingSecurityContextCallable<>(valueLoader));
+            }
+        }
+
+        try {
+            return (T) existing.join().value();
+        } catch (CompletionException e) {
+            throw failure(key, valueLoader, e.getCause());
+        }
+    }
+
+    private Object compute(Object key, CompletableFuture<Entry> future, Callable<?> loader) {
+        try {
+            Object value = loader.call();
+            future.complete(new Entry(value, loader));
+            return value;
+        } catch (Exception e) {
+            cache.asMap().remove(key, future);
+            future.completeExceptionally(e);
+            throw failure(key, loader, e);
+        }
+    }
+
+    // Unchecked failures reach callers unchanged, as they would without the cache
+    private static RuntimeException failure(Object key, Callable<?> loader, Throwable cause) {
+        return cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new ValueRetrievalException(key, loader, cause);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Entry current = completedEntry(cache.asMap().get(key));
+        Callable<?> loader = current != null ? current.loader() : null;
+        cache.put(key, CompletableFuture.completedFuture(new Entry(value, loader)));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CompletableFuture<Entry> created = CompletableFuture.completedFuture(new Entry(value, null));
+        while (true) {
+            CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(key, created);
+            if (existing == null) {
+                return null;
+            }
+            try {
+                return toValueWrapper(existing.join().value());
+            } catch (CompletionException e) {
+                // A failed computation removes its own entry before completing, so try again
+            }
+        }
+    }
+
+    private static Entry completedEntry(CompletableFuture<Entry> future) {
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private static final class EntryLoader implements AsyncCacheLoader<Object, Entry> {
+
+        // Only callers of get(key, loader) know how to compute a missing key, so a load
+        // without one completes empty and Caffeine leaves the key absent
+        @Override
+        public CompletableFuture<Entry> asyncLoad(Object key, Executor executor) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Entry> asyncReload(Object key, Entry oldValue, Executor executor) {
+            Callable<?> loader = oldValue.loader();
+            if (loader == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new Entry(loader.call(), loader);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+    }
+}
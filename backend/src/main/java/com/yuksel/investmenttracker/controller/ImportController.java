@@ -1,5 +1,7 @@
 package com.yuksel.investmenttracker.controller;
 
+import com.yuksel.investmenttracker.dto.response.ImportJobResponse;
+import com.yuksel.investmenttracker.service.ImportJobService;
 import com.yuksel.investmenttracker.service.ImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -7,12 +9,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/imports")
@@ -22,6 +29,7 @@ import java.util.Map;
 public class ImportController {
 
     private final ImportService importService;
+    private final ImportJobService importJobService;
 
     @PostMapping("/csv")
     @Operation(summary = "Import portfolio data from CSV file")
@@ -42,6 +50,43 @@ public class ImportController {
         }
     }
 
+    @PostMapping("/jobs")
+    @Operation(summary = "Start a background import of a CSV file")
+    public ResponseEntity<?> startImportJob(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File cannot be empty"));
+        }
+        
+        if (!file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "File must be a CSV format"));
+        }
+        
+        try {
+            ImportJobResponse job = importJobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/imports/jobs/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("error", "Too many imports in progress, please retry later"));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Could not store the uploaded file"));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Get progress of a background import")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String id) {
+        return ResponseEntity.of(importJobService.getJob(id));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @Operation(summary = "Cancel a background import")
+    public ResponseEntity<ImportJobResponse> cancelImportJob(@PathVariable String id) {
+        return ResponseEntity.of(importJobService.cancel(id));
+    }
+
     @GetMapping("/csv/template")
     @Operation(summary = "Download CSV import template")
     public ResponseEntity<Resource> downloadCsvTemplate() {
@@ -59,16 +104,12 @@ public class ImportController {
 
     @GetMapping("/csv/export")
     @Operation(summary = "Export portfolio data to CSV")
-    public ResponseEntity<Resource> exportPortfolioToCsv() {
-        try {
-            Resource csvFile = importService.exportAcquisitionsToCsv();
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType("text/csv"))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"portfolio_export.csv\"")
-                    .body(csvFile);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public ResponseEntity<StreamingResponseBody> exportPortfolioToCsv() {
+        StreamingResponseBody csvFile = importService.exportAcquisitionsToCsv();
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"portfolio_export.csv\"")
+                .body(csvFile);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -55,7 +56,7 @@ public class PortfolioController {
     @GetMapping("/top-movers")
     @Operation(summary = "Get top performing assets")
     public ResponseEntity<List<TopMoversResponse>> getTopMovers(
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") @Positive int limit) {
         List<TopMoversResponse> topMovers = portfolioService.getTopMovers(limit);
         return ResponseEntity.ok(topMovers);
     }
@@ -16,6 +16,16 @@ public class AuthToken {
     @Indexed
     private String userId;
     
+    /**
+     * Lookup half of the refresh token; null on tokens issued as JWTs before the
+     * selector/verifier format, which are matched by user and password hash until they expire
+     */
+    @Indexed(unique = true, sparse = true)
+    private String selector;
+    
+    /**
+     * SHA-256 of the verifier when {@link #selector} is set, password-encoder hash of the whole token otherwise
+     */
     private String refreshTokenHash;
     
     @Indexed(expireAfterSeconds = 0)
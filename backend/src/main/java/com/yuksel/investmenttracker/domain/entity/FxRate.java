@@ -0,0 +1,30 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One observed exchange rate of a currency pair such as "USD_TRY". Intraday ticks are
+ * kept for a retention window and then compacted to the day's last observation.
+ */
+@Data
+@Document(collection = "fx_rates")
+@CompoundIndex(def = "{'pair' : 1, 'asOf': 1}", unique = true)
+public class FxRate {
+    @Id
+    private String id;
+    
+    private String pair;
+    
+    private LocalDateTime asOf;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal rate;
+}
@@ -0,0 +1,66 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background CSV import of one uploaded file. Rows up to and including
+ * {@code committedLine} are stored and counted, so a job picked up again after a restart
+ * continues from the next chunk.
+ */
+@Data
+@Document(collection = "import_jobs")
+@CompoundIndex(def = "{'status' : 1, 'heartbeatAt': 1}")
+public class ImportJob {
+    @Id
+    private String id;
+    
+    @Indexed
+    private String userId;
+    
+    private String fileName;
+    
+    private String spoolFile;
+    
+    private long estimatedRows;
+    
+    private JobStatus status;
+    
+    private boolean cancelRequested;
+    
+    private int committedLine;
+    
+    private long rowsProcessed;
+    
+    private long successCount;
+    
+    private long errorCount;
+    
+    // First errors only, in line order within each chunk
+    private List<String> errors = new ArrayList<>();
+    
+    private LocalDate earliestAcquisitionDate;
+    
+    private long activeMillis;
+    
+    private int attempts;
+    
+    private String failureReason;
+    
+    private LocalDateTime heartbeatAt;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,42 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker of a batch job that walks users in id order. Everything up to and
+ * including {@code lastUserId} has been committed, so a restarted run continues after it.
+ * A running job is held by the node whose {@code owner} token it carries for as long as
+ * that node keeps {@code heartbeatAt} fresh.
+ */
+@Data
+@Document(collection = "job_checkpoints")
+public class JobCheckpoint {
+    @Id
+    private String jobName;
+    
+    private LocalDate runDate;
+    
+    private boolean rebuild;
+    
+    private String lastUserId;
+    
+    private long processedUsers;
+    
+    private long failedUsers;
+    
+    private JobStatus status;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime updatedAt;
+    
+    private String owner;
+    
+    private LocalDateTime heartbeatAt;
+}
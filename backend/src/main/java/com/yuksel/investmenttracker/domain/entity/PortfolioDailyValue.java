@@ -0,0 +1,45 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Closing value of a user's portfolio for one day, written by the end-of-day job so
+ * history charts read stored points instead of replaying every lot and price. Like the
+ * live valuation, totals add up each asset in its own quote currency and carry no
+ * currency of their own.
+ */
+@Data
+@Document(collection = "portfolio_daily_values")
+@CompoundIndex(def = "{'userId' : 1, 'date': 1}", unique = true)
+public class PortfolioDailyValue {
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private LocalDate date;
+    
+    private BigDecimal totalValue;
+    
+    private BigDecimal costBasis;
+    
+    private List<AssetValue> assets;
+    
+    private LocalDateTime computedAt;
+    
+    @Data
+    public static class AssetValue {
+        private String assetId;
+        private BigDecimal quantity;
+        private BigDecimal price;
+        private BigDecimal value;
+    }
+}
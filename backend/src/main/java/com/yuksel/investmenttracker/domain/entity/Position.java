@@ -0,0 +1,65 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Per-user holding of a single asset, maintained incrementally from acquisition lots.
+ * Amounts are stored as Decimal128 so they can be updated in place with $inc.
+ */
+@Data
+@Document(collection = "positions")
+@CompoundIndex(def = "{'userId' : 1, 'assetId': 1}", unique = true)
+public class Position {
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private String assetId;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal quantity;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal costBasis;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal fees;
+    
+    /**
+     * Cost of the lots whose FX rate at acquisition is known, keyed by their purchase currency
+     */
+    private Map<String, FxCost> fxCostByCurrency;
+    
+    private long lotCount;
+    
+    private LocalDate firstAcquisitionDate;
+    
+    private LocalDate lastAcquisitionDate;
+    
+    @Indexed
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Cost in the purchase currency, and the same cost in TRY at the lots' acquisition rates
+     */
+    @Data
+    public static class FxCost {
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal cost = BigDecimal.ZERO;
+        
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal costTry = BigDecimal.ZERO;
+    }
+}
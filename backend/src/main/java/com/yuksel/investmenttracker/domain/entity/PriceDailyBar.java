@@ -0,0 +1,48 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily OHLC bar rolled up from raw price snapshots. Prices are stored as Decimal128
+ * so $min/$max compare numerically during the incremental rollup.
+ */
+@Data
+@Document(collection = "price_daily_bars")
+@CompoundIndex(def = "{'assetId' : 1, 'date': -1}", unique = true)
+public class PriceDailyBar {
+    @Id
+    private String id;
+    
+    private String assetId;
+    
+    private LocalDate date;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal open;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal high;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal low;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal close;
+    
+    private String currency;
+    
+    private long sampleCount;
+    
+    private LocalDateTime openAt;
+    
+    private LocalDateTime closeAt;
+}
@@ -0,0 +1,33 @@
+package com.yuksel.investmenttracker.domain.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revoked access tokens, read by every node to keep its in-memory revocation filter current.
+ * An entry revokes either one token by id or every token of a user issued before
+ * {@code revokedAt}, and is removed once those tokens would have expired anyway.
+ */
+@Data
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+    @Id
+    private String id;
+    
+    /**
+     * Revoked token's {@code jti}; null when the entry covers every token of {@link #userId}
+     */
+    private String tokenId;
+    
+    private String userId;
+    
+    @Indexed
+    private LocalDateTime revokedAt;
+    
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.yuksel.investmenttracker.domain.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum CurrencyCode {
+    TRY,
+    USD,
+    EUR,
+    GBP,
+    JPY,
+    CHF,
+    CAD,
+    AUD;
+
+    private static final Map<String, CurrencyCode> BY_CODE = new HashMap<>();
+
+    static {
+        for (CurrencyCode code : values()) {
+            BY_CODE.put(code.name(), code);
+        }
+    }
+
+    /**
+     * @return the currency for an ISO code, or null if it is not supported
+     */
+    public static CurrencyCode fromCode(String code) {
+        return code == null ? null : BY_CODE.get(code);
+    }
+}
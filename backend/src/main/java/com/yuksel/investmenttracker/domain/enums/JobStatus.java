@@ -0,0 +1,9 @@
+package com.yuksel.investmenttracker.domain.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
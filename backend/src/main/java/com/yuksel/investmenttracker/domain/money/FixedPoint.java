@@ -0,0 +1,69 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-long arithmetic shared by {@link Money} and {@link Quantity}.
+ * All rounding is HALF_UP, matching the BigDecimal code it replaces.
+ */
+public final class FixedPoint {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private FixedPoint() {
+    }
+
+    public static long pow10(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Convert a decimal to units of 10^-scale, rounding HALF_UP
+     */
+    public static long toUnits(BigDecimal value, int scale) {
+        // movePointRight keeps the compact representation, unlike unscaledValue() which inflates to BigInteger
+        return value.setScale(scale, RoundingMode.HALF_UP).movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Compute a * b / divisor rounded HALF_UP, using the full 128-bit product so the
+     * intermediate never overflows. Falls back to BigInteger only when the result itself
+     * would not fit the fast path.
+     */
+    public static long multiplyDivide(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideHalfUp(low, divisor);
+        }
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Integer division rounded HALF_UP (ties away from zero)
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Rescale units from one scale to a smaller one, rounding HALF_UP
+     */
+    public static long rescale(long units, int fromScale, int toScale) {
+        return divideHalfUp(units, pow10(fromScale - toScale));
+    }
+}
@@ -0,0 +1,99 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import com.yuksel.investmenttracker.domain.enums.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable table of exchange rates between every pair of supported currencies, indexed
+ * by {@link CurrencyCode} ordinal. Only rates to TRY are kept as inputs; inverse and cross
+ * rates are all derived when the matrix is built, so a lookup is two array loads.
+ * Updates return a new matrix instead of changing this one.
+ */
+public final class FxRateMatrix {
+
+    public static final CurrencyCode BASE = CurrencyCode.TRY;
+
+    private static final CurrencyCode[] CURRENCIES = CurrencyCode.values();
+    private static final int SIZE = CURRENCIES.length;
+
+    public static final FxRateMatrix EMPTY = new FxRateMatrix(new BigDecimal[SIZE]);
+
+    private final BigDecimal[] ratesToBase;
+    private final BigDecimal[][] rates;
+
+    private FxRateMatrix(BigDecimal[] ratesToBase) {
+        ratesToBase[BASE.ordinal()] = BigDecimal.ONE;
+        this.ratesToBase = ratesToBase;
+        this.rates = new BigDecimal[SIZE][SIZE];
+
+        for (int from = 0; from < SIZE; from++) {
+            for (int to = 0; to < SIZE; to++) {
+                rates[from][to] = derive(from, to);
+            }
+        }
+    }
+
+    public static FxRateMatrix of(Map<CurrencyCode, BigDecimal> ratesToBase) {
+        return EMPTY.withRatesToBase(ratesToBase);
+    }
+
+    /**
+     * @return rate converting one unit of {@code from} into {@code to}, or null if either
+     * currency has no rate to TRY yet
+     */
+    public BigDecimal rate(CurrencyCode from, CurrencyCode to) {
+        return rates[from.ordinal()][to.ordinal()];
+    }
+
+    public boolean hasRate(CurrencyCode currency) {
+        return ratesToBase[currency.ordinal()] != null;
+    }
+
+    public FxRateMatrix withRatesToBase(Map<CurrencyCode, BigDecimal> updates) {
+        BigDecimal[] next = Arrays.copyOf(ratesToBase, SIZE);
+        updates.forEach((currency, rate) -> next[currency.ordinal()] = rate);
+        return new FxRateMatrix(next);
+    }
+
+    /**
+     * Apply a quote for any pair. A pair without TRY on either side is anchored on
+     * whichever side already has a rate to TRY.
+     *
+     * @throws IllegalArgumentException if neither side of a cross pair is known yet
+     */
+    public FxRateMatrix withRate(CurrencyCode from, CurrencyCode to, BigDecimal rate) {
+        BigDecimal[] next = Arrays.copyOf(ratesToBase, SIZE);
+        if (to == BASE) {
+            next[from.ordinal()] = rate;
+        } else if (from == BASE) {
+            next[to.ordinal()] = divide(BigDecimal.ONE, rate);
+        } else if (ratesToBase[to.ordinal()] != null) {
+            next[from.ordinal()] = rate.multiply(ratesToBase[to.ordinal()]);
+        } else if (ratesToBase[from.ordinal()] != null) {
+            next[to.ordinal()] = divide(ratesToBase[from.ordinal()], rate);
+        } else {
+            throw new IllegalArgumentException("No TRY rate for either side of " + from + "/" + to);
+        }
+        return new FxRateMatrix(next);
+    }
+
+    private BigDecimal derive(int from, int to) {
+        if (from == to) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal fromRate = ratesToBase[from];
+        BigDecimal toRate = ratesToBase[to];
+        if (fromRate == null || toRate == null) {
+            return null;
+        }
+        return to == BASE.ordinal() ? fromRate : divide(fromRate, toRate);
+    }
+
+    private static BigDecimal divide(BigDecimal dividend, BigDecimal divisor) {
+        return dividend.divide(divisor, Quantity.SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,110 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import java.util.Arrays;
+
+/**
+ * Rate history of one currency pair in two sorted primitive arrays: epoch seconds and
+ * rates in {@link Quantity} units. {@link #rateAt} is a binary search over a snapshot
+ * published through a volatile field, so readers never lock. Writers are serialized;
+ * in-order appends fill slots past every published size, anything else copies.
+ */
+public final class FxTimeSeries {
+
+    public static final long NO_RATE = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private volatile Points points = new Points(new long[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], 0);
+
+    private record Points(long[] times, long[] rates, int size) {
+    }
+
+    /**
+     * Rate in effect at the given time, i.e. the latest observation at or before it, or
+     * {@link #NO_RATE} if the series starts later
+     */
+    public long rateAt(long epochSecond) {
+        Points current = points;
+        int index = Arrays.binarySearch(current.times, 0, current.size, epochSecond);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index < 0 ? NO_RATE : current.rates[index];
+    }
+
+    public long latest() {
+        Points current = points;
+        return current.size == 0 ? NO_RATE : current.rates[current.size - 1];
+    }
+
+    public int size() {
+        return points.size;
+    }
+
+    public synchronized void put(long epochSecond, long rate) {
+        Points current = points;
+        int size = current.size;
+
+        if (size == 0 || epochSecond > current.times[size - 1]) {
+            long[] times = current.times;
+            long[] rates = current.rates;
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            times[size] = epochSecond;
+            rates[size] = rate;
+            points = new Points(times, rates, size + 1);
+            return;
+        }
+
+        // Late or corrected point: readers may be inside the arrays, so work on copies
+        int index = Arrays.binarySearch(current.times, 0, size, epochSecond);
+        long[] times = Arrays.copyOf(current.times, Math.max(current.times.length, size + 1));
+        long[] rates = Arrays.copyOf(current.rates, times.length);
+        if (index >= 0) {
+            rates[index] = rate;
+            points = new Points(times, rates, size);
+            return;
+        }
+        int insertAt = -index - 1;
+        System.arraycopy(times, insertAt, times, insertAt + 1, size - insertAt);
+        System.arraycopy(rates, insertAt, rates, insertAt + 1, size - insertAt);
+        times[insertAt] = epochSecond;
+        rates[insertAt] = rate;
+        points = new Points(times, rates, size + 1);
+    }
+
+    /**
+     * Collapse observations before the cutoff to the last one of each UTC day
+     *
+     * @return number of observations dropped
+     */
+    public synchronized int compactBefore(long cutoffEpochSecond) {
+        Points current = points;
+        long[] times = new long[current.times.length];
+        long[] rates = new long[current.times.length];
+        int size = 0;
+
+        for (int i = 0; i < current.size; i++) {
+            long time = current.times[i];
+            boolean beforeCutoff = time < cutoffEpochSecond;
+            boolean sameDayFollows = i + 1 < current.size
+                    && current.times[i + 1] < cutoffEpochSecond
+                    && Math.floorDiv(current.times[i + 1], SECONDS_PER_DAY) == Math.floorDiv(time, SECONDS_PER_DAY);
+            if (beforeCutoff && sameDayFollows) {
+                continue;
+            }
+            times[size] = time;
+            rates[size] = current.rates[i];
+            size++;
+        }
+
+        int dropped = current.size - size;
+        if (dropped > 0) {
+            points = new Points(times, rates, size);
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,83 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Monetary amount held as a long number of 10^-4 units. Valuation loops work on the raw
+ * units through the static helpers so they never allocate; amounts become BigDecimal only
+ * when they are written to a response.
+ *
+ * Rounding rules: amounts entering from BigDecimal are rounded HALF_UP to 4 decimals,
+ * amount x quantity products are rounded HALF_UP to 4 decimals, and percentages are
+ * rounded HALF_UP to 2 decimals. Unit prices are not amounts: they are carried at
+ * {@link Quantity#SCALE} decimals, as small-unit quotes such as 0.00667 would lose
+ * about half a percent at 4, and only the price x quantity product is rounded, once,
+ * HALF_UP to 4 decimals.
+ */
+public record Money(long units) implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long PRICE_PRODUCT_DIVISOR = FixedPoint.pow10(2 * Quantity.SCALE - SCALE);
+
+    public static Money of(BigDecimal amount) {
+        return new Money(unitsOf(amount));
+    }
+
+    public static long unitsOf(BigDecimal amount) {
+        return amount == null ? 0 : FixedPoint.toUnits(amount, SCALE);
+    }
+
+    /**
+     * Amount units times a quantity (or FX rate) in {@link Quantity} units, in amount units
+     */
+    public static long multiply(long amountUnits, long quantityUnits) {
+        return FixedPoint.multiplyDivide(amountUnits, quantityUnits, FixedPoint.pow10(Quantity.SCALE));
+    }
+
+    /**
+     * Unit price in {@link Quantity} units times a quantity in {@link Quantity} units, in
+     * amount units
+     */
+    public static long multiplyPrice(long priceUnits, long quantityUnits) {
+        return FixedPoint.multiplyDivide(priceUnits, quantityUnits, PRICE_PRODUCT_DIVISOR);
+    }
+
+    /**
+     * part / whole as a percentage with 2 decimals
+     */
+    public static BigDecimal percent(long partUnits, long wholeUnits) {
+        return BigDecimal.valueOf(FixedPoint.multiplyDivide(partUnits, 10_000, wholeUnits), 2);
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(units, other.units));
+    }
+
+    public Money times(Quantity quantity) {
+        return new Money(multiply(units, quantity.units()));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(units);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+}
@@ -0,0 +1,39 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Asset quantity or FX rate held as a long number of 10^-8 units, enough for fractional
+ * crypto and precious metal holdings. Values are rounded HALF_UP to 8 decimals on entry.
+ */
+public record Quantity(long units) implements Comparable<Quantity> {
+
+    public static final int SCALE = 8;
+
+    public static final Quantity ZERO = new Quantity(0);
+
+    public static Quantity of(BigDecimal quantity) {
+        return new Quantity(unitsOf(quantity));
+    }
+
+    public static long unitsOf(BigDecimal quantity) {
+        return quantity == null ? 0 : FixedPoint.toUnits(quantity, SCALE);
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public Quantity plus(Quantity other) {
+        return new Quantity(Math.addExact(units, other.units));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(units);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(units, other.units);
+    }
+}
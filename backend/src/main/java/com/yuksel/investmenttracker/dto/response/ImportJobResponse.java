@@ -0,0 +1,25 @@
+package com.yuksel.investmenttracker.dto.response;
+
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ImportJobResponse {
+    private String id;
+    private String fileName;
+    private JobStatus status;
+    private long estimatedRows; // Line count of the upload, so quoted line breaks count twice
+    private long rowsProcessed;
+    private long successCount;
+    private long errorCount;
+    private List<String> errors;
+    private long rowsPerSecond;
+    private Long etaSeconds; // Null once the job has stopped or before its first chunk
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -15,4 +15,5 @@ public class PortfolioAnalyticsResponse {
     private BigDecimal volatility;
     private BigDecimal sharpeRatio;
     private BigDecimal maxDrawdown;
+    private Long maxDrawdownDays;
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AcquisitionLotRepository extends MongoRepository<AcquisitionLot, String> {
@@ -14,4 +15,9 @@ public interface AcquisitionLotRepository extends MongoRepository<AcquisitionLot
     List<AcquisitionLot> findByUserId(String userId);
     Page<AcquisitionLot> findByUserId(String userId, Pageable pageable);
     Page<AcquisitionLot> findByUserIdAndAssetId(String userId, String assetId, Pageable pageable);
+    
+    /**
+     * Cursor over a user's lots; the stream must be closed
+     */
+    Stream<AcquisitionLot> streamByUserId(String userId);
 }
\ No newline at end of file
@@ -8,11 +8,16 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AssetRepository extends MongoRepository<Asset, String> {
-    Optional<Asset> findBySymbol(String symbol);
+    // Symbols are not unique, so lookups order by id and callers take the first match
+    Optional<Asset> findFirstBySymbolOrderByIdAsc(String symbol);
+    
+    List<Asset> findBySymbolInOrderByIdAsc(Collection<String> symbols);
     
     Page<Asset> findByType(AssetType type, Pageable pageable);
     
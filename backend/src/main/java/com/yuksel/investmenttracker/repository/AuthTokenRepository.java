@@ -5,11 +5,14 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthTokenRepository extends MongoRepository<AuthToken, String> {
     Optional<AuthToken> findByRefreshTokenHash(String refreshTokenHash);
     Optional<AuthToken> findByRefreshTokenHashAndExpiresAtAfter(String refreshTokenHash, LocalDateTime now);
+    Optional<AuthToken> findBySelectorAndExpiresAtAfter(String selector, LocalDateTime now);
+    List<AuthToken> findByUserIdAndSelectorIsNullAndExpiresAtAfter(String userId, LocalDateTime now);
     void deleteByUserId(String userId);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.yuksel.investmenttracker.repository;
+
+import com.yuksel.investmenttracker.domain.entity.FxRate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FxRateRepository extends MongoRepository<FxRate, String> {
+}
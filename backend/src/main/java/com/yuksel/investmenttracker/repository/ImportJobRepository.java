@@ -0,0 +1,17 @@
+package com.yuksel.investmenttracker.repository;
+
+import com.yuksel.investmenttracker.domain.entity.ImportJob;
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends MongoRepository<ImportJob, String> {
+    Optional<ImportJob> findByIdAndUserId(String id, String userId);
+    
+    List<ImportJob> findByStatusIn(Collection<JobStatus> statuses);
+}
@@ -0,0 +1,21 @@
+package com.yuksel.investmenttracker.repository;
+
+import com.yuksel.investmenttracker.domain.entity.PortfolioDailyValue;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PortfolioDailyValueRepository extends MongoRepository<PortfolioDailyValue, String> {
+    
+    @Query(value = "{'userId': ?0, 'date': {'$gte': ?1, '$lte': ?2}}", sort = "{'date': 1}")
+    List<PortfolioDailyValue> findByUserIdAndDateBetween(String userId, LocalDate start, LocalDate end);
+    
+    Optional<PortfolioDailyValue> findTopByUserIdOrderByDateDesc(String userId);
+    
+    void deleteByUserIdAndDateGreaterThanEqual(String userId, LocalDate date);
+}
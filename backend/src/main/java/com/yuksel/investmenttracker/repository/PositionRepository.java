@@ -0,0 +1,12 @@
+package com.yuksel.investmenttracker.repository;
+
+import com.yuksel.investmenttracker.domain.entity.Position;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PositionRepository extends MongoRepository<Position, String> {
+    List<Position> findByUserId(String userId);
+}
@@ -0,0 +1,29 @@
+package com.yuksel.investmenttracker.repository;
+
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PriceDailyBarRepository extends MongoRepository<PriceDailyBar, String> {
+    
+    @Query(value = "{'assetId': {'$in': ?0}, 'date': {'$gte': ?1, '$lte': ?2}}", sort = "{'date': 1}")
+    List<PriceDailyBar> findByAssetIdInAndDateBetween(Collection<String> assetIds, LocalDate start, LocalDate end);
+    
+    /**
+     * Most recent bar per asset strictly before the given date, i.e. the previous close.
+     */
+    @Aggregation(pipeline = {
+            "{'$match': {'assetId': {'$in': ?0}, 'date': {'$lt': ?1}}}",
+            "{'$sort': {'assetId': 1, 'date': -1}}",
+            "{'$group': {'_id': '$assetId', 'latest': {'$first': '$$ROOT'}}}",
+            "{'$replaceRoot': {'newRoot': '$latest'}}"
+    })
+    List<PriceDailyBar> findLatestPerAssetInBefore(Collection<String> assetIds, LocalDate before);
+}
@@ -1,11 +1,13 @@
 package com.yuksel.investmenttracker.repository;
 
 import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +22,15 @@ public interface PriceSnapshotRepository extends MongoRepository<PriceSnapshot,
     
     @Query(value = "{'assetId': {'$in': ?0}}", sort = "{'asOf': -1}")
     List<PriceSnapshot> findLatestByAssetIds(List<String> assetIds);
+    
+    /**
+     * Latest snapshot per asset, resolved server-side in a single round-trip.
+     */
+    @Aggregation(pipeline = {
+            "{'$match': {'assetId': {'$in': ?0}}}",
+            "{'$sort': {'assetId': 1, 'asOf': -1}}",
+            "{'$group': {'_id': '$assetId', 'latest': {'$first': '$$ROOT'}}}",
+            "{'$replaceRoot': {'newRoot': '$latest'}}"
+    })
+    List<PriceSnapshot> findLatestPerAssetIn(Collection<String> assetIds);
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.yuksel.investmenttracker.security;
+
+import com.yuksel.investmenttracker.domain.entity.TokenRevocation;
+import com.yuksel.investmenttracker.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access tokens revoked before they expire, checked on every request without touching
+ * Mongo. Exact maps hold revoked token ids and per-user cutoffs; a Bloom filter in front
+ * of them answers the common "not revoked" case from a few bit reads, with no allocation.
+ *
+ * <p>Revocations are written to {@code token_revocations} and every node polls that
+ * collection, so a logout on one node reaches the others within the poll interval.
+ * Entries drop out once the tokens they cover would have expired.
+ */
+@Slf4j
+@Component
+public class AccessTokenRevocations {
+
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+    private static final int MIN_CAPACITY = 1024;
+    private static final long TOKEN_SEED = 0x9e3779b97f4a7c15L;
+    private static final long USER_SEED = 0xc2b2ae3d27d4eb4fL;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final long accessTokenLifetimeSeconds;
+
+    // Token id -> expiry, user id -> cutoff, both in epoch seconds
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(MIN_CAPACITY);
+    private volatile LocalDateTime lastPolledAt;
+
+    public AccessTokenRevocations(TokenRevocationRepository tokenRevocationRepository,
+                                  @Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.accessTokenLifetimeSeconds = TimeUnit.MILLISECONDS.toSeconds(jwtExpirationMs);
+        // The first poll loads every revocation that can still match a live token
+        this.lastPolledAt = LocalDateTime.now().minusSeconds(accessTokenLifetimeSeconds);
+    }
+
+    /**
+     * @param tokenId       the token's {@code jti}
+     * @param issuedAtSecond the token's {@code iat}
+     */
+    public boolean isRevoked(String tokenId, String userId, long issuedAtSecond) {
+        BloomFilter current = filter;
+        if (tokenId != null && current.mightContain(tokenId, TOKEN_SEED)) {
+            Long expiresAt = revokedTokens.get(tokenId);
+            if (expiresAt != null && expiresAt > System.currentTimeMillis() / 1000) {
+                return true;
+            }
+        }
+        if (userId != null && current.mightContain(userId, USER_SEED)) {
+            Long cutoff = revokedUsers.get(userId);
+            // Whole seconds, so a login in the same second as the revocation stays valid
+            return cutoff != null && issuedAtSecond < cutoff;
+        }
+        return false;
+    }
+
+    public void revokeToken(String tokenId, String userId, Date expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(tokenId);
+        revocation.setUserId(userId);
+        revocation.setRevokedAt(LocalDateTime.now());
+        revocation.setExpiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+        apply(tokenRevocationRepository.save(revocation));
+    }
+
+    /**
+     * Revokes every token issued to the user until now
+     */
+    public void revokeUser(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setRevokedAt(now);
+        revocation.setExpiresAt(now.plusSeconds(accessTokenLifetimeSeconds));
+        apply(tokenRevocationRepository.save(revocation));
+    }
+
+    /**
+     * Picks up revocations written by other nodes. The window overlaps the previous poll
+     * to cover clock skew between nodes; applying an entry twice is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 5, initialDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void pollRevocations() {
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtAfter(lastPolledAt.minus(POLL_OVERLAP))) {
+            apply(revocation);
+        }
+        lastPolledAt = pollStartedAt;
+    }
+
+    /**
+     * Drops entries whose tokens have all expired and rebuilds the filter without them
+     */
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        int before = revokedTokens.size() + revokedUsers.size();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(cutoff -> cutoff + accessTokenLifetimeSeconds <= now);
+        rebuildFilter();
+        log.debug("Purged {} expired token revocations", before - revokedTokens.size() - revokedUsers.size());
+    }
+
+    int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private synchronized void apply(TokenRevocation revocation) {
+        if (revocation.getTokenId() != null) {
+            revokedTokens.put(revocation.getTokenId(), epochSecond(revocation.getExpiresAt()));
+            filter.add(revocation.getTokenId(), TOKEN_SEED);
+        } else {
+            revokedUsers.merge(revocation.getUserId(), epochSecond(revocation.getRevokedAt()), Math::max);
+            filter.add(revocation.getUserId(), USER_SEED);
+        }
+        if (size() > filter.capacity) {
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, size() * 2));
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.add(tokenId, TOKEN_SEED));
+        revokedUsers.keySet().forEach(userId -> rebuilt.add(userId, USER_SEED));
+        filter = rebuilt;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    /**
+     * Fixed-size Bloom filter of about 1% false positives at capacity. Bits are only set
+     * under the owner's lock; reads are lock-free.
+     */
+    static final class BloomFilter {
+
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int HASHES = 7;
+
+        final int capacity;
+        private final AtomicLongArray words;
+        private final long mask;
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            long bits = Long.highestOneBit((long) capacity * BITS_PER_ENTRY - 1) << 1;
+            this.words = new AtomicLongArray((int) Math.max(1, bits >>> 6));
+            this.mask = bits - 1;
+        }
+
+        void add(String key, long seed) {
+            long hash = hash(key, seed);
+            long h1 = (int) hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                int word = (int) (bit >>> 6);
+                words.set(word, words.get(word) | (1L << bit));
+            }
+        }
+
+        boolean mightContain(String key, long seed) {
+            long hash = hash(key, seed);
+            long h1 = (int) hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, finished with the MurmurHash3 mixer
+        private static long hash(String key, long seed) {
+            long hash = seed;
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.yuksel.investmenttracker.security;
 import com.yuksel.investmenttracker.domain.entity.User;
 import com.yuksel.investmenttracker.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -13,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    static final String PRINCIPAL_CACHE = "user-principals";
+
     private final UserRepository userRepository;
 
     @Override
@@ -24,11 +28,22 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
+    /**
+     * Principal of an already authenticated user, cached briefly and without the password
+     * hash. Callers that change a user evict it through {@link #evictUser(String)}.
+     */
     @Transactional
+    @Cacheable(value = PRINCIPAL_CACHE, cacheManager = "longTermCacheManager")
     public UserDetails loadUserById(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
-        return UserPrincipal.create(user);
+        UserPrincipal principal = UserPrincipal.create(user);
+        principal.setPassword(null);
+        return principal;
+    }
+
+    @CacheEvict(value = PRINCIPAL_CACHE, cacheManager = "longTermCacheManager")
+    public void evictUser(String id) {
     }
 }
\ No newline at end of file
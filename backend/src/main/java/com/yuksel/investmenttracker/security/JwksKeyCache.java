@@ -0,0 +1,145 @@
+package com.yuksel.investmenttracker.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Signing keys an identity provider publishes as a JWKS document, kept in memory so ID
+ * tokens verify without a network call. The document is fetched again once 80% of its
+ * Cache-Control max-age has passed, from {@link #refreshIfStale()} on a background
+ * schedule. A token signed with a key id not seen yet triggers one immediate fetch, at
+ * most once per {@link #MIN_REFRESH_INTERVAL}, so rotations are picked up straight away
+ * but made-up key ids cannot flood the provider.
+ */
+@Slf4j
+public class JwksKeyCache {
+
+    static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+    static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])max-age=(\\d+)");
+    private static final Pattern NO_CACHE = Pattern.compile("\\bno-(?:cache|store)\\b");
+
+    private final String provider;
+    private final URI jwksUri;
+    private final HttpClient httpClient;
+    private final Clock clock;
+    private volatile KeySet keySet = KeySet.EMPTY;
+
+    private record KeySet(Map<String, Key> keys, Instant fetchedAt, Instant refreshAt) {
+        static final KeySet EMPTY = new KeySet(Map.of(), Instant.EPOCH, Instant.EPOCH);
+    }
+
+    public JwksKeyCache(String provider, URI jwksUri, HttpClient httpClient) {
+        this(provider, jwksUri, httpClient, Clock.systemUTC());
+    }
+
+    JwksKeyCache(String provider, URI jwksUri, HttpClient httpClient, Clock clock) {
+        this.provider = provider;
+        this.jwksUri = jwksUri;
+        this.httpClient = httpClient;
+        this.clock = clock;
+    }
+
+    /**
+     * @throws JwtException if the provider does not publish a key with this id
+     */
+    public Key key(String keyId) {
+        KeySet current = keySet;
+        Key key = keyId == null ? null : current.keys().get(keyId);
+        if (key == null && keyId != null) {
+            log.info("Unknown {} signing key {}, fetching keys", provider, keyId);
+            key = refresh(current, true).keys().get(keyId);
+        }
+        if (key == null) {
+            throw new JwtException("No " + provider + " signing key with id " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Fetches the keys again if they are due; keeps the current keys if the fetch fails
+     */
+    public void refreshIfStale() {
+        KeySet current = keySet;
+        if (!clock.instant().isBefore(current.refreshAt())) {
+            refresh(current, false);
+        }
+    }
+
+    Instant refreshAt() {
+        return keySet.refreshAt();
+    }
+
+    private synchronized KeySet refresh(KeySet seen, boolean unknownKey) {
+        if (keySet != seen) {
+            // Another thread fetched while this one waited
+            return keySet;
+        }
+        Instant now = clock.instant();
+        if (unknownKey && now.isBefore(seen.fetchedAt().plus(MIN_REFRESH_INTERVAL))) {
+            return seen;
+        }
+
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(jwksUri).timeout(REQUEST_TIMEOUT).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            Duration maxAge = maxAge(response.headers().firstValue("Cache-Control").orElse(null));
+            keySet = new KeySet(parseKeys(response.body()), now, now.plus(maxAge.multipliedBy(4).dividedBy(5)));
+            log.debug("Fetched {} {} signing keys, next refresh in {}", keySet.keys().size(), provider, maxAge);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not fetch {} signing keys from {}: {}", provider, jwksUri, e.getMessage());
+            keySet = new KeySet(seen.keys(), now, now.plus(MIN_REFRESH_INTERVAL));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return keySet;
+    }
+
+    static Duration maxAge(String cacheControl) {
+        if (cacheControl == null) {
+            return DEFAULT_MAX_AGE;
+        }
+        if (NO_CACHE.matcher(cacheControl).find()) {
+            return MIN_REFRESH_INTERVAL;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        if (maxAge.find()) {
+            Duration seconds = Duration.ofSeconds(Long.parseLong(maxAge.group(1)));
+            return seconds.compareTo(MIN_REFRESH_INTERVAL) < 0 ? MIN_REFRESH_INTERVAL : seconds;
+        }
+        return DEFAULT_MAX_AGE;
+    }
+
+    private static Map<String, Key> parseKeys(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, Key> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk.getId() != null) {
+                keys.put(jwk.getId(), jwk.toKey());
+            }
+        }
+        return Map.copyOf(keys);
+    }
+}
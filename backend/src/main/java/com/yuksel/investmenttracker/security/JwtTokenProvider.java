@@ -1,5 +1,6 @@
 package com.yuksel.investmenttracker.security;
 
+import com.yuksel.investmenttracker.domain.enums.OAuthProvider;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -8,12 +9,22 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_PROVIDERS = "providers";
+    private static final String CLAIM_BASE_CURRENCY = "baseCurrency";
+    private static final String CLAIM_TIMEZONE = "timezone";
+
     private final SecretKey key;
     private final int jwtExpirationMs;
     private final int refreshExpirationMs;
@@ -26,12 +37,25 @@ public class JwtTokenProvider {
         this.refreshExpirationMs = refreshExpirationMs;
     }
 
+    /**
+     * Access token carrying the user's profile as signed claims, so requests authenticate
+     * without loading the user. The claims reflect the user when the token was issued; a
+     * refresh issues them again from the stored user.
+     */
     public String generateToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationMs);
+        List<String> providers = userPrincipal.getProviders() == null ? List.of()
+                : userPrincipal.getProviders().stream().map(Enum::name).toList();
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getId())
+                .setId(UUID.randomUUID().toString())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_PROVIDERS, providers)
+                .claim(CLAIM_BASE_CURRENCY, userPrincipal.getBaseCurrency())
+                .claim(CLAIM_TIMEZONE, userPrincipal.getTimezone())
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS512)
@@ -60,19 +84,43 @@ public class JwtTokenProvider {
         return claims.getSubject();
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token and returns its claims, parsing it once
+     *
+     * @return empty if the token is malformed, expired or not signed by this server
+     */
+    public Optional<Claims> parseClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token");
+            return Optional.of(Jwts.parser().setSigningKey(key).build().parseClaimsJws(authToken).getBody());
         } catch (ExpiredJwtException ex) {
             log.error("Expired JWT token");
-        } catch (UnsupportedJwtException ex) {
-            log.error("Unsupported JWT token");
+        } catch (JwtException ex) {
+            log.error("Invalid JWT token");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty.");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * @return empty for tokens issued before access tokens carried the profile claims
+     */
+    public Optional<UserPrincipal> getPrincipalFromClaims(Claims claims) {
+        String email = claims.get(CLAIM_EMAIL, String.class);
+        if (email == null) {
+            return Optional.empty();
+        }
+        List<?> providerNames = claims.get(CLAIM_PROVIDERS, List.class);
+        List<OAuthProvider> providers = new ArrayList<>();
+        if (providerNames != null) {
+            providerNames.forEach(name -> providers.add(OAuthProvider.valueOf(name.toString())));
+        }
+        return Optional.of(UserPrincipal.authenticated(claims.getSubject(), claims.get(CLAIM_NAME, String.class),
+                email, providers, claims.get(CLAIM_TIMEZONE, String.class),
+                claims.get(CLAIM_BASE_CURRENCY, String.class)));
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken).isPresent();
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.yuksel.investmenttracker.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opaque refresh token of the form {@code selector.verifier}. The selector is stored as is
+ * and looked up through a unique index; only a SHA-256 hash of the verifier is stored.
+ * Both parts are random, so a fast hash is enough and no password encoder is involved.
+ */
+public record RefreshToken(String selector, String verifier) {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final int SELECTOR_BYTES = 16;
+    private static final int VERIFIER_BYTES = 32;
+
+    public static RefreshToken generate() {
+        return new RefreshToken(randomPart(SELECTOR_BYTES), randomPart(VERIFIER_BYTES));
+    }
+
+    /**
+     * @return empty if {@code value} is not in selector/verifier form, e.g. a refresh JWT
+     * issued before this format
+     */
+    public static Optional<RefreshToken> parse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0 || dot == value.length() - 1 || value.indexOf('.', dot + 1) >= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new RefreshToken(value.substring(0, dot), value.substring(dot + 1)));
+    }
+
+    public String value() {
+        return selector + "." + verifier;
+    }
+
+    public String verifierHash() {
+        return HexFormat.of().formatHex(sha256(verifier));
+    }
+
+    /**
+     * Constant-time comparison against a stored {@link #verifierHash()}
+     */
+    public boolean matches(String storedVerifierHash) {
+        if (storedVerifierHash == null) {
+            return false;
+        }
+        byte[] stored;
+        try {
+            stored = HexFormat.of().parseHex(storedVerifierHash);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(sha256(verifier), stored);
+    }
+
+    private static String randomPart(int bytes) {
+        byte[] value = new byte[bytes];
+        RANDOM.nextBytes(value);
+        return ENCODER.encodeToString(value);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -23,19 +23,33 @@ public class UserPrincipal implements UserDetails {
     private String password;
     private List<OAuthProvider> providers;
     private Collection<? extends GrantedAuthority> authorities;
+    private String timezone;
+    private String baseCurrency;
 
     public static UserPrincipal create(User user) {
-        List<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_USER")
-        );
-
         return new UserPrincipal(
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
                 user.getPasswordHash(),
                 user.getProviders(),
-                authorities
+                userAuthorities(),
+                user.getTimezone(),
+                user.getBaseCurrency()
+        );
+    }
+
+    /**
+     * Principal without credentials, for a user already authenticated by a signed token
+     */
+    public static UserPrincipal authenticated(String id, String name, String email, List<OAuthProvider> providers,
+                                              String timezone, String baseCurrency) {
+        return new UserPrincipal(id, name, email, null, providers, userAuthorities(), timezone, baseCurrency);
+    }
+
+    private static List<GrantedAuthority> userAuthorities() {
+        return Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_USER")
         );
     }
 
@@ -0,0 +1,200 @@
+package com.yuksel.investmenttracker.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.dto.request.AcquisitionRequest;
+import com.yuksel.investmenttracker.repository.AssetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Writes parsed acquisitions a chunk at a time: every symbol in the chunk is resolved with
+ * one {@code $in} query, unknown symbols are upserted in one bulk write, lots go out as one
+ * unordered insert and positions as one upsert per asset. A symbol stored more than once
+ * resolves to its asset with the lowest id. Callers own cache eviction and
+ * stored daily values, so a whole import touches them once instead of once per row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AcquisitionBatchWriter {
+
+    private static final String DEFAULT_CURRENCY = "USD";
+    private static final int DUPLICATE_KEY = 11000;
+
+    /**
+     * Fresh ids for lots that are written once
+     */
+    public static final Function<Row, String> RANDOM_LOT_IDS = row -> new ObjectId().toHexString();
+
+    private final AssetRepository assetRepository;
+    private final AssetDictionary assetDictionary;
+    private final MongoTemplate mongoTemplate;
+    private final PositionService positionService;
+    private final FxRateHistoryService fxRateHistoryService;
+
+    /**
+     * A parsed row and the CSV line it came from
+     */
+    public record Row(int lineNumber, AcquisitionRequest request) {
+    }
+
+    /**
+     * @param failures error message by line number for rows that were not stored
+     * @param earliestAcquisitionDate earliest date among stored lots, or null if none were
+     */
+    public record ChunkResult(int written, Map<Integer, String> failures, LocalDate earliestAcquisitionDate) {
+    }
+
+    /**
+     * Store one chunk of rows for {@code userId}. Lot ids come from {@code lotIds}; when the
+     * same id is derived on every attempt, a chunk can be written again after a crash: lots
+     * that already exist count as stored but are not applied to positions again, so a caller
+     * replaying a chunk should rebuild the user's positions once it is done.
+     */
+    public ChunkResult write(String userId, List<Row> rows, Function<Row, String> lotIds) {
+        Map<Integer, String> failures = new HashMap<>();
+        Map<String, Asset> assetsBySymbol = resolveAssets(rows);
+
+        List<AcquisitionLot> lots = new ArrayList<>(rows.size());
+        List<Integer> lineNumbers = new ArrayList<>(rows.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Row row : rows) {
+            Asset asset = assetsBySymbol.get(row.request().getAssetSymbol());
+            if (asset == null) {
+                failures.put(row.lineNumber(), "Asset could not be created for symbol: " + row.request().getAssetSymbol());
+                continue;
+            }
+            lots.add(createLot(lotIds.apply(row), userId, asset, row.request(), now));
+            lineNumbers.add(row.lineNumber());
+        }
+
+        List<AcquisitionLot> stored = new ArrayList<>(lots.size());
+        List<AcquisitionLot> inserted = insertLots(lots, lineNumbers, stored, failures);
+        if (!inserted.isEmpty()) {
+            positionService.applyAcquisitions(inserted);
+        }
+
+        LocalDate earliest = stored.stream()
+                .map(AcquisitionLot::getAcquisitionDate)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        log.debug("Wrote {} of {} rows for user {}", stored.size(), rows.size(), userId);
+        return new ChunkResult(stored.size(), failures, earliest);
+    }
+
+    private Map<String, Asset> resolveAssets(List<Row> rows) {
+        // First row per symbol decides name, type and currency of an asset it creates
+        Map<String, AcquisitionRequest> firstRequestBySymbol = new LinkedHashMap<>();
+        rows.forEach(row -> firstRequestBySymbol.putIfAbsent(row.request().getAssetSymbol(), row.request()));
+
+        Map<String, Asset> assetsBySymbol = new HashMap<>();
+        assetRepository.findBySymbolInOrderByIdAsc(firstRequestBySymbol.keySet())
+                .forEach(asset -> assetsBySymbol.putIfAbsent(asset.getSymbol(), asset));
+
+        List<String> missing = firstRequestBySymbol.keySet().stream()
+                .filter(symbol -> !assetsBySymbol.containsKey(symbol))
+                .toList();
+        if (missing.isEmpty()) {
+            return assetsBySymbol;
+        }
+
+        // Symbols are not unique, so two imports creating the same one at once can both
+        // insert it; each then re-reads in id order and keeps the lowest id, the same asset
+        // every other symbol lookup returns
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Asset.class);
+        for (String symbol : missing) {
+            AcquisitionRequest request = firstRequestBySymbol.get(symbol);
+            bulkOps.upsert(new Query(where("symbol").is(symbol)), new Update()
+                    .setOnInsert("name", request.getAssetName() != null ? request.getAssetName() : symbol)
+                    .setOnInsert("type", request.getAssetType())
+                    .setOnInsert("currency", request.getCurrency() != null ? request.getCurrency() : DEFAULT_CURRENCY));
+        }
+        bulkOps.execute();
+
+        for (Asset asset : assetRepository.findBySymbolInOrderByIdAsc(missing)) {
+            if (assetsBySymbol.putIfAbsent(asset.getSymbol(), asset) == null) {
+                assetDictionary.put(asset);
+            }
+        }
+        log.info("Created {} assets during import", missing.size());
+        return assetsBySymbol;
+    }
+
+    private AcquisitionLot createLot(String id, String userId, Asset asset, AcquisitionRequest request,
+                                     LocalDateTime now) {
+        AcquisitionLot lot = new AcquisitionLot();
+        lot.setId(id);
+        lot.setUserId(userId);
+        lot.setAssetId(asset.getId());
+        lot.setQuantity(request.getQuantity());
+        lot.setUnitPrice(request.getUnitPrice());
+        lot.setCurrency(request.getCurrency() != null ? request.getCurrency() : DEFAULT_CURRENCY);
+        lot.setFee(request.getFee() != null ? request.getFee() : BigDecimal.ZERO);
+        lot.setAcquisitionDate(request.getAcquisitionDate());
+        lot.setFxRateAtAcquisition(fxRateHistoryService
+                .closeOn(lot.getCurrency(), "TRY", request.getAcquisitionDate())
+                .orElse(null));
+        lot.setNotes(request.getNotes());
+        lot.setTags(request.getTags());
+        lot.setCreatedAt(now);
+        lot.setUpdatedAt(now);
+        return lot;
+    }
+
+    /**
+     * Adds every lot that is now in the collection to {@code stored}, and the lines of
+     * rejected ones to {@code failures}
+     *
+     * @return lots inserted by this call
+     */
+    private List<AcquisitionLot> insertLots(List<AcquisitionLot> lots, List<Integer> lineNumbers,
+                                            List<AcquisitionLot> stored, Map<Integer, String> failures) {
+        if (lots.isEmpty()) {
+            return lots;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AcquisitionLot.class)
+                    .insert(lots)
+                    .execute();
+            stored.addAll(lots);
+            return lots;
+        } catch (BulkOperationException e) {
+            // Unordered: every lot that is not reported here was written
+            Map<Integer, BulkWriteError> rejected = new HashMap<>();
+            e.getErrors().forEach(error -> rejected.put(error.getIndex(), error));
+
+            List<AcquisitionLot> inserted = new ArrayList<>(lots.size() - rejected.size());
+            for (int i = 0; i < lots.size(); i++) {
+                BulkWriteError error = rejected.get(i);
+                if (error == null) {
+                    inserted.add(lots.get(i));
+                    stored.add(lots.get(i));
+                } else if (error.getCode() == DUPLICATE_KEY) {
+                    // Same id on a repeated attempt: stored before, so not applied again
+                    stored.add(lots.get(i));
+                } else {
+                    failures.put(lineNumbers.get(i), error.getMessage());
+                }
+            }
+            return inserted;
+        }
+    }
+}
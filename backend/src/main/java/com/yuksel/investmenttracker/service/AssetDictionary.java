@@ -0,0 +1,101 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.repository.AssetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory asset metadata backed by the "asset-details" cache. Lookups for many assets
+ * resolve every miss with one {@code findAllById}. Symbols and currencies are interned,
+ * as the same few values repeat across every asset. Returned assets are shared and must
+ * be treated as read-only.
+ */
+@Slf4j
+@Service
+public class AssetDictionary {
+
+    private static final String ASSET_DETAILS_CACHE = "asset-details";
+
+    private final AssetRepository assetRepository;
+    private final CacheManager longTermCacheManager;
+
+    public AssetDictionary(AssetRepository assetRepository,
+                           @Qualifier("longTermCacheManager") CacheManager longTermCacheManager) {
+        this.assetRepository = assetRepository;
+        this.longTermCacheManager = longTermCacheManager;
+    }
+
+    /**
+     * @return the asset, or null if it does not exist
+     */
+    public Asset get(String assetId) {
+        return getAll(List.of(assetId)).get(assetId);
+    }
+
+    /**
+     * Assets by id; ids that do not exist are left out
+     */
+    public Map<String, Asset> getAll(Collection<String> assetIds) {
+        Map<String, Asset> assets = new HashMap<>();
+        if (assetIds.isEmpty()) {
+            return assets;
+        }
+
+        Cache cache = longTermCacheManager.getCache(ASSET_DETAILS_CACHE);
+        Set<String> misses = new HashSet<>();
+        for (String assetId : assetIds) {
+            Asset cached = cache != null ? cache.get(assetId, Asset.class) : null;
+            if (cached != null) {
+                assets.put(assetId, cached);
+            } else {
+                misses.add(assetId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            int loaded = 0;
+            for (Asset asset : assetRepository.findAllById(List.copyOf(misses))) {
+                Asset entry = intern(asset);
+                assets.put(entry.getId(), entry);
+                if (cache != null) {
+                    cache.put(entry.getId(), entry);
+                }
+                loaded++;
+            }
+            log.debug("Loaded {} of {} missing assets", loaded, misses.size());
+        }
+
+        return assets;
+    }
+
+    /**
+     * Make a newly created or updated asset visible without a reload
+     */
+    public void put(Asset asset) {
+        Cache cache = longTermCacheManager.getCache(ASSET_DETAILS_CACHE);
+        if (cache != null) {
+            cache.put(asset.getId(), intern(asset));
+        }
+    }
+
+    private static Asset intern(Asset asset) {
+        if (asset.getSymbol() != null) {
+            asset.setSymbol(asset.getSymbol().intern());
+        }
+        if (asset.getCurrency() != null) {
+            asset.setCurrency(asset.getCurrency().intern());
+        }
+        return asset;
+    }
+}
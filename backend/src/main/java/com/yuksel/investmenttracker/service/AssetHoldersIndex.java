@@ -0,0 +1,93 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.Position;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Reverse index from assetId to the users holding it, so a price change can reach exactly
+ * the users whose valuations it affects. Loaded from the positions read model on startup
+ * and kept current by {@link PositionService} as lots are applied on this node. Positions
+ * written by other nodes are picked up by polling {@code positions.updatedAt}. Holdings
+ * are never sold off, so entries are only ever added.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssetHoldersIndex {
+
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final MongoTemplate mongoTemplate;
+    private final ConcurrentMap<String, Set<String>> holdersByAsset = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPolledAt;
+
+    public void addHolder(String assetId, String userId) {
+        holdersByAsset.computeIfAbsent(assetId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    public Set<String> getHolders(String assetId) {
+        Set<String> holders = holdersByAsset.get(assetId);
+        return holders != null ? Collections.unmodifiableSet(holders) : Set.of();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void initializeIndex() {
+        lastPolledAt = LocalDateTime.now();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("assetId").addToSet("userId").as("userIds"));
+
+        int pairs = 0;
+        try (Stream<Document> groups = mongoTemplate.aggregateStream(aggregation, Position.class, Document.class)) {
+            for (Document group : (Iterable<Document>) groups::iterator) {
+                String assetId = group.getString("_id");
+                for (String userId : group.getList("userIds", String.class)) {
+                    addHolder(assetId, userId);
+                    pairs++;
+                }
+            }
+        }
+        log.info("Indexed {} holdings across {} assets", pairs, holdersByAsset.size());
+    }
+
+    /**
+     * Picks up positions written by other nodes since the last poll. The window overlaps
+     * the previous poll to cover clock skew between nodes; adding a holder twice is harmless.
+     */
+    @Scheduled(fixedDelay = 5, initialDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void pollHolders() {
+        LocalDateTime since = lastPolledAt;
+        if (since == null) {
+            // Not loaded yet; the startup load covers everything written so far
+            return;
+        }
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        Query query = new Query(where("updatedAt").gt(since.minus(POLL_OVERLAP)));
+        query.fields().include("userId", "assetId");
+        try (Stream<Position> positions = mongoTemplate.stream(query, Position.class)) {
+            positions.forEach(position -> addHolder(position.getAssetId(), position.getUserId()));
+        }
+        lastPolledAt = pollStartedAt;
+    }
+}
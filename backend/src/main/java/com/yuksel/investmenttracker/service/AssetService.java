@@ -62,7 +62,7 @@ public class AssetService {
     }
 
     public Asset findOrCreateAsset(String symbol, String name, String type, String currency) {
-        return assetRepository.findBySymbol(symbol)
+        return assetRepository.findFirstBySymbolOrderByIdAsc(symbol)
                 .orElseGet(() -> {
                     Asset newAsset = new Asset();
                     newAsset.setSymbol(symbol);
@@ -13,8 +13,13 @@ import com.yuksel.investmenttracker.dto.response.UserResponse;
 import com.yuksel.investmenttracker.repository.AuthTokenRepository;
 import com.yuksel.investmenttracker.repository.PasswordResetTokenRepository;
 import com.yuksel.investmenttracker.repository.UserRepository;
+import com.yuksel.investmenttracker.security.AccessTokenRevocations;
+import com.yuksel.investmenttracker.security.CustomUserDetailsService;
 import com.yuksel.investmenttracker.security.JwtTokenProvider;
+import com.yuksel.investmenttracker.security.RefreshToken;
 import com.yuksel.investmenttracker.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,7 +34,7 @@ import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Base64;
-import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -44,6 +49,8 @@ public class AuthService {
     private final JwtTokenProvider tokenProvider;
     private final OAuthService oauthService;
     private final EmailService emailService;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final AccessTokenRevocations accessTokenRevocations;
 
     @Transactional
     public AuthResponse signUp(SignUpRequest signUpRequest) {
@@ -104,25 +111,38 @@ public class AuthService {
         if (!user.getProviders().contains(provider)) {
             user.getProviders().add(provider);
             userRepository.save(user);
+            customUserDetailsService.evictUser(user.getId());
         }
         
         // Generate tokens and return auth response
         return createAuthResponse(createAuthentication(user));
     }
 
-    public void logout(String userId) {
-        authTokenRepository.deleteByUserId(userId);
+    /**
+     * Revokes the presented access token and ends the user's refresh sessions
+     */
+    public void logout(String accessToken) {
+        Claims claims = tokenProvider.parseClaims(accessToken)
+                .orElseThrow(() -> new RuntimeException("Invalid or expired access token"));
+        if (claims.getId() != null) {
+            accessTokenRevocations.revokeToken(claims.getId(), claims.getSubject(), claims.getExpiration());
+        } else {
+            // Issued before tokens had ids
+            accessTokenRevocations.revokeUser(claims.getSubject());
+        }
+        authTokenRepository.deleteByUserId(claims.getSubject());
     }
 
     private AuthResponse createAuthResponse(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         String jwt = tokenProvider.generateToken(authentication);
-        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal.getId());
+        RefreshToken refreshToken = RefreshToken.generate();
 
         // Save refresh token
         AuthToken authToken = new AuthToken();
         authToken.setUserId(userPrincipal.getId());
-        authToken.setRefreshTokenHash(passwordEncoder.encode(refreshToken));
+        authToken.setSelector(refreshToken.selector());
+        authToken.setRefreshTokenHash(refreshToken.verifierHash());
         authToken.setExpiresAt(LocalDateTime.now().plusDays(7));
         authToken.setCreatedAt(LocalDateTime.now());
         authTokenRepository.save(authToken);
@@ -134,7 +154,7 @@ public class AuthService {
         userResponse.setEmail(userPrincipal.getEmail());
         userResponse.setProviders(userPrincipal.getProviders());
 
-        return new AuthResponse(jwt, refreshToken, userResponse);
+        return new AuthResponse(jwt, refreshToken.value(), userResponse);
     }
 
     public UserResponse getCurrentUser() {
@@ -197,31 +217,24 @@ public class AuthService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        customUserDetailsService.evictUser(user.getId());
         
         // Mark token as used
         resetToken.setUsed(true);
         resetToken.setUsedAt(LocalDateTime.now());
         passwordResetTokenRepository.save(resetToken);
         
-        // Delete all auth tokens to force re-login
+        // Delete all auth tokens and revoke issued access tokens to force re-login
         authTokenRepository.deleteByUserId(user.getId());
+        accessTokenRevocations.revokeUser(user.getId());
         
         log.info("Password reset successfully for user: {}", user.getEmail());
     }
     
     @Transactional
     public AuthResponse refreshToken(String refreshToken) {
-        // Find all valid auth tokens and check against the provided refresh token
-        List<AuthToken> validTokens = authTokenRepository.findAll().stream()
-                .filter(token -> token.getExpiresAt().isAfter(LocalDateTime.now()))
-                .filter(token -> passwordEncoder.matches(refreshToken, token.getRefreshTokenHash()))
-                .toList();
-        
-        if (validTokens.isEmpty()) {
-            throw new RuntimeException("Invalid or expired refresh token");
-        }
-        
-        AuthToken authToken = validTokens.get(0);
+        AuthToken authToken = findRefreshToken(refreshToken)
+                .orElseThrow(() -> new RuntimeException("Invalid or expired refresh token"));
         
         // Get user
         User user = userRepository.findById(authToken.getUserId())
@@ -235,6 +248,31 @@ public class AuthService {
         return createAuthResponse(authentication);
     }
     
+    /**
+     * One indexed lookup by selector. Refresh JWTs issued before selector tokens are still
+     * accepted until they expire: the JWT names its user, so only that user's few legacy
+     * tokens go through the password encoder, and the refresh replaces the token with a
+     * selector token.
+     */
+    private Optional<AuthToken> findRefreshToken(String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<RefreshToken> token = RefreshToken.parse(refreshToken);
+        if (token.isPresent()) {
+            return authTokenRepository.findBySelectorAndExpiresAtAfter(token.get().selector(), now)
+                    .filter(stored -> token.get().matches(stored.getRefreshTokenHash()));
+        }
+        
+        String userId;
+        try {
+            userId = tokenProvider.getUserIdFromToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return authTokenRepository.findByUserIdAndSelectorIsNullAndExpiresAtAfter(userId, now).stream()
+                .filter(stored -> passwordEncoder.matches(refreshToken, stored.getRefreshTokenHash()))
+                .findFirst();
+    }
+    
     private User createUserFromOAuth(OAuthUserInfo userInfo, OAuthProvider provider) {
         User user = new User();
         user.setName(userInfo.getName());
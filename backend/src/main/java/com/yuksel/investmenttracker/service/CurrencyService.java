@@ -1,77 +1,54 @@
 package com.yuksel.investmenttracker.service;
 
+import com.yuksel.investmenttracker.domain.enums.CurrencyCode;
+import com.yuksel.investmenttracker.domain.money.FixedPoint;
+import com.yuksel.investmenttracker.domain.money.FxRateMatrix;
+import com.yuksel.investmenttracker.domain.money.Money;
+import com.yuksel.investmenttracker.domain.money.Quantity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CurrencyService {
 
-    // In-memory cache for exchange rates (in real implementation, this would come from external API)
-    private final Map<String, BigDecimal> exchangeRates = new ConcurrentHashMap<>();
+    private final FxRateHistoryService fxRateHistoryService;
 
-    {
-        // Initialize with some default rates (these would be fetched from real APIs)
-        exchangeRates.put("USD_TRY", BigDecimal.valueOf(31.5));
-        exchangeRates.put("EUR_TRY", BigDecimal.valueOf(34.2));
-        exchangeRates.put("GBP_TRY", BigDecimal.valueOf(39.8));
-        exchangeRates.put("JPY_TRY", BigDecimal.valueOf(0.21));
-        exchangeRates.put("TRY_TRY", BigDecimal.valueOf(1.0));
-        
-        // Reverse rates
-        exchangeRates.put("TRY_USD", BigDecimal.valueOf(1.0).divide(BigDecimal.valueOf(31.5), 6, RoundingMode.HALF_UP));
-        exchangeRates.put("TRY_EUR", BigDecimal.valueOf(1.0).divide(BigDecimal.valueOf(34.2), 6, RoundingMode.HALF_UP));
-        exchangeRates.put("TRY_GBP", BigDecimal.valueOf(1.0).divide(BigDecimal.valueOf(39.8), 6, RoundingMode.HALF_UP));
-        exchangeRates.put("TRY_JPY", BigDecimal.valueOf(1.0).divide(BigDecimal.valueOf(0.21), 6, RoundingMode.HALF_UP));
-    }
+    // Rates to TRY come from an external API in a real deployment; these are development defaults
+    private static final Map<CurrencyCode, BigDecimal> DEFAULT_RATES = Map.of(
+            CurrencyCode.USD, BigDecimal.valueOf(31.5),
+            CurrencyCode.EUR, BigDecimal.valueOf(34.2),
+            CurrencyCode.GBP, BigDecimal.valueOf(39.8),
+            CurrencyCode.JPY, BigDecimal.valueOf(0.21));
+
+    /**
+     * Current rates between all supported currencies. Writers build a complete new matrix
+     * and publish it with one volatile write, so readers never lock and never observe a
+     * refresh half applied.
+     */
+    private volatile FxRateMatrix rates = FxRateMatrix.of(DEFAULT_RATES);
 
-    @Cacheable(value = "exchange-rates", key = "#fromCurrency + '_' + #toCurrency")
     public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
         if (fromCurrency.equals(toCurrency)) {
             return BigDecimal.ONE;
         }
 
-        String key = fromCurrency + "_" + toCurrency;
-        BigDecimal rate = exchangeRates.get(key);
-        
-        if (rate != null) {
-            log.debug("Exchange rate {}: {}", key, rate);
-            return rate;
-        }
-
-        // Try inverse rate
-        String inverseKey = toCurrency + "_" + fromCurrency;
-        BigDecimal inverseRate = exchangeRates.get(inverseKey);
-        if (inverseRate != null) {
-            rate = BigDecimal.ONE.divide(inverseRate, 6, RoundingMode.HALF_UP);
-            exchangeRates.put(key, rate); // Cache the calculated rate
-            log.debug("Calculated exchange rate {} from inverse: {}", key, rate);
-            return rate;
+        CurrencyCode from = CurrencyCode.fromCode(fromCurrency);
+        CurrencyCode to = CurrencyCode.fromCode(toCurrency);
+        BigDecimal rate = from == null || to == null ? null : rates.rate(from, to);
+        if (rate == null) {
+            log.warn("Exchange rate not found for {}_{}, returning 1.0", fromCurrency, toCurrency);
+            return BigDecimal.ONE; // Default to 1:1 if rate not found
         }
 
-        // If no direct or inverse rate found, try cross-currency conversion via TRY
-        if (!fromCurrency.equals("TRY") && !toCurrency.equals("TRY")) {
-            BigDecimal fromToTRY = exchangeRates.get(fromCurrency + "_TRY");
-            BigDecimal TRYToTarget = exchangeRates.get("TRY_" + toCurrency);
-            
-            if (fromToTRY != null && TRYToTarget != null) {
-                rate = fromToTRY.multiply(TRYToTarget);
-                exchangeRates.put(key, rate); // Cache the calculated rate
-                log.debug("Cross-calculated exchange rate {} via TRY: {}", key, rate);
-                return rate;
-            }
-        }
-
-        log.warn("Exchange rate not found for {}, returning 1.0", key);
-        return BigDecimal.ONE; // Default to 1:1 if rate not found
+        return rate;
     }
 
     public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
@@ -80,42 +57,43 @@ public class CurrencyService {
         }
 
         BigDecimal rate = getExchangeRate(fromCurrency, toCurrency);
-        BigDecimal convertedAmount = amount.multiply(rate);
+        // Single HALF_UP rounding of the exact fixed-point product straight to cents
+        long cents = FixedPoint.multiplyDivide(Money.unitsOf(amount), Quantity.unitsOf(rate),
+                FixedPoint.pow10(Money.SCALE + Quantity.SCALE - 2));
+        BigDecimal convertedAmount = BigDecimal.valueOf(cents, 2);
         
         log.debug("Converted {} {} to {} {} at rate {}", 
                 amount, fromCurrency, convertedAmount, toCurrency, rate);
         
-        return convertedAmount.setScale(2, RoundingMode.HALF_UP);
+        return convertedAmount;
     }
 
     public void updateExchangeRate(String fromCurrency, String toCurrency, BigDecimal rate) {
-        String key = fromCurrency + "_" + toCurrency;
-        exchangeRates.put(key, rate);
-        
-        // Also store the inverse rate
-        String inverseKey = toCurrency + "_" + fromCurrency;
-        BigDecimal inverseRate = BigDecimal.ONE.divide(rate, 6, RoundingMode.HALF_UP);
-        exchangeRates.put(inverseKey, inverseRate);
-        
-        log.info("Updated exchange rate {}: {}", key, rate);
+        CurrencyCode from = requireSupported(fromCurrency);
+        CurrencyCode to = requireSupported(toCurrency);
+
+        synchronized (this) {
+            rates = rates.withRate(from, to, rate);
+        }
+        fxRateHistoryService.record(fromCurrency, toCurrency, rate, LocalDateTime.now());
+
+        log.info("Updated exchange rate {}_{}: {}", fromCurrency, toCurrency, rate);
     }
 
     public void refreshExchangeRates() {
         log.info("Starting exchange rate refresh from external APIs");
         
         try {
-            // List of currency pairs to update
-            String[] currencyPairs = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD"};
-            
-            int successCount = 0;
+            Map<CurrencyCode, BigDecimal> fetched = new EnumMap<>(CurrencyCode.class);
             int failureCount = 0;
             
-            for (String currency : currencyPairs) {
+            for (CurrencyCode currency : CurrencyCode.values()) {
+                if (currency == FxRateMatrix.BASE) {
+                    continue;
+                }
                 try {
-                    String pair = currency + "_TRY";
-                    BigDecimal rate = fetchExchangeRateFromAPI(currency, "TRY");
-                    updateExchangeRate(currency, "TRY", rate);
-                    successCount++;
+                    BigDecimal rate = fetchExchangeRateFromAPI(currency.name(), "TRY");
+                    fetched.put(currency, rate);
                     
                     // Small delay to respect API rate limits
                     Thread.sleep(200);
@@ -125,8 +103,16 @@ public class CurrencyService {
                     failureCount++;
                 }
             }
+
+            // Publish the whole set at once; currencies that failed keep their previous rate
+            synchronized (this) {
+                rates = rates.withRatesToBase(fetched);
+            }
+
+            LocalDateTime asOf = LocalDateTime.now();
+            fetched.forEach((currency, rate) -> fxRateHistoryService.record(currency.name(), "TRY", rate, asOf));
             
-            log.info("Exchange rate refresh completed. Success: {}, Failures: {}", successCount, failureCount);
+            log.info("Exchange rate refresh completed. Success: {}, Failures: {}", fetched.size(), failureCount);
             
         } catch (Exception e) {
             log.error("Exchange rate refresh failed", e);
@@ -174,8 +160,15 @@ public class CurrencyService {
     }
 
     public boolean isSupportedCurrency(String currency) {
-        return exchangeRates.containsKey(currency + "_TRY") || 
-               exchangeRates.containsKey("TRY_" + currency) ||
-               currency.equals("TRY");
+        CurrencyCode code = CurrencyCode.fromCode(currency);
+        return code != null && rates.hasRate(code);
+    }
+
+    private static CurrencyCode requireSupported(String currency) {
+        CurrencyCode code = CurrencyCode.fromCode(currency);
+        if (code == null) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return code;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.FxRate;
+import com.yuksel.investmenttracker.domain.money.FixedPoint;
+import com.yuksel.investmenttracker.domain.money.FxTimeSeries;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import com.yuksel.investmenttracker.repository.FxRateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Historical exchange rates. Every observation is persisted to "fx_rates" and mirrored
+ * in an in-memory {@link FxTimeSeries} per pair, so {@link #rateAt} is a binary search
+ * with no database access. Ticks older than the retention window are compacted nightly
+ * to one daily close per pair.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRateHistoryService {
+
+    private static final String BASE_CURRENCY = "TRY";
+    private static final int TICK_RETENTION_DAYS = 30;
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final long ONE = FixedPoint.pow10(Quantity.SCALE);
+
+    private final FxRateRepository fxRateRepository;
+    private final PositionService positionService;
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, FxTimeSeries> seriesByPair = new ConcurrentHashMap<>();
+
+    public void record(String fromCurrency, String toCurrency, BigDecimal rate, LocalDateTime asOf) {
+        String pair = pair(fromCurrency, toCurrency);
+
+        Query query = new Query(where("pair").is(pair).and("asOf").is(asOf));
+        mongoTemplate.upsert(query, new Update().set("rate", new Decimal128(rate)), FxRate.class);
+
+        seriesFor(pair).put(epochSecond(asOf), Quantity.unitsOf(rate));
+    }
+
+    /**
+     * Rate in effect at the given time: the latest observation at or before it, taken from
+     * the pair itself, its inverse, or a cross through TRY
+     */
+    public Optional<BigDecimal> rateAt(String fromCurrency, String toCurrency, LocalDateTime asOf) {
+        long rate = rateUnitsAt(fromCurrency, toCurrency, epochSecond(asOf));
+        return rate == FxTimeSeries.NO_RATE ? Optional.empty() : Optional.of(Quantity.toBigDecimal(rate));
+    }
+
+    /**
+     * Closing rate of the given day
+     */
+    public Optional<BigDecimal> closeOn(String fromCurrency, String toCurrency, LocalDate date) {
+        return rateAt(fromCurrency, toCurrency, date.atTime(LocalTime.MAX));
+    }
+
+    /**
+     * @return rate in {@link Quantity} units, or {@link FxTimeSeries#NO_RATE}
+     */
+    public long rateUnitsAt(String fromCurrency, String toCurrency, long epochSecond) {
+        if (fromCurrency.equals(toCurrency)) {
+            return ONE;
+        }
+
+        long rate = directOrInverse(fromCurrency, toCurrency, epochSecond);
+        if (rate != FxTimeSeries.NO_RATE || fromCurrency.equals(BASE_CURRENCY) || toCurrency.equals(BASE_CURRENCY)) {
+            return rate;
+        }
+
+        long toBase = directOrInverse(fromCurrency, BASE_CURRENCY, epochSecond);
+        long fromBase = directOrInverse(BASE_CURRENCY, toCurrency, epochSecond);
+        if (toBase == FxTimeSeries.NO_RATE || fromBase == FxTimeSeries.NO_RATE) {
+            return FxTimeSeries.NO_RATE;
+        }
+        return FixedPoint.multiplyDivide(toBase, fromBase, ONE);
+    }
+
+    public long currentRateUnits(String fromCurrency, String toCurrency) {
+        return rateUnitsAt(fromCurrency, toCurrency, epochSecond(LocalDateTime.now()));
+    }
+
+    /**
+     * Load persisted history into memory, then stamp lots stored before rates were tracked
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void initializeHistory() {
+        Query query = new Query().with(Sort.by("pair", "asOf"));
+        int count = 0;
+        try (Stream<FxRate> rates = mongoTemplate.stream(query, FxRate.class)) {
+            for (FxRate rate : (Iterable<FxRate>) rates::iterator) {
+                seriesFor(rate.getPair()).put(epochSecond(rate.getAsOf()), Quantity.unitsOf(rate.getRate()));
+                count++;
+            }
+        }
+        log.info("Loaded {} FX observations for {} pairs", count, seriesByPair.size());
+
+        if (count > 0 && backfillAcquisitionRates() > 0) {
+            positionService.rebuildAllPositions();
+        }
+    }
+
+    /**
+     * Fill {@code fxRateAtAcquisition} on lots that were stored without it
+     *
+     * @return number of lots updated
+     */
+    public int backfillAcquisitionRates() {
+        Query query = new Query(where("fxRateAtAcquisition").is(null).and("currency").ne(null));
+        query.fields().include("currency", "acquisitionDate");
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AcquisitionLot.class);
+        int pending = 0;
+        int updated = 0;
+        try (Stream<AcquisitionLot> lots = mongoTemplate.stream(query, AcquisitionLot.class)) {
+            for (AcquisitionLot lot : (Iterable<AcquisitionLot>) lots::iterator) {
+                Optional<BigDecimal> rate = closeOn(lot.getCurrency(), BASE_CURRENCY, lot.getAcquisitionDate());
+                if (rate.isEmpty()) {
+                    continue;
+                }
+                bulkOps.updateOne(new Query(where("id").is(lot.getId())),
+                        new Update().set("fxRateAtAcquisition", rate.get()));
+                updated++;
+                if (++pending >= WRITE_BATCH_SIZE) {
+                    bulkOps.execute();
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AcquisitionLot.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulkOps.execute();
+        }
+
+        if (updated > 0) {
+            log.info("Filled acquisition FX rate on {} lots", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Reduce ticks older than the retention window to each day's last observation
+     */
+    @Scheduled(cron = "${app.fx.compaction-cron:0 30 0 * * *}")
+    public void compactTicks() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(TICK_RETENTION_DAYS).atStartOfDay();
+        int dropped = 0;
+
+        for (Map.Entry<String, FxTimeSeries> entry : seriesByPair.entrySet()) {
+            Query query = new Query(where("pair").is(entry.getKey()).and("asOf").lt(cutoff)).with(Sort.by("asOf"));
+            query.fields().include("asOf");
+
+            List<String> superseded = new ArrayList<>();
+            FxRate previous = null;
+            try (Stream<FxRate> rates = mongoTemplate.stream(query, FxRate.class)) {
+                for (FxRate rate : (Iterable<FxRate>) rates::iterator) {
+                    if (previous != null && previous.getAsOf().toLocalDate().equals(rate.getAsOf().toLocalDate())) {
+                        superseded.add(previous.getId());
+                    }
+                    previous = rate;
+                }
+            }
+
+            if (!superseded.isEmpty()) {
+                fxRateRepository.deleteAllById(superseded);
+                entry.getValue().compactBefore(epochSecond(cutoff));
+                dropped += superseded.size();
+            }
+        }
+
+        log.info("FX tick compaction removed {} observations before {}", dropped, cutoff.toLocalDate());
+    }
+
+    private long directOrInverse(String fromCurrency, String toCurrency, long epochSecond) {
+        FxTimeSeries direct = seriesByPair.get(pair(fromCurrency, toCurrency));
+        if (direct != null) {
+            long rate = direct.rateAt(epochSecond);
+            if (rate != FxTimeSeries.NO_RATE) {
+                return rate;
+            }
+        }
+
+        FxTimeSeries inverse = seriesByPair.get(pair(toCurrency, fromCurrency));
+        if (inverse != null) {
+            long rate = inverse.rateAt(epochSecond);
+            if (rate != FxTimeSeries.NO_RATE && rate != 0) {
+                return FixedPoint.multiplyDivide(ONE, ONE, rate);
+            }
+        }
+        return FxTimeSeries.NO_RATE;
+    }
+
+    private FxTimeSeries seriesFor(String pair) {
+        return seriesByPair.computeIfAbsent(pair, p -> new FxTimeSeries());
+    }
+
+    private static String pair(String fromCurrency, String toCurrency) {
+        return fromCurrency + "_" + toCurrency;
+    }
+
+    /**
+     * Stored times are local date-times; UTC is used only as a fixed mapping to seconds
+     */
+    static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,212 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.money.FixedPoint;
+import com.yuksel.investmenttracker.domain.money.Money;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import com.yuksel.investmenttracker.dto.response.PortfolioHistoryResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Single-pass historical valuation. Lots and daily closes are merged in time order while
+ * the portfolio value is maintained incrementally, so the cost is O(days + lots + bars)
+ * rather than one full revaluation per day. Running state is kept in fixed-point money
+ * units, with prices and quantities in {@link Quantity} units; each asset's value is
+ * recomputed from its quantity and price on every event so rounding never accumulates
+ * across events.
+ */
+public final class HistoricalValuationEngine {
+
+    private static final int OUTPUT_SCALE = 2;
+
+    private HistoricalValuationEngine() {
+    }
+
+    /**
+     * Receives the holdings as of each day's close during a replay
+     */
+    @FunctionalInterface
+    public interface DayVisitor {
+        void visit(LocalDate date, Holdings holdings);
+    }
+
+    /**
+     * @param lots          all lots of the portfolio, in any order
+     * @param openingBars   last bar per asset before {@code startDate}
+     * @param bars          daily bars within the period
+     */
+    public static List<PortfolioHistoryResponse> sweep(List<AcquisitionLot> lots,
+                                                       List<PriceDailyBar> openingBars,
+                                                       List<PriceDailyBar> bars,
+                                                       LocalDate startDate,
+                                                       LocalDate endDate) {
+        List<PortfolioHistoryResponse> history = new ArrayList<>();
+        replay(lots, openingBars, bars, startDate, endDate,
+                (date, holdings) -> appendPoint(history, date, holdings.getTotalValue()));
+        return history;
+    }
+
+    /**
+     * Walk the period day by day, handing the visitor the holdings after each day's lots
+     * and closes have been applied
+     */
+    public static void replay(List<AcquisitionLot> lots,
+                              List<PriceDailyBar> openingBars,
+                              List<PriceDailyBar> bars,
+                              LocalDate startDate,
+                              LocalDate endDate,
+                              DayVisitor visitor) {
+        List<AcquisitionLot> sortedLots = new ArrayList<>(lots);
+        sortedLots.sort(Comparator.comparing(AcquisitionLot::getAcquisitionDate));
+        List<PriceDailyBar> sortedBars = new ArrayList<>(bars);
+        sortedBars.sort(Comparator.comparing(PriceDailyBar::getDate));
+
+        Holdings holdings = new Holdings();
+        for (PriceDailyBar opening : openingBars) {
+            holdings.setPrice(holdings.indexOf(opening.getAssetId()), Quantity.unitsOf(opening.getClose()));
+        }
+
+        int lotIndex = 0;
+        int barIndex = 0;
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            while (lotIndex < sortedLots.size()
+                    && !sortedLots.get(lotIndex).getAcquisitionDate().isAfter(date)) {
+                holdings.applyLot(sortedLots.get(lotIndex++));
+            }
+
+            while (barIndex < sortedBars.size()
+                    && !sortedBars.get(barIndex).getDate().isAfter(date)) {
+                PriceDailyBar bar = sortedBars.get(barIndex++);
+                holdings.setPrice(holdings.indexOf(bar.getAssetId()), Quantity.unitsOf(bar.getClose()));
+            }
+
+            visitor.visit(date, holdings);
+        }
+    }
+
+    /**
+     * Append a point for the given value in money units, with the change from the previous point
+     */
+    static void appendPoint(List<PortfolioHistoryResponse> history, LocalDate date, long valueUnits) {
+        long value = FixedPoint.rescale(valueUnits, Money.SCALE, OUTPUT_SCALE);
+        long change = 0;
+        BigDecimal changePercent = BigDecimal.ZERO;
+
+        // Calculate change from previous day
+        if (!history.isEmpty()) {
+            long previousValue = history.get(history.size() - 1).getValue().unscaledValue().longValueExact();
+            change = value - previousValue;
+            if (previousValue > 0) {
+                changePercent = Money.percent(change, previousValue);
+            }
+        }
+
+        PortfolioHistoryResponse historyPoint = new PortfolioHistoryResponse();
+        historyPoint.setDate(date);
+        historyPoint.setValue(BigDecimal.valueOf(value, OUTPUT_SCALE));
+        historyPoint.setChange(BigDecimal.valueOf(change, OUTPUT_SCALE));
+        historyPoint.setChangePercent(changePercent);
+        history.add(historyPoint);
+    }
+
+    /**
+     * Per-asset running state in parallel primitive arrays. Amounts are in {@link Money}
+     * units and quantities in {@link Quantity} units.
+     */
+    public static final class Holdings {
+        private final Map<String, Integer> indexByAsset = new HashMap<>();
+        private String[] assetIds = new String[8];
+        private long[] quantities = new long[8];
+        private long[] prices = new long[8];
+        private long[] values = new long[8];
+        private boolean[] priced = new boolean[8];
+        private long totalValue;
+        private long costBasis;
+
+        public int size() {
+            return indexByAsset.size();
+        }
+
+        public String getAssetId(int index) {
+            return assetIds[index];
+        }
+
+        public long getQuantity(int index) {
+            return quantities[index];
+        }
+
+        /**
+         * @return last price in {@link Quantity} units
+         */
+        public long getPrice(int index) {
+            return prices[index];
+        }
+
+        public long getValue(int index) {
+            return values[index];
+        }
+
+        public long getTotalValue() {
+            return totalValue;
+        }
+
+        /**
+         * Purchase cost of every lot applied so far, fees included
+         */
+        public long getCostBasis() {
+            return costBasis;
+        }
+
+        int indexOf(String assetId) {
+            Integer index = indexByAsset.get(assetId);
+            if (index != null) {
+                return index;
+            }
+            int newIndex = indexByAsset.size();
+            if (newIndex == quantities.length) {
+                int capacity = quantities.length * 2;
+                assetIds = Arrays.copyOf(assetIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                values = Arrays.copyOf(values, capacity);
+                priced = Arrays.copyOf(priced, capacity);
+            }
+            indexByAsset.put(assetId, newIndex);
+            assetIds[newIndex] = assetId;
+            return newIndex;
+        }
+
+        /**
+         * Until the first close is seen, an asset is valued at the price it was bought at
+         */
+        void applyLot(AcquisitionLot lot) {
+            int index = indexOf(lot.getAssetId());
+            long unitPrice = Quantity.unitsOf(lot.getUnitPrice());
+            long quantity = Quantity.unitsOf(lot.getQuantity());
+            if (!priced[index]) {
+                prices[index] = unitPrice;
+                priced[index] = true;
+            }
+            quantities[index] += quantity;
+            costBasis += Money.multiplyPrice(unitPrice, quantity) + Money.unitsOf(lot.getFee());
+            revalue(index);
+        }
+
+        void setPrice(int index, long price) {
+            prices[index] = price;
+            priced[index] = true;
+            revalue(index);
+        }
+
+        private void revalue(int index) {
+            long value = Money.multiplyPrice(prices[index], quantities[index]);
+            totalValue += value - values[index];
+            values[index] = value;
+        }
+    }
+}
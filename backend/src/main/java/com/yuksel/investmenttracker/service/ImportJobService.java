@@ -0,0 +1,372 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.ImportJob;
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import com.yuksel.investmenttracker.dto.response.ImportJobResponse;
+import com.yuksel.investmenttracker.repository.ImportJobRepository;
+import com.yuksel.investmenttracker.security.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * CSV imports run as background jobs. The upload is spooled to a local file and the
+ * request returns at once; a worker on the import executor feeds the file through
+ * {@link ImportService#importRows} and records progress in "import_jobs" after every
+ * chunk. Lots get ids derived from the job and line, so a job whose node stopped midway
+ * is claimed again once its heartbeat goes stale and continues after the last recorded
+ * chunk; replaying that chunk cannot store a lot twice.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    static final Duration LEASE = Duration.ofMinutes(2);
+
+    private static final int MAX_STORED_ERRORS = 1000;
+    private static final Set<JobStatus> ACTIVE = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportService importService;
+    private final PositionService positionService;
+    private final MongoTemplate mongoTemplate;
+    private final Executor importExecutor;
+    private final Path spoolDir;
+    private final Set<String> dispatched = ConcurrentHashMap.newKeySet();
+
+    public ImportJobService(ImportJobRepository importJobRepository,
+                            ImportService importService,
+                            PositionService positionService,
+                            MongoTemplate mongoTemplate,
+                            @Qualifier("importExecutor") Executor importExecutor,
+                            @Value("${app.import.spool-dir:${java.io.tmpdir}/investment-tracker-imports}") String spoolDir) {
+        this.importJobRepository = importJobRepository;
+        this.importService = importService;
+        this.positionService = positionService;
+        this.mongoTemplate = mongoTemplate;
+        this.importExecutor = importExecutor;
+        this.spoolDir = Path.of(spoolDir);
+    }
+
+    /**
+     * Spool the upload and queue it for import
+     *
+     * @throws RejectedExecutionException if the import queue is full
+     */
+    public ImportJobResponse submit(MultipartFile file) throws IOException {
+        String userId = getCurrentUserId();
+        Files.createDirectories(spoolDir);
+        Path spoolFile = Files.createTempFile(spoolDir, "import-", ".csv");
+
+        long lines;
+        try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(spoolFile)) {
+            lines = copyCountingLines(in, out);
+        } catch (IOException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob();
+        job.setUserId(userId);
+        job.setFileName(file.getOriginalFilename());
+        job.setSpoolFile(spoolFile.toString());
+        job.setEstimatedRows(Math.max(0, lines - 1)); // Header
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        job = importJobRepository.save(job);
+
+        try {
+            dispatch(job.getId());
+        } catch (RejectedExecutionException e) {
+            job.setStatus(JobStatus.FAILED);
+            job.setFailureReason("Import queue is full");
+            job.setFinishedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+
+        log.info("Queued import job {} for user {} ({} lines)", job.getId(), userId, lines);
+        return toResponse(job);
+    }
+
+    public Optional<ImportJobResponse> getJob(String jobId) {
+        return importJobRepository.findByIdAndUserId(jobId, getCurrentUserId()).map(this::toResponse);
+    }
+
+    /**
+     * Stop a job. A queued job is cancelled at once; a running one stops after the chunk
+     * it is writing, keeping the rows already stored.
+     */
+    public Optional<ImportJobResponse> cancel(String jobId) {
+        String userId = getCurrentUserId();
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+
+        ImportJob job = mongoTemplate.findAndModify(
+                new Query(where("id").is(jobId).and("userId").is(userId).and("status").is(JobStatus.QUEUED)),
+                new Update().set("status", JobStatus.CANCELLED).set("finishedAt", LocalDateTime.now()),
+                returnNew, ImportJob.class);
+        if (job != null) {
+            deleteSpoolFile(job);
+            return Optional.of(toResponse(job));
+        }
+
+        job = mongoTemplate.findAndModify(
+                new Query(where("id").is(jobId).and("userId").is(userId).and("status").is(JobStatus.RUNNING)),
+                new Update().set("cancelRequested", true),
+                returnNew, ImportJob.class);
+        if (job != null) {
+            return Optional.of(toResponse(job));
+        }
+        return getJob(jobId);
+    }
+
+    /**
+     * Pick up jobs whose node stopped before finishing them. Only the node that holds the
+     * spooled file can continue a job, and the claim in {@link #run} lets one node win.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 60, initialDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void resumeInterruptedJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(LEASE);
+        for (ImportJob job : importJobRepository.findByStatusIn(ACTIVE)) {
+            boolean claimable = job.getStatus() == JobStatus.QUEUED
+                    || job.getHeartbeatAt() == null
+                    || job.getHeartbeatAt().isBefore(staleBefore);
+            if (!claimable || dispatched.contains(job.getId()) || !Files.exists(Path.of(job.getSpoolFile()))) {
+                continue;
+            }
+            try {
+                dispatch(job.getId());
+                log.info("Resuming import job {} after line {}", job.getId(), job.getCommittedLine());
+            } catch (RejectedExecutionException e) {
+                log.warn("Import queue is full, remaining jobs are retried later");
+                return;
+            }
+        }
+    }
+
+    private void dispatch(String jobId) {
+        if (!dispatched.add(jobId)) {
+            return;
+        }
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    dispatched.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dispatched.remove(jobId);
+            throw e;
+        }
+    }
+
+    void run(String jobId) {
+        ImportJob job = claim(jobId);
+        if (job == null) {
+            log.debug("Import job {} was taken or finished elsewhere", jobId);
+            return;
+        }
+
+        Path spoolFile = Path.of(job.getSpoolFile());
+        if (job.isCancelRequested()) {
+            settle(jobId, job.getAttempts() > 1);
+            finish(job, JobStatus.CANCELLED, null);
+            return;
+        }
+        if (!Files.exists(spoolFile)) {
+            finish(job, JobStatus.FAILED, "Uploaded file is no longer available");
+            return;
+        }
+
+        log.info("Import job {} started after line {}, attempt {}", jobId, job.getCommittedLine(), job.getAttempts());
+        boolean completed;
+        try {
+            completed = importService.importRows(job.getUserId(), spoolFile, job.getCommittedLine(),
+                    row -> jobId + "-" + row.lineNumber(), new ProgressRecorder(jobId));
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", jobId, e.getMessage());
+            settle(jobId, job.getAttempts() > 1);
+            finish(job, JobStatus.FAILED, e.getMessage());
+            return;
+        }
+
+        settle(jobId, job.getAttempts() > 1);
+        finish(job, completed ? JobStatus.COMPLETED : JobStatus.CANCELLED, null);
+    }
+
+    /**
+     * Atomically take a queued job, or a running one whose owner stopped sending heartbeats
+     *
+     * @return the claimed job, or null if it is not claimable
+     */
+    private ImportJob claim(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(where("id").is(jobId).orOperator(
+                where("status").is(JobStatus.QUEUED),
+                where("status").is(JobStatus.RUNNING).and("heartbeatAt").lt(now.minus(LEASE))));
+        Update update = new Update()
+                .set("status", JobStatus.RUNNING)
+                .set("heartbeatAt", now)
+                .inc("attempts", 1)
+                .min("startedAt", now); // Unset until the first claim, then kept
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ImportJob.class);
+    }
+
+    /**
+     * Invalidate what the stored rows made stale. A job that ran before may have stopped
+     * between storing a chunk's lots and applying them, so its positions are rebuilt.
+     */
+    private void settle(String jobId, boolean resumed) {
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getSuccessCount() == 0) {
+            return;
+        }
+        if (resumed) {
+            positionService.rebuildPositions(job.getUserId());
+        }
+        importService.finishImport(job.getUserId(), job.getEarliestAcquisitionDate());
+    }
+
+    private void finish(ImportJob job, JobStatus status, String failureReason) {
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", LocalDateTime.now());
+        if (failureReason != null) {
+            update.set("failureReason", failureReason);
+        }
+        mongoTemplate.updateFirst(new Query(where("id").is(job.getId())), update, ImportJob.class);
+        deleteSpoolFile(job);
+        log.info("Import job {} {}", job.getId(), status.name().toLowerCase());
+    }
+
+    /**
+     * Records each committed chunk and reports whether the job should go on
+     */
+    private final class ProgressRecorder implements ImportService.ChunkListener {
+
+        private final String jobId;
+        private long chunkStartedAt = System.nanoTime();
+
+        private ProgressRecorder(String jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public boolean onChunk(ImportService.ChunkOutcome outcome) {
+            long now = System.nanoTime();
+            List<String> errors = outcome.errors().entrySet().stream()
+                    .map(error -> "Line " + error.getKey() + ": " + error.getValue())
+                    .toList();
+
+            Update update = new Update()
+                    .set("committedLine", outcome.lastLineNumber())
+                    .inc("rowsProcessed", outcome.written() + errors.size())
+                    .inc("successCount", outcome.written())
+                    .inc("errorCount", errors.size())
+                    .inc("activeMillis", TimeUnit.NANOSECONDS.toMillis(now - chunkStartedAt))
+                    .set("heartbeatAt", LocalDateTime.now());
+            if (!errors.isEmpty()) {
+                update.push("errors").slice(MAX_STORED_ERRORS).each(errors.toArray());
+            }
+            if (outcome.earliestAcquisitionDate() != null) {
+                update.min("earliestAcquisitionDate", outcome.earliestAcquisitionDate());
+            }
+            chunkStartedAt = now;
+
+            ImportJob job = mongoTemplate.findAndModify(new Query(where("id").is(jobId)), update,
+                    FindAndModifyOptions.options().returnNew(true), ImportJob.class);
+            return job != null && !job.isCancelRequested();
+        }
+    }
+
+    ImportJobResponse toResponse(ImportJob job) {
+        ImportJobResponse response = new ImportJobResponse();
+        response.setId(job.getId());
+        response.setFileName(job.getFileName());
+        response.setStatus(job.getStatus());
+        response.setEstimatedRows(job.getEstimatedRows());
+        response.setRowsProcessed(job.getRowsProcessed());
+        response.setSuccessCount(job.getSuccessCount());
+        response.setErrorCount(job.getErrorCount());
+        response.setErrors(job.getErrors());
+        response.setFailureReason(job.getFailureReason());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+
+        long rowsPerSecond = job.getActiveMillis() > 0 ? job.getRowsProcessed() * 1000 / job.getActiveMillis() : 0;
+        response.setRowsPerSecond(rowsPerSecond);
+        if (ACTIVE.contains(job.getStatus()) && rowsPerSecond > 0) {
+            long remaining = Math.max(0, job.getEstimatedRows() - job.getRowsProcessed());
+            response.setEtaSeconds(remaining / rowsPerSecond);
+        }
+        return response;
+    }
+
+    private void deleteSpoolFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(Path.of(job.getSpoolFile()));
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", job.getSpoolFile(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of lines, counting a last line without a line break
+     */
+    static long copyCountingLines(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long lines = 0;
+        byte last = '\n';
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+            last = buffer[read - 1];
+            out.write(buffer, 0, read);
+        }
+        return last == '\n' ? lines : lines + 1;
+    }
+
+    private String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return userPrincipal.getId();
+    }
+}
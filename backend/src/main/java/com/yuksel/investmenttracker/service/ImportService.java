@@ -8,88 +8,275 @@ import com.yuksel.investmenttracker.domain.entity.Asset;
 import com.yuksel.investmenttracker.domain.enums.AssetType;
 import com.yuksel.investmenttracker.dto.request.AcquisitionRequest;
 import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
 import com.yuksel.investmenttracker.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ImportService {
 
-    private final PortfolioService portfolioService;
-    private final AssetService assetService;
+    private final AcquisitionBatchWriter acquisitionBatchWriter;
+    private final AssetDictionary assetDictionary;
     private final AcquisitionLotRepository acquisitionLotRepository;
+    private final PortfolioDailyValueRepository portfolioDailyValueRepository;
+    private final ValuationCacheEvictor valuationCacheEvictor;
+    private final ForkJoinPool importParsePool;
+    private final ParallelCsvParser<AcquisitionRequest> csvParser;
+
+    public ImportService(AcquisitionBatchWriter acquisitionBatchWriter,
+                         AssetDictionary assetDictionary,
+                         AcquisitionLotRepository acquisitionLotRepository,
+                         PortfolioDailyValueRepository portfolioDailyValueRepository,
+                         ValuationCacheEvictor valuationCacheEvictor,
+                         @Qualifier("importParsePool") ForkJoinPool importParsePool) {
+        this.acquisitionBatchWriter = acquisitionBatchWriter;
+        this.assetDictionary = assetDictionary;
+        this.acquisitionLotRepository = acquisitionLotRepository;
+        this.portfolioDailyValueRepository = portfolioDailyValueRepository;
+        this.valuationCacheEvictor = valuationCacheEvictor;
+        this.importParsePool = importParsePool;
+        this.csvParser = new ParallelCsvParser<>(importParsePool, this::parseRecord,
+                ParallelCsvParser.DEFAULT_RANGE_BYTES);
+    }
+
+    static final int CHUNK_SIZE = 1000;
+    static final int EXPORT_WINDOW = 500;
 
     private static final String[] CSV_HEADER = {
             "Symbol", "Name", "Asset Type", "Quantity", "Unit Price", 
             "Currency", "Fee", "Acquisition Date", "Notes", "Tags"
     };
 
-    @Transactional
+    /**
+     * Outcome of one committed chunk. {@code errors} holds every line up to and including
+     * {@code lastLineNumber} that was not stored, parse failures included.
+     */
+    public record ChunkOutcome(int lastLineNumber, int written, SortedMap<Integer, String> errors,
+                               LocalDate earliestAcquisitionDate) {
+    }
+
+    @FunctionalInterface
+    public interface ChunkListener {
+        /**
+         * @return false to stop reading after this chunk
+         */
+        boolean onChunk(ChunkOutcome outcome);
+    }
+
+    /**
+     * Parses the file and stores rows in chunks of {@link #CHUNK_SIZE}. Errors are reported
+     * per line as before; valuation caches and stored daily values are invalidated once at
+     * the end instead of after every row.
+     */
     public Map<String, Object> importAcquisitionsFromCsv(MultipartFile file) throws IOException {
         String userId = getCurrentUserId();
-        List<String> errors = new ArrayList<>();
-        List<AcquisitionLot> importedAcquisitions = new ArrayList<>();
-        int successCount = 0;
-        int errorCount = 0;
+        ImportTotals totals = new ImportTotals();
 
-        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-            String[] headers = reader.readNext();
-            
-            if (headers == null || !validateHeaders(headers)) {
-                throw new IllegalArgumentException("Invalid CSV format. Please use the provided template.");
-            }
+        try (Reader source = new InputStreamReader(file.getInputStream())) {
+            importRows(userId, source, 0, AcquisitionBatchWriter.RANDOM_LOT_IDS, totals::add);
+        } finally {
+            // Chunks stored before a failure still need the caches settled
+            finishImport(userId, totals.earliestAcquisitionDate);
+        }
+
+        List<String> errors = new ArrayList<>(totals.errorsByLine.size());
+        totals.errorsByLine.forEach((lineNumber, message) -> errors.add("Line " + lineNumber + ": " + message));
+        int successCount = totals.written;
+        int errorCount = errors.size();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("successCount", successCount);
+        result.put("errorCount", errorCount);
+        result.put("errors", errors);
+        result.put("totalProcessed", successCount + errorCount);
+        
+        log.info("CSV import completed for user {}: {} successful, {} errors", userId, successCount, errorCount);
+        
+        return result;
+    }
+
+    /**
+     * Read data rows after line {@code resumeAfterLine} and store them a chunk at a time,
+     * reporting each chunk to {@code listener} once it is written. Line numbers are the
+     * ones reported to users, so a run resumed from a chunk's last line skips exactly the
+     * rows that chunk covered.
+     *
+     * @return true if the whole source was read, false if the listener stopped it
+     */
+    public boolean importRows(String userId, Reader source, int resumeAfterLine,
+                              Function<AcquisitionBatchWriter.Row, String> lotIds,
+                              ChunkListener listener) throws IOException {
+        RowSink sink = new RowSink(userId, resumeAfterLine, lotIds, listener);
+
+        try (CSVReader reader = new CSVReader(source)) {
+            validateHeaders(reader);
 
             String[] line;
-            int lineNumber = 2; // Starting from line 2 (after header)
-            
             while ((line = reader.readNext()) != null) {
+                AcquisitionRequest request;
                 try {
-                    if (isEmptyLine(line)) {
-                        continue;
-                    }
-                    
-                    AcquisitionRequest request = parseLineToAcquisitionRequest(line, lineNumber);
-                    AcquisitionLot acquisition = portfolioService.addAcquisition(request);
-                    importedAcquisitions.add(acquisition);
-                    successCount++;
-                    
+                    request = parseRecord(line);
                 } catch (Exception e) {
-                    errorCount++;
-                    errors.add("Line " + lineNumber + ": " + e.getMessage());
-                    log.warn("Error processing line {}: {}", lineNumber, e.getMessage());
+                    if (!sink.accept(null, e.getMessage())) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (request != null && !sink.accept(request, null)) {
+                    return false;
                 }
-                lineNumber++;
             }
             
         } catch (CsvValidationException e) {
+            sink.flush();
             throw new IllegalArgumentException("CSV parsing error: " + e.getMessage());
         }
+        return sink.flush();
+    }
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("successCount", successCount);
-        result.put("errorCount", errorCount);
-        result.put("errors", errors);
-        result.put("totalProcessed", successCount + errorCount);
-        
-        log.info("CSV import completed for user {}: {} successful, {} errors", userId, successCount, errorCount);
-        
-        return result;
+    /**
+     * Same as {@link #importRows(String, Reader, int, Function, ChunkListener)} for a file
+     * on disk, parsed in parallel on the import parse pool while earlier chunks are written.
+     * A single-threaded pool gains nothing over streaming the file and would pay for the
+     * extra boundary scan, so it reads the file sequentially.
+     */
+    public boolean importRows(String userId, Path file, int resumeAfterLine,
+                              Function<AcquisitionBatchWriter.Row, String> lotIds,
+                              ChunkListener listener) throws IOException {
+        if (importParsePool.getParallelism() == 1) {
+            try (Reader source = new InputStreamReader(Files.newInputStream(file))) {
+                return importRows(userId, source, resumeAfterLine, lotIds, listener);
+            }
+        }
+
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(file)))) {
+            validateHeaders(reader);
+        } catch (CsvValidationException e) {
+            throw new IllegalArgumentException("CSV parsing error: " + e.getMessage());
+        }
+
+        RowSink sink = new RowSink(userId, resumeAfterLine, lotIds, listener);
+        try {
+            return csvParser.parse(file, true, sink) && sink.flush();
+        } catch (CsvValidationException e) {
+            sink.flush();
+            throw new IllegalArgumentException("CSV parsing error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Numbers parsed records and writes them in chunks. Empty records never reach it, so
+     * they do not advance the line number, as before chunked imports.
+     */
+    private final class RowSink implements ParallelCsvParser.RecordSink<AcquisitionRequest> {
+
+        private final String userId;
+        private final int resumeAfterLine;
+        private final Function<AcquisitionBatchWriter.Row, String> lotIds;
+        private final ChunkListener listener;
+        private final List<AcquisitionBatchWriter.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final SortedMap<Integer, String> parseErrors = new TreeMap<>();
+        private int lineNumber = 2; // Starting from line 2 (after header)
+
+        private RowSink(String userId, int resumeAfterLine, Function<AcquisitionBatchWriter.Row, String> lotIds,
+                        ChunkListener listener) {
+            this.userId = userId;
+            this.resumeAfterLine = resumeAfterLine;
+            this.lotIds = lotIds;
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean accept(AcquisitionRequest request, String error) {
+            if (lineNumber > resumeAfterLine) {
+                if (error != null) {
+                    parseErrors.put(lineNumber, error);
+                    log.warn("Error processing line {}: {}", lineNumber, error);
+                } else {
+                    chunk.add(new AcquisitionBatchWriter.Row(lineNumber, request));
+                }
+            }
+            lineNumber++;
+            return chunk.size() < CHUNK_SIZE || writeChunk();
+        }
+
+        private boolean flush() {
+            return (chunk.isEmpty() && parseErrors.isEmpty()) || writeChunk();
+        }
+
+        private boolean writeChunk() {
+            SortedMap<Integer, String> errors = new TreeMap<>(parseErrors);
+            int written = 0;
+            LocalDate earliest = null;
+            if (!chunk.isEmpty()) {
+                try {
+                    AcquisitionBatchWriter.ChunkResult result = acquisitionBatchWriter.write(userId, List.copyOf(chunk), lotIds);
+                    written = result.written();
+                    errors.putAll(result.failures());
+                    earliest = result.earliestAcquisitionDate();
+                } catch (Exception e) {
+                    log.warn("Error writing lines {}-{}: {}", chunk.get(0).lineNumber(),
+                            chunk.get(chunk.size() - 1).lineNumber(), e.getMessage());
+                    chunk.forEach(row -> errors.put(row.lineNumber(), e.getMessage()));
+                }
+            }
+            chunk.clear();
+            parseErrors.clear();
+            return listener.onChunk(new ChunkOutcome(lineNumber - 1, written, errors, earliest));
+        }
+    }
+
+    /**
+     * Invalidate what an import made stale: valuation caches, and stored daily values from
+     * the earliest imported date on. Does nothing if no lot was stored.
+     */
+    public void finishImport(String userId, LocalDate earliestAcquisitionDate) {
+        if (earliestAcquisitionDate == null) {
+            return;
+        }
+        // Backdated lots change stored closing values; the nightly job recomputes them
+        if (earliestAcquisitionDate.isBefore(LocalDate.now())) {
+            portfolioDailyValueRepository.deleteByUserIdAndDateGreaterThanEqual(userId, earliestAcquisitionDate);
+        }
+        valuationCacheEvictor.evictUser(userId);
+    }
+
+    private static final class ImportTotals {
+        private final SortedMap<Integer, String> errorsByLine = new TreeMap<>();
+        private int written;
+        private LocalDate earliestAcquisitionDate;
+
+        private boolean add(ChunkOutcome outcome) {
+            written += outcome.written();
+            errorsByLine.putAll(outcome.errors());
+            if (outcome.earliestAcquisitionDate() != null && (earliestAcquisitionDate == null
+                    || outcome.earliestAcquisitionDate().isBefore(earliestAcquisitionDate))) {
+                earliestAcquisitionDate = outcome.earliestAcquisitionDate();
+            }
+            return true;
+        }
     }
 
     public Resource generateCsvTemplate() throws IOException {
@@ -110,39 +297,74 @@ public class ImportService {
         return new ByteArrayResource(outputStream.toByteArray());
     }
 
-    public Resource exportAcquisitionsToCsv() throws IOException {
+    /**
+     * CSV export that streams from a cursor over the user's lots. Assets are resolved a
+     * window of {@link #EXPORT_WINDOW} lots at a time and each window is flushed before
+     * the next is read, so memory use does not grow with the portfolio.
+     */
+    public StreamingResponseBody exportAcquisitionsToCsv() {
         String userId = getCurrentUserId();
-        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
-        
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        return outputStream -> writeAcquisitionsCsv(userId, outputStream);
+    }
+
+    void writeAcquisitionsCsv(String userId, OutputStream outputStream) throws IOException {
+        int exported = 0;
         
-        try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream))) {
+        try (Stream<AcquisitionLot> acquisitions = acquisitionLotRepository.streamByUserId(userId);
+             CSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream))) {
             // Write headers
             writer.writeNext(CSV_HEADER);
+            writer.flush();
             
-            // Write data
-            for (AcquisitionLot acquisition : acquisitions) {
-                Asset asset = assetService.getAssetEntityById(acquisition.getAssetId());
-                
-                String[] row = {
-                        asset.getSymbol(),
-                        asset.getName(),
-                        asset.getType().toString(),
-                        acquisition.getQuantity().toString(),
-                        acquisition.getUnitPrice().toString(),
-                        acquisition.getCurrency(),
-                        acquisition.getFee().toString(),
-                        acquisition.getAcquisitionDate().toString(),
-                        acquisition.getNotes() != null ? acquisition.getNotes() : "",
-                        acquisition.getTags() != null ? String.join(",", acquisition.getTags()) : ""
-                };
-                writer.writeNext(row);
+            Iterator<AcquisitionLot> cursor = acquisitions.iterator();
+            List<AcquisitionLot> window = new ArrayList<>(EXPORT_WINDOW);
+            while (cursor.hasNext()) {
+                window.add(cursor.next());
+                if (window.size() == EXPORT_WINDOW || !cursor.hasNext()) {
+                    writeWindow(writer, window);
+                    exported += window.size();
+                    window.clear();
+                }
             }
         }
         
-        log.info("Exported {} acquisitions to CSV for user {}", acquisitions.size(), userId);
+        log.info("Exported {} acquisitions to CSV for user {}", exported, userId);
+    }
+
+    private void writeWindow(CSVWriter writer, List<AcquisitionLot> window) throws IOException {
+        Map<String, Asset> assets = assetDictionary.getAll(window.stream()
+                .map(AcquisitionLot::getAssetId)
+                .collect(Collectors.toSet()));
         
-        return new ByteArrayResource(outputStream.toByteArray());
+        for (AcquisitionLot acquisition : window) {
+            Asset asset = assets.get(acquisition.getAssetId());
+            if (asset == null) {
+                throw new RuntimeException("Asset not found with id: " + acquisition.getAssetId());
+            }
+            
+            String[] row = {
+                    asset.getSymbol(),
+                    asset.getName(),
+                    asset.getType().toString(),
+                    acquisition.getQuantity().toString(),
+                    acquisition.getUnitPrice().toString(),
+                    acquisition.getCurrency(),
+                    acquisition.getFee().toString(),
+                    acquisition.getAcquisitionDate().toString(),
+                    acquisition.getNotes() != null ? acquisition.getNotes() : "",
+                    acquisition.getTags() != null ? String.join(",", acquisition.getTags()) : ""
+            };
+            writer.writeNext(row);
+        }
+        writer.flush();
+    }
+
+    private void validateHeaders(CSVReader reader) throws IOException, CsvValidationException {
+        String[] headers = reader.readNext();
+        
+        if (headers == null || !validateHeaders(headers)) {
+            throw new IllegalArgumentException("Invalid CSV format. Please use the provided template.");
+        }
     }
 
     private boolean validateHeaders(String[] headers) {
@@ -167,7 +389,14 @@ public class ImportService {
         return true;
     }
 
-    private AcquisitionRequest parseLineToAcquisitionRequest(String[] line, int lineNumber) {
+    /**
+     * @return the parsed row, or null for an empty one
+     */
+    private AcquisitionRequest parseRecord(String[] line) {
+        return isEmptyLine(line) ? null : parseLineToAcquisitionRequest(line);
+    }
+
+    private AcquisitionRequest parseLineToAcquisitionRequest(String[] line) {
         try {
             AcquisitionRequest request = new AcquisitionRequest();
             
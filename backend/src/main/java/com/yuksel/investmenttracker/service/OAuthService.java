@@ -1,38 +1,57 @@
 package com.yuksel.investmenttracker.service;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import com.yuksel.investmenttracker.domain.enums.OAuthProvider;
 import com.yuksel.investmenttracker.dto.OAuthUserInfo;
-import lombok.RequiredArgsConstructor;
+import com.yuksel.investmenttracker.security.JwksKeyCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
-import java.util.Collections;
-import java.util.Base64;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.security.Key;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Verifies Google and Apple ID tokens locally: signature against the provider's published
+ * keys, issuer, audience and expiry. Keys come from a per-provider {@link JwksKeyCache}
+ * that is refreshed in the background, so a login makes no call to the provider.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OAuthService {
 
-    @Value("${oauth.google.client-id:}")
-    private String googleClientId;
-    
-    @Value("${oauth.apple.team-id:}")
-    private String appleTeamId;
-    
-    @Value("${oauth.apple.client-id:}")
-    private String appleClientId;
+    private static final Set<String> GOOGLE_ISSUERS = Set.of("https://accounts.google.com", "accounts.google.com");
+    private static final Set<String> APPLE_ISSUERS = Set.of("https://appleid.apple.com");
+    private static final long CLOCK_SKEW_SECONDS = 60;
 
-    private final NetHttpTransport httpTransport = new NetHttpTransport();
-    private final GsonFactory jsonFactory = GsonFactory.getDefaultInstance();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String googleClientId;
+    private final String appleClientId;
+    private final Map<OAuthProvider, JwksKeyCache> signingKeys = new EnumMap<>(OAuthProvider.class);
+
+    public OAuthService(@Value("${oauth2.google.client-id:}") String googleClientId,
+                        @Value("${oauth2.apple.client-id:}") String appleClientId,
+                        @Value("${oauth2.google.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}") URI googleJwksUri,
+                        @Value("${oauth2.apple.jwks-uri:https://appleid.apple.com/auth/keys}") URI appleJwksUri) {
+        this.googleClientId = googleClientId;
+        this.appleClientId = appleClientId;
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        signingKeys.put(OAuthProvider.GOOGLE, new JwksKeyCache("Google", googleJwksUri, httpClient));
+        signingKeys.put(OAuthProvider.APPLE, new JwksKeyCache("Apple", appleJwksUri, httpClient));
+    }
 
     public OAuthUserInfo validateOAuthToken(String token, OAuthProvider provider) {
         switch (provider) {
@@ -45,93 +64,75 @@ public class OAuthService {
         }
     }
 
+    /**
+     * Keeps provider keys fresh off the login path, starting before the first login
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void refreshSigningKeys() {
+        signingKeys.values().forEach(JwksKeyCache::refreshIfStale);
+    }
+
     private OAuthUserInfo validateGoogleToken(String idTokenString) {
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(httpTransport, jsonFactory)
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(idTokenString);
-            if (idToken != null) {
-                GoogleIdToken.Payload payload = idToken.getPayload();
-
-                OAuthUserInfo userInfo = new OAuthUserInfo();
-                userInfo.setProviderId(payload.getSubject());
-                userInfo.setEmail(payload.getEmail());
-                userInfo.setEmailVerified(payload.getEmailVerified());
-                userInfo.setName((String) payload.get("name"));
-
-                return userInfo;
-            } else {
-                throw new RuntimeException("Invalid Google ID token");
-            }
-        } catch (Exception e) {
-            log.error("Failed to validate Google token", e);
+            Claims claims = verify(idTokenString, OAuthProvider.GOOGLE, GOOGLE_ISSUERS, googleClientId);
+
+            OAuthUserInfo userInfo = new OAuthUserInfo();
+            userInfo.setProviderId(claims.getSubject());
+            userInfo.setEmail(claims.get("email", String.class));
+            userInfo.setEmailVerified(Boolean.TRUE.equals(claims.get("email_verified", Boolean.class)));
+            userInfo.setName(claims.get("name", String.class));
+            userInfo.setProvider(OAuthProvider.GOOGLE);
+
+            return userInfo;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Failed to validate Google token: {}", e.getMessage());
             throw new RuntimeException("Failed to validate Google token", e);
         }
     }
 
     private OAuthUserInfo validateAppleToken(String idTokenString) {
         try {
-            // Apple Sign-In ID token validation implementation
-            // The token is a JWT with three parts: header.payload.signature
-            log.info("Validating Apple ID token");
-            
-            String[] tokenParts = idTokenString.split("\\.");
-            if (tokenParts.length != 3) {
-                throw new RuntimeException("Invalid Apple ID token format");
-            }
-            
-            // Decode the payload (second part)
-            String payload = new String(Base64.getUrlDecoder().decode(tokenParts[1]));
-            JsonNode payloadJson = objectMapper.readTree(payload);
-            
-            // Validate the token claims
-            String issuer = payloadJson.get("iss").asText();
-            String audience = payloadJson.get("aud").asText();
-            long exp = payloadJson.get("exp").asLong();
-            long currentTime = System.currentTimeMillis() / 1000;
-            
-            // Basic validation
-            if (!"https://appleid.apple.com".equals(issuer)) {
-                throw new RuntimeException("Invalid Apple token issuer");
-            }
-            
-            if (!appleClientId.equals(audience)) {
-                log.warn("Apple token audience mismatch. Expected: {}, Got: {}", appleClientId, audience);
-                // In production, this should be strict, but for development we'll log and continue
-            }
-            
-            if (exp < currentTime) {
-                throw new RuntimeException("Apple token has expired");
-            }
-            
+            Claims claims = verify(idTokenString, OAuthProvider.APPLE, APPLE_ISSUERS, appleClientId);
+
             // Extract user information
-            String email = payloadJson.has("email") ? payloadJson.get("email").asText() : null;
-            String sub = payloadJson.get("sub").asText(); // This is the unique user identifier
-            
-            // Create OAuthUserInfo
+            String email = claims.get("email", String.class);
+            String sub = claims.getSubject(); // This is the unique user identifier
+
             OAuthUserInfo userInfo = new OAuthUserInfo();
             userInfo.setEmail(email != null ? email : sub + "@apple.com"); // Fallback email if not provided
             userInfo.setName("Apple User"); // Apple may not provide name in all cases
             userInfo.setProviderId(sub);
             userInfo.setProvider(OAuthProvider.APPLE);
-            
+
             log.info("Successfully validated Apple ID token for user: {}", userInfo.getEmail());
             return userInfo;
-            
-        } catch (Exception e) {
-            log.error("Failed to validate Apple ID token", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Failed to validate Apple ID token: {}", e.getMessage());
             throw new RuntimeException("Apple ID token validation failed: " + e.getMessage(), e);
         }
-        
-        // Note: In a complete production implementation, you would also need to:
-        // 1. Fetch Apple's public keys from https://appleid.apple.com/auth/keys
-        // 2. Verify the token signature using the appropriate public key
-        // 3. Implement proper caching of the public keys
-        // 4. Handle key rotation and other edge cases
-        // 
-        // For now, this implementation provides the basic structure and validates
-        // the token format and basic claims without signature verification.
     }
-}
\ No newline at end of file
+
+    private Claims verify(String idToken, OAuthProvider provider, Set<String> issuers, String clientId) {
+        if (!StringUtils.hasText(clientId)) {
+            throw new IllegalArgumentException(provider + " client id is not configured");
+        }
+        JwksKeyCache keys = signingKeys.get(provider);
+        Claims claims = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keys.key(header.getKeyId());
+                    }
+                })
+                .requireAudience(clientId)
+                .clockSkewSeconds(CLOCK_SKEW_SECONDS)
+                .build()
+                .parseSignedClaims(idToken)
+                .getPayload();
+        if (!issuers.contains(claims.getIssuer())) {
+            throw new JwtException("Unexpected " + provider + " token issuer " + claims.getIssuer());
+        }
+        return claims;
+    }
+}
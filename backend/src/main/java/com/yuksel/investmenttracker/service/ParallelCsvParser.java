@@ -0,0 +1,217 @@
+package com.yuksel.investmenttracker.service;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.ICSVParser;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Parses a CSV file on a fork-join pool. One sequential scan cuts the file into byte
+ * ranges of about {@code rangeBytes}, ending each range only at a line break outside
+ * quotes, so a quoted field spanning lines is never split. Ranges are read and parsed in
+ * parallel, at most two per pool thread ahead of the consumer, and records are handed to
+ * the sink in file order.
+ *
+ * <p>Quoting follows OpenCSV's defaults: {@code "} quotes and doubles to escape itself,
+ * {@code \} escapes a following quote or backslash. OpenCSV honours that escape outside
+ * quotes as well, so {@code a\"b} is one unquoted field; the range scan does the same,
+ * since ignoring it there would open a quote the reader never sees.
+ *
+ * @param <T> parsed record type
+ */
+public class ParallelCsvParser<T> {
+
+    public static final int DEFAULT_RANGE_BYTES = 1024 * 1024;
+
+    private static final char QUOTE = ICSVParser.DEFAULT_QUOTE_CHARACTER;
+    private static final char ESCAPE = ICSVParser.DEFAULT_ESCAPE_CHARACTER;
+
+    private final ForkJoinPool pool;
+    private final Function<String[], T> recordParser;
+    private final int rangeBytes;
+
+    @FunctionalInterface
+    public interface RecordSink<T> {
+        /**
+         * Receives the next record, either parsed or with the message of its parse failure
+         *
+         * @return false to stop parsing
+         */
+        boolean accept(T value, String error);
+    }
+
+    private record Parsed<T>(T value, String error) {
+    }
+
+    /**
+     * @param recordParser runs on pool threads; records it maps to null are dropped and
+     *                     an exception it throws is reported as that record's error
+     */
+    public ParallelCsvParser(ForkJoinPool pool, Function<String[], T> recordParser, int rangeBytes) {
+        this.pool = pool;
+        this.recordParser = recordParser;
+        this.rangeBytes = rangeBytes;
+    }
+
+    /**
+     * @return true if every record was handed to the sink, false if the sink stopped it
+     * @throws CsvValidationException if a record is malformed; records before it have
+     *                                been handed to the sink
+     */
+    public boolean parse(Path file, boolean skipFirstRecord, RecordSink<T> sink) throws IOException, CsvValidationException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = recordBoundaries(channel, skipFirstRecord);
+            int ranges = bounds.length - 1;
+            int window = pool.getParallelism() * 2;
+
+            Deque<ForkJoinTask<List<Parsed<T>>>> inFlight = new ArrayDeque<>(window);
+            int next = 0;
+            try {
+                while (next < ranges || !inFlight.isEmpty()) {
+                    while (next < ranges && inFlight.size() < window) {
+                        long start = bounds[next];
+                        long end = bounds[next + 1];
+                        inFlight.add(pool.submit(() -> parseRange(channel, start, end)));
+                        next++;
+                    }
+                    for (Parsed<T> parsed : join(inFlight.poll())) {
+                        if (!sink.accept(parsed.value(), parsed.error())) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            } finally {
+                inFlight.forEach(task -> task.cancel(false));
+            }
+        }
+    }
+
+    /**
+     * @return start offsets of every range followed by the file size
+     */
+    long[] recordBoundaries(FileChannel channel, boolean skipFirstRecord) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        if (!skipFirstRecord) {
+            bounds.add(0L);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        boolean inQuotes = false;
+        boolean escaped = false;
+        boolean headerPending = skipFirstRecord;
+        long rangeStart = 0;
+        long position = 0;
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                position++;
+                if (escaped) {
+                    escaped = false;
+                    if (b == QUOTE || b == ESCAPE) {
+                        continue;
+                    }
+                }
+                if (b == ESCAPE) {
+                    escaped = true;
+                } else if (b == QUOTE) {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    if (headerPending) {
+                        headerPending = false;
+                        rangeStart = position;
+                        bounds.add(position);
+                    } else if (position - rangeStart >= rangeBytes) {
+                        rangeStart = position;
+                        bounds.add(position);
+                    }
+                }
+            }
+            buffer.clear();
+        }
+
+        if (bounds.isEmpty()) {
+            // Only a first record to skip
+            return new long[]{size};
+        }
+        if (bounds.get(bounds.size() - 1) < size) {
+            bounds.add(size);
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private List<Parsed<T>> parseRange(FileChannel channel, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Parsed<T>> records = new ArrayList<>(bytes.length / 64);
+        // Same default charset as a sequential read of the upload
+        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(new ByteArrayInputStream(bytes)))
+                .withCSVParser(new CSVParserBuilder().withQuoteChar(QUOTE).withEscapeChar(ESCAPE).build())
+                .build()) {
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                try {
+                    T value = recordParser.apply(record);
+                    if (value != null) {
+                        records.add(new Parsed<>(value, null));
+                    }
+                } catch (Exception e) {
+                    records.add(new Parsed<>(null, e.getMessage()));
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new RangeParseException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+    private static <T> List<Parsed<T>> join(ForkJoinTask<List<Parsed<T>>> task) throws IOException, CsvValidationException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RangeParseException e) {
+            throw (CsvValidationException) e.getCause();
+        }
+    }
+
+    // Carries a checked parse failure out of a pool thread
+    private static final class RangeParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private RangeParseException(CsvValidationException cause) {
+            super(cause);
+        }
+    }
+}
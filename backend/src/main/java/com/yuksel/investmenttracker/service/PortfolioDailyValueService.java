@@ -0,0 +1,390 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.JobCheckpoint;
+import com.yuksel.investmenttracker.domain.entity.PortfolioDailyValue;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.entity.User;
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import com.yuksel.investmenttracker.domain.money.Money;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.JobCheckpointRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * End-of-day valuation job. Each run brings every user's "portfolio_daily_values" up to
+ * the given close date, replaying lots against daily bars only for the days not stored
+ * yet. Users are walked in id order a page at a time, each page split into chunks that
+ * run in parallel; the checkpoint advances once a whole page is committed, so a run that
+ * stops midway resumes after the last finished page. Writes are idempotent upserts.
+ *
+ * <p>A run is claimed atomically on the checkpoint and heartbeats after every chunk, so
+ * only one node runs it at a time; a run whose node stopped heartbeating is taken over
+ * once its lease expires.
+ */
+@Slf4j
+@Service
+public class PortfolioDailyValueService {
+
+    static final String JOB_NAME = "portfolio-daily-values";
+    static final Duration LEASE = Duration.ofMinutes(10);
+
+    private static final int USER_PAGE_SIZE = 500;
+    private static final int USER_CHUNK_SIZE = 50;
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final PortfolioDailyValueRepository portfolioDailyValueRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final AcquisitionLotRepository acquisitionLotRepository;
+    private final PriceDailyBarRepository priceDailyBarRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Executor endOfDayExecutor;
+
+    public PortfolioDailyValueService(PortfolioDailyValueRepository portfolioDailyValueRepository,
+                                      JobCheckpointRepository jobCheckpointRepository,
+                                      AcquisitionLotRepository acquisitionLotRepository,
+                                      PriceDailyBarRepository priceDailyBarRepository,
+                                      MongoTemplate mongoTemplate,
+                                      @Qualifier("endOfDayExecutor") Executor endOfDayExecutor) {
+        this.portfolioDailyValueRepository = portfolioDailyValueRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.acquisitionLotRepository = acquisitionLotRepository;
+        this.priceDailyBarRepository = priceDailyBarRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.endOfDayExecutor = endOfDayExecutor;
+    }
+
+    /**
+     * Store yesterday's closing values shortly after midnight
+     */
+    @Scheduled(cron = "${app.eod.cron:0 15 0 * * *}")
+    public void runNightly() {
+        run(LocalDate.now().minusDays(1), false);
+    }
+
+    /**
+     * Regenerate every user's stored history from their first acquisition up to yesterday
+     */
+    public void backfill() {
+        run(LocalDate.now().minusDays(1), true);
+    }
+
+    /**
+     * Resume an interrupted run, or backfill when nothing has been stored yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void initializeDailyValues() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint != null && checkpoint.getStatus() == JobStatus.RUNNING) {
+            resumeInterruptedRun();
+        } else if (portfolioDailyValueRepository.count() == 0 && acquisitionLotRepository.count() > 0) {
+            log.info("Portfolio daily values collection is empty, backfilling from daily bars");
+            backfill();
+        }
+    }
+
+    /**
+     * Take over a run whose node stopped heartbeating before finishing it
+     */
+    @Scheduled(fixedDelay = 5, initialDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void resumeInterruptedRun() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME).orElse(null);
+        if (checkpoint != null && checkpoint.getStatus() == JobStatus.RUNNING && !isHeld(checkpoint, LocalDateTime.now())) {
+            log.info("Resuming interrupted daily value run for {}", checkpoint.getRunDate());
+            run(checkpoint.getRunDate(), checkpoint.isRebuild());
+        }
+    }
+
+    public void run(LocalDate closeDate, boolean rebuild) {
+        JobCheckpoint checkpoint = claim(closeDate, rebuild);
+        if (checkpoint == null) {
+            return;
+        }
+
+        String owner = checkpoint.getOwner();
+        String lastUserId = checkpoint.getLastUserId();
+        List<String> userIds;
+        while (!(userIds = nextUserPage(lastUserId)).isEmpty()) {
+            long failures = processPage(userIds, closeDate, rebuild, owner);
+            lastUserId = userIds.get(userIds.size() - 1);
+
+            checkpoint = advance(owner, new Update()
+                    .set("lastUserId", lastUserId)
+                    .inc("processedUsers", userIds.size())
+                    .inc("failedUsers", failures));
+            if (checkpoint == null) {
+                log.warn("Daily value run for {} was taken over by another node after user {}", closeDate, lastUserId);
+                return;
+            }
+        }
+
+        checkpoint = advance(owner, new Update().set("status", JobStatus.COMPLETED));
+        if (checkpoint != null) {
+            log.info("Daily value run for {} completed. Users: {}, Failures: {}",
+                    closeDate, checkpoint.getProcessedUsers(), checkpoint.getFailedUsers());
+        }
+    }
+
+    /**
+     * Store closing values for one user from the day after their latest stored point, or
+     * from their first acquisition when rebuilding, through {@code closeDate}
+     *
+     * @return number of daily values written
+     */
+    public int valueUser(String userId, LocalDate closeDate, boolean rebuild) {
+        List<AcquisitionLot> lots = acquisitionLotRepository.findByUserId(userId);
+        if (lots.isEmpty()) {
+            return 0;
+        }
+
+        LocalDate from = lots.stream()
+                .map(AcquisitionLot::getAcquisitionDate)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        if (!rebuild) {
+            LocalDate latestStored = portfolioDailyValueRepository.findTopByUserIdOrderByDateDesc(userId)
+                    .map(PortfolioDailyValue::getDate)
+                    .orElse(null);
+            if (latestStored != null && !latestStored.isBefore(from)) {
+                from = latestStored.plusDays(1);
+            }
+        }
+        if (from.isAfter(closeDate)) {
+            return 0;
+        }
+
+        Set<String> assetIds = lots.stream()
+                .map(AcquisitionLot::getAssetId)
+                .collect(Collectors.toSet());
+        List<PriceDailyBar> openingBars = priceDailyBarRepository.findLatestPerAssetInBefore(assetIds, from);
+        List<PriceDailyBar> bars = priceDailyBarRepository.findByAssetIdInAndDateBetween(assetIds, from, closeDate);
+
+        PointWriter writer = new PointWriter(userId);
+        HistoricalValuationEngine.replay(lots, openingBars, bars, from, closeDate, writer);
+        writer.flush();
+        return writer.count;
+    }
+
+    /**
+     * Atomically take the checkpoint for this run, resuming it when it stopped midway
+     *
+     * @return the claimed checkpoint, or null if the run is held elsewhere or already done
+     */
+    private JobCheckpoint claim(LocalDate closeDate, boolean rebuild) {
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint current = jobCheckpointRepository.findById(JOB_NAME).orElse(null);
+        if (current != null && isHeld(current, now)) {
+            log.warn("Daily value run for {} skipped, the run for {} is in progress", closeDate, current.getRunDate());
+            return null;
+        }
+
+        boolean sameRun = current != null && closeDate.equals(current.getRunDate());
+        if (sameRun && current.getStatus() == JobStatus.COMPLETED && (current.isRebuild() || !rebuild)) {
+            log.info("Daily values for {} are already stored", closeDate);
+            return null;
+        }
+        boolean resume = sameRun && current.getStatus() == JobStatus.RUNNING && current.isRebuild() == rebuild;
+
+        Update update = new Update()
+                .set("status", JobStatus.RUNNING)
+                .set("owner", UUID.randomUUID().toString())
+                .set("heartbeatAt", now)
+                .set("updatedAt", now);
+        if (!resume) {
+            update.set("runDate", closeDate)
+                    .set("rebuild", rebuild)
+                    .set("lastUserId", null)
+                    .set("processedUsers", 0L)
+                    .set("failedUsers", 0L)
+                    .set("startedAt", now);
+        }
+
+        // Only the checkpoint as read is claimed; if another node changed it meanwhile the
+        // query misses and the upsert collides with the existing document
+        Query query = new Query(where("jobName").is(JOB_NAME)
+                .and("updatedAt").is(current != null ? current.getUpdatedAt() : null));
+        JobCheckpoint claimed;
+        try {
+            claimed = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            claimed = null;
+        }
+        if (claimed == null) {
+            log.info("Daily value run for {} was claimed by another node", closeDate);
+        } else if (resume) {
+            log.info("Resuming daily value run for {} after user {}", closeDate, claimed.getLastUserId());
+        } else {
+            log.info("Starting daily value run for {} (rebuild: {})", closeDate, rebuild);
+        }
+        return claimed;
+    }
+
+    private static boolean isHeld(JobCheckpoint checkpoint, LocalDateTime now) {
+        return checkpoint.getStatus() == JobStatus.RUNNING
+                && checkpoint.getHeartbeatAt() != null
+                && checkpoint.getHeartbeatAt().isAfter(now.minus(LEASE));
+    }
+
+    /**
+     * Apply the update and renew the lease, provided this node still holds the run
+     *
+     * @return the updated checkpoint, or null if the run was taken over
+     */
+    private JobCheckpoint advance(String owner, Update update) {
+        LocalDateTime now = LocalDateTime.now();
+        update.set("heartbeatAt", now).set("updatedAt", now);
+        return mongoTemplate.findAndModify(new Query(where("jobName").is(JOB_NAME).and("owner").is(owner)), update,
+                FindAndModifyOptions.options().returnNew(true), JobCheckpoint.class);
+    }
+
+    private List<String> nextUserPage(String afterUserId) {
+        Query query = new Query().with(Sort.by("id")).limit(USER_PAGE_SIZE);
+        if (afterUserId != null) {
+            query.addCriteria(where("id").gt(afterUserId));
+        }
+        query.fields().include("id");
+        return mongoTemplate.find(query, User.class).stream()
+                .map(User::getId)
+                .toList();
+    }
+
+    /**
+     * Value a page of users in parallel chunks and wait for all of them
+     *
+     * @return number of users that failed
+     */
+    private long processPage(List<String> userIds, LocalDate closeDate, boolean rebuild, String owner) {
+        List<FutureTask<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < userIds.size(); start += USER_CHUNK_SIZE) {
+            List<String> chunk = userIds.subList(start, Math.min(start + USER_CHUNK_SIZE, userIds.size()));
+            FutureTask<Integer> task = new FutureTask<>(() -> processChunk(chunk, closeDate, rebuild));
+            try {
+                endOfDayExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+            chunks.add(task);
+        }
+
+        long failures = 0;
+        for (FutureTask<Integer> chunk : chunks) {
+            try {
+                failures += chunk.get();
+                advance(owner, new Update());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Daily value run interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Daily value chunk failed", e.getCause());
+            }
+        }
+        return failures;
+    }
+
+    private int processChunk(List<String> userIds, LocalDate closeDate, boolean rebuild) {
+        int failures = 0;
+        for (String userId : userIds) {
+            try {
+                valueUser(userId, closeDate, rebuild);
+            } catch (Exception e) {
+                log.error("Failed to store daily values for user {}: {}", userId, e.getMessage());
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    static PortfolioDailyValue toDailyValue(String userId, LocalDate date, HistoricalValuationEngine.Holdings holdings) {
+        List<PortfolioDailyValue.AssetValue> assets = new ArrayList<>(holdings.size());
+        for (int i = 0; i < holdings.size(); i++) {
+            if (holdings.getQuantity(i) == 0) {
+                continue;
+            }
+            PortfolioDailyValue.AssetValue asset = new PortfolioDailyValue.AssetValue();
+            asset.setAssetId(holdings.getAssetId(i));
+            asset.setQuantity(Quantity.toBigDecimal(holdings.getQuantity(i)));
+            asset.setPrice(Quantity.toBigDecimal(holdings.getPrice(i)));
+            asset.setValue(Money.toBigDecimal(holdings.getValue(i)));
+            assets.add(asset);
+        }
+
+        PortfolioDailyValue dailyValue = new PortfolioDailyValue();
+        dailyValue.setUserId(userId);
+        dailyValue.setDate(date);
+        dailyValue.setTotalValue(Money.toBigDecimal(holdings.getTotalValue()));
+        dailyValue.setCostBasis(Money.toBigDecimal(holdings.getCostBasis()));
+        dailyValue.setAssets(assets);
+        dailyValue.setComputedAt(LocalDateTime.now());
+        return dailyValue;
+    }
+
+    /**
+     * Upserts one document per replayed day in unordered bulk batches
+     */
+    private final class PointWriter implements HistoricalValuationEngine.DayVisitor {
+        private final String userId;
+        private BulkOperations bulkOps;
+        private int pending;
+        private int count;
+
+        PointWriter(String userId) {
+            this.userId = userId;
+            this.bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PortfolioDailyValue.class);
+        }
+
+        @Override
+        public void visit(LocalDate date, HistoricalValuationEngine.Holdings holdings) {
+            Query query = new Query(where("userId").is(userId).and("date").is(date));
+            bulkOps.replaceOne(query, toDailyValue(userId, date, holdings), FindAndReplaceOptions.options().upsert());
+            count++;
+            if (++pending >= WRITE_BATCH_SIZE) {
+                flush();
+                bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PortfolioDailyValue.class);
+            }
+        }
+
+        void flush() {
+            if (pending > 0) {
+                bulkOps.execute();
+                pending = 0;
+            }
+        }
+    }
+}
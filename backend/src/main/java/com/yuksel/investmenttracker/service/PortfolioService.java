@@ -2,56 +2,122 @@ package com.yuksel.investmenttracker.service;
 
 import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
 import com.yuksel.investmenttracker.domain.entity.Asset;
-import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import com.yuksel.investmenttracker.domain.entity.PortfolioDailyValue;
+import com.yuksel.investmenttracker.domain.entity.Position;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
 import com.yuksel.investmenttracker.domain.enums.AssetType;
+import com.yuksel.investmenttracker.domain.money.FixedPoint;
+import com.yuksel.investmenttracker.domain.money.FxTimeSeries;
+import com.yuksel.investmenttracker.domain.money.Money;
+import com.yuksel.investmenttracker.domain.money.Quantity;
 import com.yuksel.investmenttracker.dto.request.AcquisitionRequest;
 import com.yuksel.investmenttracker.dto.response.*;
 import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
 import com.yuksel.investmenttracker.repository.AssetRepository;
-import com.yuksel.investmenttracker.repository.PriceSnapshotRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
 import com.yuksel.investmenttracker.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PortfolioService {
 
+    private static final double RISK_FREE_RATE = 0.02; // 2% annual
+    private static final long MOVE_MAGNITUDE_SCALE = 1_000_000;
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Europe/Istanbul");
+
     private final AcquisitionLotRepository acquisitionLotRepository;
     private final AssetRepository assetRepository;
+    private final AssetDictionary assetDictionary;
     private final PriceService priceService;
-    private final PriceSnapshotRepository priceSnapshotRepository;
+    private final FxRateHistoryService fxRateHistoryService;
+    private final PositionService positionService;
+    private final PriceDailyBarRepository priceDailyBarRepository;
+    private final PreviousCloseIndex previousCloseIndex;
+    private final PortfolioDailyValueRepository portfolioDailyValueRepository;
+    private final Executor analyticsExecutor;
+    private final ObjectProvider<PortfolioService> self;
+    private final Duration analyticsTimeout;
+    private final ValuationCacheEvictor valuationCacheEvictor;
+    private final Cache portfolioSummaryCache;
+    private final Cache portfolioAnalyticsCache;
+
+    public PortfolioService(AcquisitionLotRepository acquisitionLotRepository,
+                            AssetRepository assetRepository,
+                            AssetDictionary assetDictionary,
+                            PriceService priceService,
+                            FxRateHistoryService fxRateHistoryService,
+                            PositionService positionService,
+                            PriceDailyBarRepository priceDailyBarRepository,
+                            PreviousCloseIndex previousCloseIndex,
+                            PortfolioDailyValueRepository portfolioDailyValueRepository,
+                            @Qualifier("analyticsExecutor") Executor analyticsExecutor,
+                            ObjectProvider<PortfolioService> self,
+                            @Value("${app.analytics.timeout:5s}") Duration analyticsTimeout,
+                            ValuationCacheEvictor valuationCacheEvictor,
+                            @Qualifier("refreshAheadCacheManager") CacheManager refreshAheadCacheManager) {
+        this.acquisitionLotRepository = acquisitionLotRepository;
+        this.assetRepository = assetRepository;
+        this.assetDictionary = assetDictionary;
+        this.priceService = priceService;
+        this.fxRateHistoryService = fxRateHistoryService;
+        this.positionService = positionService;
+        this.priceDailyBarRepository = priceDailyBarRepository;
+        this.previousCloseIndex = previousCloseIndex;
+        this.portfolioDailyValueRepository = portfolioDailyValueRepository;
+        this.analyticsExecutor = analyticsExecutor;
+        this.self = self;
+        this.analyticsTimeout = analyticsTimeout;
+        this.valuationCacheEvictor = valuationCacheEvictor;
+        this.portfolioSummaryCache = refreshAheadCacheManager.getCache("portfolio-summary");
+        this.portfolioAnalyticsCache = refreshAheadCacheManager.getCache("portfolio-analytics");
+    }
 
     @Transactional
-    @CacheEvict(value = {"portfolio-summary", "portfolio-analytics", "asset-allocation", "top-movers"}, 
-                key = "#root.target.getCurrentUserId()")
     public AcquisitionLot addAcquisition(AcquisitionRequest request) {
         String userId = getCurrentUserId();
 
         // Find or create asset
-        Asset asset = assetRepository.findBySymbol(request.getAssetSymbol())
+        Asset asset = assetRepository.findFirstBySymbolOrderByIdAsc(request.getAssetSymbol())
                 .orElseGet(() -> {
                     Asset newAsset = new Asset();
                     newAsset.setSymbol(request.getAssetSymbol());
                     newAsset.setName(request.getAssetName() != null ? request.getAssetName() : request.getAssetSymbol());
                     newAsset.setType(request.getAssetType());
                     newAsset.setCurrency(request.getCurrency() != null ? request.getCurrency() : "USD");
-                    return assetRepository.save(newAsset);
+                    Asset savedAsset = assetRepository.save(newAsset);
+                    assetDictionary.put(savedAsset);
+                    return savedAsset;
                 });
 
         // Create acquisition lot
@@ -63,75 +129,91 @@ public class PortfolioService {
         acquisitionLot.setCurrency(request.getCurrency() != null ? request.getCurrency() : "USD");
         acquisitionLot.setFee(request.getFee() != null ? request.getFee() : BigDecimal.ZERO);
         acquisitionLot.setAcquisitionDate(request.getAcquisitionDate());
+        acquisitionLot.setFxRateAtAcquisition(fxRateHistoryService
+                .closeOn(acquisitionLot.getCurrency(), "TRY", request.getAcquisitionDate())
+                .orElse(null));
         acquisitionLot.setNotes(request.getNotes());
         acquisitionLot.setTags(request.getTags());
         acquisitionLot.setCreatedAt(LocalDateTime.now());
         acquisitionLot.setUpdatedAt(LocalDateTime.now());
 
-        return acquisitionLotRepository.save(acquisitionLot);
+        AcquisitionLot savedLot = acquisitionLotRepository.save(acquisitionLot);
+        positionService.applyAcquisition(savedLot);
+        
+        // A backdated lot changes stored closing values; the nightly job recomputes them
+        if (savedLot.getAcquisitionDate().isBefore(LocalDate.now())) {
+            portfolioDailyValueRepository.deleteByUserIdAndDateGreaterThanEqual(userId, savedLot.getAcquisitionDate());
+        }
+        valuationCacheEvictor.evictUser(userId);
+        return savedLot;
     }
 
-    @Cacheable(value = "portfolio-summary", key = "#root.target.getCurrentUserId()")
+    /**
+     * Served from the refresh-ahead cache: concurrent misses for one user share a single
+     * computation, and once stale the cached summary is returned while it is recomputed
+     */
     public PortfolioSummaryResponse getPortfolioSummary() {
+        return portfolioSummaryCache.get(getCurrentUserId(), this::calculatePortfolioSummary);
+    }
+
+    private PortfolioSummaryResponse calculatePortfolioSummary() {
         String userId = getCurrentUserId();
         
-        // Get all acquisitions for the user
-        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
+        // Get aggregated holdings for the user
+        List<Position> positions = positionService.getPositions(userId);
         
-        if (acquisitions.isEmpty()) {
+        if (positions.isEmpty()) {
             // Return empty portfolio if no acquisitions
             return createEmptyPortfolioSummary();
         }
         
-        // Calculate portfolio metrics
-        BigDecimal totalCostBasis = BigDecimal.ZERO;
-        BigDecimal totalCurrentValue = BigDecimal.ZERO;
-        BigDecimal totalFees = BigDecimal.ZERO;
-        
-        for (AcquisitionLot acquisition : acquisitions) {
-            // Calculate cost basis for this acquisition
-            BigDecimal acquisitionCost = acquisition.getQuantity()
-                    .multiply(acquisition.getUnitPrice())
-                    .add(acquisition.getFee());
-            totalCostBasis = totalCostBasis.add(acquisitionCost);
-            totalFees = totalFees.add(acquisition.getFee());
+        // Calculate portfolio metrics in fixed-point money units
+        long totalCostBasis = 0;
+        long totalCurrentValue = 0;
+        long totalFees = 0;
+        Map<String, BigDecimal> currentPrices = getCurrentPrices(positions);
+        
+        for (Position position : positions) {
+            // Cost basis includes fees paid on every lot of this asset
+            long fees = Money.unitsOf(position.getFees());
+            totalCostBasis += Money.unitsOf(position.getCostBasis()) + fees;
+            totalFees += fees;
             
             // Get current price and calculate current value
-            BigDecimal currentPrice = priceService.getCurrentPrice(acquisition.getAssetId(), "TRY");
-            BigDecimal currentValue = acquisition.getQuantity().multiply(currentPrice);
-            totalCurrentValue = totalCurrentValue.add(currentValue);
+            long currentPrice = Quantity.unitsOf(currentPrices.get(position.getAssetId()));
+            totalCurrentValue += Money.multiplyPrice(currentPrice, Quantity.unitsOf(position.getQuantity()));
         }
         
         // Calculate profit/loss metrics
-        BigDecimal unrealizedGainLoss = totalCurrentValue.subtract(totalCostBasis);
-        BigDecimal unrealizedGainLossPercent = totalCostBasis.compareTo(BigDecimal.ZERO) > 0 
-                ? unrealizedGainLoss.multiply(BigDecimal.valueOf(100)).divide(totalCostBasis, 2, BigDecimal.ROUND_HALF_UP)
+        long unrealizedGainLoss = totalCurrentValue - totalCostBasis;
+        BigDecimal unrealizedGainLossPercent = totalCostBasis > 0
+                ? Money.percent(unrealizedGainLoss, totalCostBasis)
                 : BigDecimal.ZERO;
         
         // Determine status
-        String status = unrealizedGainLoss.compareTo(BigDecimal.ZERO) >= 0 ? "UP" : "DOWN";
+        String status = unrealizedGainLoss >= 0 ? "UP" : "DOWN";
         
         // Calculate daily change for the portfolio
-        BigDecimal todayChangePercent = calculateDailyChangePercent(acquisitions);
+        BigDecimal todayChangePercent = calculateDailyChangePercent(positions, currentPrices);
         
         // Calculate FX influence for multi-currency portfolio
-        BigDecimal fxInfluence = calculateFxInfluence(acquisitions);
+        BigDecimal fxInfluence = calculateFxInfluence(positions);
         
         // Create response
         PortfolioSummaryResponse response = new PortfolioSummaryResponse();
-        response.setTotalValueTRY(totalCurrentValue);
+        response.setTotalValueTRY(Money.toBigDecimal(totalCurrentValue));
         response.setTodayChangePercent(todayChangePercent);
-        response.setTotalUnrealizedPLTRY(unrealizedGainLoss);
+        response.setTotalUnrealizedPLTRY(Money.toBigDecimal(unrealizedGainLoss));
         response.setTotalUnrealizedPLPercent(unrealizedGainLossPercent);
         response.setStatus(status);
-        response.setEstimatedProceedsTRY(totalCurrentValue.subtract(totalFees)); // Subtract fees for proceeds
-        response.setCostBasisTRY(totalCostBasis);
-        response.setUnrealizedGainLossTRY(unrealizedGainLoss);
+        response.setEstimatedProceedsTRY(Money.toBigDecimal(totalCurrentValue - totalFees)); // Subtract fees for proceeds
+        response.setCostBasisTRY(Money.toBigDecimal(totalCostBasis));
+        response.setUnrealizedGainLossTRY(Money.toBigDecimal(unrealizedGainLoss));
         response.setUnrealizedGainLossPercent(unrealizedGainLossPercent);
         response.setFxInfluenceTRY(fxInfluence);
         
         log.info("Portfolio summary calculated for user {}: Total Value = {}, P&L = {}", 
-                userId, totalCurrentValue, unrealizedGainLoss);
+                userId, Money.toBigDecimal(totalCurrentValue), Money.toBigDecimal(unrealizedGainLoss));
         
         return response;
     }
@@ -157,56 +239,74 @@ public class PortfolioService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = getStartDateForPeriod(period, endDate);
         
-        List<PortfolioHistoryResponse> historyData = new ArrayList<>();
-        
-        // Generate daily portfolio values for the requested period
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            BigDecimal portfolioValue = calculatePortfolioValueForDate(userId, currentDate);
-            BigDecimal change = BigDecimal.ZERO;
-            BigDecimal changePercent = BigDecimal.ZERO;
+        // Past days come from the end-of-day job; only today is valued live
+        List<Position> positions = positionService.getPositions(userId);
+        LocalDate firstDate = positions.stream()
+                .map(Position::getFirstAcquisitionDate)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        if (firstDate != null && !firstDate.isAfter(endDate)) {
+            LocalDate storedFrom = firstDate.isAfter(startDate) ? firstDate : startDate;
+            LocalDate storedTo = endDate.minusDays(1);
+            long expectedPoints = storedFrom.isAfter(storedTo) ? 0 : ChronoUnit.DAYS.between(storedFrom, storedTo) + 1;
+            List<PortfolioDailyValue> stored = expectedPoints == 0
+                    ? List.of()
+                    : portfolioDailyValueRepository.findByUserIdAndDateBetween(userId, storedFrom, storedTo);
             
-            // Calculate change from previous day
-            if (!historyData.isEmpty()) {
-                PortfolioHistoryResponse previousDay = historyData.get(historyData.size() - 1);
-                change = portfolioValue.subtract(previousDay.getValue());
-                if (previousDay.getValue().compareTo(BigDecimal.ZERO) > 0) {
-                    changePercent = change.multiply(BigDecimal.valueOf(100))
-                            .divide(previousDay.getValue(), 2, RoundingMode.HALF_UP);
+            if (stored.size() == expectedPoints) {
+                List<PortfolioHistoryResponse> history = new ArrayList<>();
+                for (LocalDate date = startDate; date.isBefore(storedFrom); date = date.plusDays(1)) {
+                    HistoricalValuationEngine.appendPoint(history, date, 0);
+                }
+                for (PortfolioDailyValue point : stored) {
+                    HistoricalValuationEngine.appendPoint(history, point.getDate(), Money.unitsOf(point.getTotalValue()));
                 }
+                HistoricalValuationEngine.appendPoint(history, endDate, calculateCurrentValue(positions));
+                return history;
             }
-            
-            PortfolioHistoryResponse historyPoint = new PortfolioHistoryResponse();
-            historyPoint.setDate(currentDate);
-            historyPoint.setValue(portfolioValue);
-            historyPoint.setChange(change);
-            historyPoint.setChangePercent(changePercent);
-            
-            historyData.add(historyPoint);
-            currentDate = currentDate.plusDays(1);
+            log.debug("Stored daily values incomplete for user {} ({} of {}), replaying history",
+                    userId, stored.size(), expectedPoints);
+        }
+        
+        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
+        if (acquisitions.isEmpty()) {
+            return HistoricalValuationEngine.sweep(List.of(), List.of(), List.of(), startDate, endDate);
         }
         
-        return historyData;
+        // Load every daily close once and sweep forward day by day
+        Set<String> assetIds = acquisitions.stream()
+                .map(AcquisitionLot::getAssetId)
+                .collect(Collectors.toSet());
+        
+        List<PriceDailyBar> openingBars = priceDailyBarRepository.findLatestPerAssetInBefore(assetIds, startDate);
+        List<PriceDailyBar> bars = priceDailyBarRepository.findByAssetIdInAndDateBetween(assetIds, startDate, endDate);
+        
+        return HistoricalValuationEngine.sweep(acquisitions, openingBars, bars, startDate, endDate);
     }
     
     @Cacheable(value = "asset-allocation", key = "#root.target.getCurrentUserId()")
     public List<AssetAllocationResponse> getAssetAllocation() {
         String userId = getCurrentUserId();
-        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
+        List<Position> positions = positionService.getPositions(userId);
+        
+        // Money units per asset type, indexed by ordinal
+        long[] allocationValues = new long[AssetType.values().length];
+        boolean[] held = new boolean[AssetType.values().length];
+        long totalValue = 0;
+        Map<String, BigDecimal> currentPrices = getCurrentPrices(positions);
         
-        Map<AssetType, BigDecimal> allocationMap = new HashMap<>();
-        Map<AssetType, String> assetNames = new HashMap<>();
-        BigDecimal totalValue = BigDecimal.ZERO;
+        Map<String, Asset> assets = assetDictionary.getAll(assetIdsOf(positions));
         
-        for (AcquisitionLot acquisition : acquisitions) {
-            Asset asset = assetRepository.findById(acquisition.getAssetId()).orElse(null);
+        for (Position position : positions) {
+            Asset asset = assets.get(position.getAssetId());
             if (asset != null) {
-                BigDecimal currentPrice = priceService.getCurrentPrice(acquisition.getAssetId(), "TRY");
-                BigDecimal assetValue = acquisition.getQuantity().multiply(currentPrice);
+                long currentPrice = Quantity.unitsOf(currentPrices.get(position.getAssetId()));
+                long assetValue = Money.multiplyPrice(currentPrice, Quantity.unitsOf(position.getQuantity()));
                 
-                allocationMap.merge(asset.getType(), assetValue, BigDecimal::add);
-                assetNames.put(asset.getType(), asset.getType().toString());
-                totalValue = totalValue.add(assetValue);
+                allocationValues[asset.getType().ordinal()] += assetValue;
+                held[asset.getType().ordinal()] = true;
+                totalValue += assetValue;
             }
         }
         
@@ -214,16 +314,19 @@ public class PortfolioService {
         String[] colors = {"#FF6384", "#36A2EB", "#FFCE56", "#4BC0C0", "#9966FF", "#FF9F40"};
         int colorIndex = 0;
         
-        for (Map.Entry<AssetType, BigDecimal> entry : allocationMap.entrySet()) {
+        for (AssetType assetType : AssetType.values()) {
+            if (!held[assetType.ordinal()]) {
+                continue;
+            }
+            long value = allocationValues[assetType.ordinal()];
+            
             AssetAllocationResponse allocation = new AssetAllocationResponse();
-            allocation.setAssetType(entry.getKey());
-            allocation.setAssetName(assetNames.get(entry.getKey()));
-            allocation.setValue(entry.getValue());
+            allocation.setAssetType(assetType);
+            allocation.setAssetName(assetType.toString());
+            allocation.setValue(Money.toBigDecimal(value));
             
-            if (totalValue.compareTo(BigDecimal.ZERO) > 0) {
-                allocation.setPercentage(entry.getValue()
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(totalValue, 2, RoundingMode.HALF_UP));
+            if (totalValue > 0) {
+                allocation.setPercentage(Money.percent(value, totalValue));
             } else {
                 allocation.setPercentage(BigDecimal.ZERO);
             }
@@ -242,43 +345,86 @@ public class PortfolioService {
     @Cacheable(value = "top-movers", key = "#root.target.getCurrentUserId() + '_' + #limit")
     public List<TopMoversResponse> getTopMovers(int limit) {
         String userId = getCurrentUserId();
-        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
+        List<Position> positions = positionService.getPositions(userId);
+        if (positions.isEmpty() || limit <= 0) {
+            return List.of();
+        }
         
-        Map<String, TopMoversData> assetMoversMap = new HashMap<>();
+        Map<String, BigDecimal> currentPrices = getCurrentPrices(positions);
+        Map<String, Long> previousCloses = previousCloseIndex.getPreviousCloses(
+                currentPrices.keySet(), LocalDate.now(getCurrentUserZone()));
         
-        for (AcquisitionLot acquisition : acquisitions) {
-            Asset asset = assetRepository.findById(acquisition.getAssetId()).orElse(null);
-            if (asset != null) {
-                BigDecimal currentPrice = priceService.getCurrentPrice(acquisition.getAssetId(), "TRY");
-                BigDecimal assetValue = acquisition.getQuantity().multiply(currentPrice);
-                
-                TopMoversData data = assetMoversMap.computeIfAbsent(acquisition.getAssetId(), 
-                    k -> new TopMoversData(asset.getSymbol(), asset.getName()));
-                data.addValue(assetValue);
-                data.setCurrentPrice(currentPrice);
+        // Min-heap on move size holding the K largest moves seen so far
+        PriorityQueue<Mover> heap = new PriorityQueue<>(Math.min(limit, positions.size()) + 1,
+                Comparator.comparingLong(Mover::magnitude));
+        for (Position position : positions) {
+            BigDecimal currentPrice = currentPrices.get(position.getAssetId());
+            if (currentPrice == null) {
+                continue;
+            }
+            
+            long price = Quantity.unitsOf(currentPrice);
+            long previousClose = previousCloses.getOrDefault(position.getAssetId(), price);
+            long quantity = Quantity.unitsOf(position.getQuantity());
+            long value = Money.multiplyPrice(price, quantity);
+            long previousValue = Money.multiplyPrice(previousClose, quantity);
+            long magnitude = previousClose > 0
+                    ? FixedPoint.multiplyDivide(Math.abs(price - previousClose), MOVE_MAGNITUDE_SCALE, previousClose)
+                    : 0;
+            
+            heap.offer(new Mover(position.getAssetId(), currentPrice, value, previousValue, magnitude));
+            if (heap.size() > limit) {
+                heap.poll();
             }
         }
         
-        return assetMoversMap.values().stream()
-                .map(this::convertToTopMoversResponse)
-                .sorted((a, b) -> b.getChangePercent().abs().compareTo(a.getChangePercent().abs()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<Mover> movers = new ArrayList<>(heap);
+        movers.sort(Comparator.comparingLong(Mover::magnitude).reversed());
+        
+        Map<String, Asset> assets = assetDictionary.getAll(movers.stream().map(Mover::assetId).toList());
+        
+        List<TopMoversResponse> topMovers = new ArrayList<>(movers.size());
+        for (Mover mover : movers) {
+            Asset asset = assets.get(mover.assetId());
+            if (asset != null) {
+                topMovers.add(toTopMoversResponse(mover, asset));
+            }
+        }
+        return topMovers;
     }
     
-    @Cacheable(value = "portfolio-analytics", key = "#root.target.getCurrentUserId() + '_' + #period")
     public PortfolioAnalyticsResponse getPortfolioAnalytics(String period) {
+        return portfolioAnalyticsCache.get(getCurrentUserId() + "_" + period, () -> calculatePortfolioAnalytics(period));
+    }
+
+    private PortfolioAnalyticsResponse calculatePortfolioAnalytics(String period) {
         PortfolioAnalyticsResponse analytics = new PortfolioAnalyticsResponse();
         
-        analytics.setPortfolioHistory(getPortfolioHistory(period));
-        analytics.setAssetAllocation(getAssetAllocation());
-        analytics.setTopMovers(getTopMovers(5));
+        // Fan the parts out through the proxy so their own caches apply, carrying the
+        // caller's security context since every part resolves the current user
+        PortfolioService proxy = self.getObject();
+        Executor executor = new DelegatingSecurityContextExecutor(analyticsExecutor, SecurityContextHolder.getContext());
+        FutureTask<List<PortfolioHistoryResponse>> history = submit(executor, () -> proxy.getPortfolioHistory(period));
+        FutureTask<List<AssetAllocationResponse>> allocation = submit(executor, proxy::getAssetAllocation);
+        FutureTask<List<TopMoversResponse>> topMovers = submit(executor, () -> proxy.getTopMovers(5));
+        
+        long deadline = System.nanoTime() + analyticsTimeout.toNanos();
+        try {
+            analytics.setPortfolioHistory(await(history, deadline));
+            analytics.setAssetAllocation(await(allocation, deadline));
+            analytics.setTopMovers(await(topMovers, deadline));
+        } finally {
+            // No-op for finished parts; interrupts the rest on timeout or failure
+            history.cancel(true);
+            allocation.cancel(true);
+            topMovers.cancel(true);
+        }
         
         // Calculate advanced metrics
-        List<PortfolioHistoryResponse> history = analytics.getPortfolioHistory();
-        if (history.size() > 1) {
-            BigDecimal firstValue = history.get(0).getValue();
-            BigDecimal lastValue = history.get(history.size() - 1).getValue();
+        List<PortfolioHistoryResponse> points = analytics.getPortfolioHistory();
+        if (points.size() > 1) {
+            BigDecimal firstValue = points.get(0).getValue();
+            BigDecimal lastValue = points.get(points.size() - 1).getValue();
             
             if (firstValue.compareTo(BigDecimal.ZERO) > 0) {
                 analytics.setTotalReturn(lastValue.subtract(firstValue));
@@ -287,9 +433,16 @@ public class PortfolioService {
                         .divide(firstValue, 2, RoundingMode.HALF_UP));
             }
             
-            analytics.setVolatility(calculateVolatility(history));
-            analytics.setSharpeRatio(calculateSharpeRatio(history));
-            analytics.setMaxDrawdown(calculateMaxDrawdown(history));
+            // Single pass over the series for all risk metrics
+            ReturnStatsAccumulator stats = new ReturnStatsAccumulator();
+            for (PortfolioHistoryResponse point : points) {
+                stats.accept(point.getValue().doubleValue());
+            }
+            
+            analytics.setVolatility(toDecimal(stats.getAnnualizedVolatility(), 4));
+            analytics.setSharpeRatio(toDecimal(stats.getSharpeRatio(RISK_FREE_RATE), 2));
+            analytics.setMaxDrawdown(toDecimal(stats.getMaxDrawdown() * 100, 2)); // As percentage
+            analytics.setMaxDrawdownDays(stats.getMaxDrawdownDuration());
         }
         
         return analytics;
@@ -306,298 +459,169 @@ public class PortfolioService {
         };
     }
     
-    private BigDecimal calculatePortfolioValueForDate(String userId, LocalDate date) {
-        // For now, return current portfolio value
-        // In a real implementation, this would calculate historical value
-        List<AcquisitionLot> acquisitions = acquisitionLotRepository.findByUserId(userId);
-        BigDecimal totalValue = BigDecimal.ZERO;
-        
-        for (AcquisitionLot acquisition : acquisitions) {
-            if (!acquisition.getAcquisitionDate().isAfter(date)) {
-                BigDecimal currentPrice = priceService.getCurrentPrice(acquisition.getAssetId(), "TRY");
-                BigDecimal assetValue = acquisition.getQuantity().multiply(currentPrice);
-                totalValue = totalValue.add(assetValue);
-            }
-        }
-        
-        // Add some random variation for demo purposes
-        double variation = Math.sin(date.toEpochDay()) * 0.05; // 5% variation
-        BigDecimal variationAmount = totalValue.multiply(BigDecimal.valueOf(variation));
-        return totalValue.add(variationAmount);
-    }
-    
-    private BigDecimal calculateVolatility(List<PortfolioHistoryResponse> history) {
-        if (history.size() < 2) return BigDecimal.ZERO;
-        
-        double sumSquaredReturns = 0.0;
-        int count = 0;
-        
-        for (int i = 1; i < history.size(); i++) {
-            BigDecimal previousValue = history.get(i - 1).getValue();
-            BigDecimal currentValue = history.get(i).getValue();
-            
-            if (previousValue.compareTo(BigDecimal.ZERO) > 0) {
-                double dailyReturn = currentValue.subtract(previousValue)
-                        .divide(previousValue, 4, RoundingMode.HALF_UP).doubleValue();
-                sumSquaredReturns += dailyReturn * dailyReturn;
-                count++;
-            }
-        }
-        
-        double variance = count > 0 ? sumSquaredReturns / count : 0.0;
-        return BigDecimal.valueOf(Math.sqrt(variance) * Math.sqrt(252)); // Annualized
-    }
-    
-    private BigDecimal calculateSharpeRatio(List<PortfolioHistoryResponse> history) {
-        // Simplified Sharpe ratio calculation (assuming 2% risk-free rate)
-        BigDecimal volatility = calculateVolatility(history);
-        if (volatility.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
-        
-        BigDecimal totalReturn = getTotalReturnPercent(history);
-        BigDecimal riskFreeRate = BigDecimal.valueOf(2.0); // 2% annual
-        
-        return totalReturn.subtract(riskFreeRate).divide(volatility, 2, RoundingMode.HALF_UP);
-    }
-    
-    private BigDecimal calculateMaxDrawdown(List<PortfolioHistoryResponse> history) {
-        BigDecimal maxDrawdown = BigDecimal.ZERO;
-        BigDecimal peak = BigDecimal.ZERO;
-        
-        for (PortfolioHistoryResponse point : history) {
-            if (point.getValue().compareTo(peak) > 0) {
-                peak = point.getValue();
-            } else {
-                BigDecimal drawdown = peak.subtract(point.getValue())
-                        .divide(peak, 4, RoundingMode.HALF_UP);
-                if (drawdown.compareTo(maxDrawdown) > 0) {
-                    maxDrawdown = drawdown;
-                }
-            }
-        }
-        
-        return maxDrawdown.multiply(BigDecimal.valueOf(100)); // As percentage
+    private static BigDecimal toDecimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
     }
     
-    private BigDecimal getTotalReturnPercent(List<PortfolioHistoryResponse> history) {
-        if (history.size() < 2) return BigDecimal.ZERO;
+    private TopMoversResponse toTopMoversResponse(Mover mover, Asset asset) {
+        long change = mover.value() - mover.previousValue();
         
-        BigDecimal firstValue = history.get(0).getValue();
-        BigDecimal lastValue = history.get(history.size() - 1).getValue();
-        
-        if (firstValue.compareTo(BigDecimal.ZERO) > 0) {
-            return lastValue.subtract(firstValue)
-                    .multiply(BigDecimal.valueOf(100))
-                    .divide(firstValue, 2, RoundingMode.HALF_UP);
-        }
-        
-        return BigDecimal.ZERO;
-    }
-    
-    private TopMoversResponse convertToTopMoversResponse(TopMoversData data) {
         TopMoversResponse response = new TopMoversResponse();
-        response.setAssetId(data.getAssetId());
-        response.setAssetSymbol(data.getSymbol());
-        response.setAssetName(data.getName());
-        response.setCurrentPrice(data.getCurrentPrice());
-        response.setValue(data.getTotalValue());
-        
-        // Calculate mock change (in real implementation, this would compare with previous day)
-        BigDecimal mockChange = data.getTotalValue().multiply(BigDecimal.valueOf(0.03)); // 3% mock change
-        response.setChange(mockChange);
-        
-        if (data.getTotalValue().compareTo(BigDecimal.ZERO) > 0) {
-            response.setChangePercent(mockChange.multiply(BigDecimal.valueOf(100))
-                    .divide(data.getTotalValue(), 2, RoundingMode.HALF_UP));
-        } else {
-            response.setChangePercent(BigDecimal.ZERO);
-        }
-        
-        response.setDirection(response.getChange().compareTo(BigDecimal.ZERO) >= 0 ? "UP" : "DOWN");
+        response.setAssetId(mover.assetId());
+        response.setAssetSymbol(asset.getSymbol());
+        response.setAssetName(asset.getName());
+        response.setCurrentPrice(mover.currentPrice());
+        response.setValue(Money.toBigDecimal(mover.value()));
+        response.setChange(Money.toBigDecimal(change));
+        response.setChangePercent(mover.previousValue() > 0
+                ? Money.percent(change, mover.previousValue())
+                : BigDecimal.ZERO);
+        response.setDirection(change >= 0 ? "UP" : "DOWN");
         
         return response;
     }
 
     /**
-     * Calculate daily change percentage for the entire portfolio
+     * Calculate daily change percentage for the entire portfolio against each asset's previous daily close
      */
-    private BigDecimal calculateDailyChangePercent(List<AcquisitionLot> acquisitions) {
-        if (acquisitions.isEmpty()) {
+    private BigDecimal calculateDailyChangePercent(List<Position> positions, Map<String, BigDecimal> currentPrices) {
+        if (positions.isEmpty()) {
             return BigDecimal.ZERO;
         }
 
-        BigDecimal totalCurrentValue = BigDecimal.ZERO;
-        BigDecimal totalPreviousDayValue = BigDecimal.ZERO;
-        
-        // Get unique asset IDs
-        Set<String> assetIds = acquisitions.stream()
-                .map(AcquisitionLot::getAssetId)
-                .collect(Collectors.toSet());
+        long totalCurrentValue = 0;
+        long totalPreviousDayValue = 0;
 
-        for (String assetId : assetIds) {
-            // Get current price
-            Optional<PriceSnapshot> currentPriceOpt = priceSnapshotRepository.findLatestByAssetId(assetId);
-            if (!currentPriceOpt.isPresent()) {
-                continue;
-            }
+        // Previous close for every held asset from the shared index
+        Map<String, Long> previousCloses = previousCloseIndex.getPreviousCloses(
+                currentPrices.keySet(), LocalDate.now(getCurrentUserZone()));
 
-            PriceSnapshot currentPrice = currentPriceOpt.get();
-            
-            // Get price from previous day (24 hours ago)
-            LocalDateTime previousDay = currentPrice.getAsOf().minusDays(1);
-            LocalDateTime startOfDay = previousDay.toLocalDate().atStartOfDay();
-            LocalDateTime endOfDay = previousDay.toLocalDate().plusDays(1).atStartOfDay();
-            
-            List<PriceSnapshot> previousDayPrices = priceSnapshotRepository
-                    .findByAssetIdAndAsOfBetween(assetId, startOfDay, endOfDay);
-            
-            if (previousDayPrices.isEmpty()) {
-                // If no previous day data, use current price as baseline
-                BigDecimal assetQuantity = acquisitions.stream()
-                        .filter(acq -> acq.getAssetId().equals(assetId))
-                        .map(AcquisitionLot::getQuantity)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-                BigDecimal assetCurrentValue = currentPrice.getPrice().multiply(assetQuantity);
-                totalCurrentValue = totalCurrentValue.add(assetCurrentValue);
-                totalPreviousDayValue = totalPreviousDayValue.add(assetCurrentValue);
+        for (Position position : positions) {
+            BigDecimal currentPrice = currentPrices.get(position.getAssetId());
+            if (currentPrice == null) {
                 continue;
             }
 
-            // Use the latest price from previous day
-            PriceSnapshot previousDayPrice = previousDayPrices.get(previousDayPrices.size() - 1);
-            
-            // Calculate total quantity for this asset
-            BigDecimal assetQuantity = acquisitions.stream()
-                    .filter(acq -> acq.getAssetId().equals(assetId))
-                    .map(AcquisitionLot::getQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            long quantity = Quantity.unitsOf(position.getQuantity());
+            long assetCurrentValue = Money.multiplyPrice(Quantity.unitsOf(currentPrice), quantity);
+            // If no previous day data, use current price as baseline
+            Long previousClose = previousCloses.get(position.getAssetId());
+            long assetPreviousValue = previousClose != null
+                    ? Money.multiplyPrice(previousClose, quantity)
+                    : assetCurrentValue;
 
-            totalCurrentValue = totalCurrentValue.add(currentPrice.getPrice().multiply(assetQuantity));
-            totalPreviousDayValue = totalPreviousDayValue.add(previousDayPrice.getPrice().multiply(assetQuantity));
+            totalCurrentValue += assetCurrentValue;
+            totalPreviousDayValue += assetPreviousValue;
         }
 
         // Calculate percentage change
-        if (totalPreviousDayValue.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal dailyChange = totalCurrentValue.subtract(totalPreviousDayValue);
-            return dailyChange.multiply(BigDecimal.valueOf(100))
-                    .divide(totalPreviousDayValue, 2, RoundingMode.HALF_UP);
+        if (totalPreviousDayValue > 0) {
+            return Money.percent(totalCurrentValue - totalPreviousDayValue, totalPreviousDayValue);
         }
 
         return BigDecimal.ZERO;
     }
 
     /**
-     * Calculate FX influence on portfolio value
-     * This shows how much of the gain/loss is due to currency fluctuations vs asset performance
+     * TRY gain or loss caused by exchange rate moves alone: each foreign lot's cost in its
+     * purchase currency at today's rate, less what it cost in TRY when bought
      */
-    private BigDecimal calculateFxInfluence(List<AcquisitionLot> acquisitions) {
-        if (acquisitions.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
+    private BigDecimal calculateFxInfluence(List<Position> positions) {
+        long totalFxImpact = 0;
+        Map<String, Long> currentRates = new HashMap<>();
 
-        BigDecimal totalFxImpact = BigDecimal.ZERO;
-        
-        // Group acquisitions by asset ID to get original currencies
-        Map<String, List<AcquisitionLot>> acquisitionsByAsset = acquisitions.stream()
-                .collect(Collectors.groupingBy(AcquisitionLot::getAssetId));
-
-        for (Map.Entry<String, List<AcquisitionLot>> entry : acquisitionsByAsset.entrySet()) {
-            String assetId = entry.getKey();
-            List<AcquisitionLot> assetAcquisitions = entry.getValue();
-
-            // Get asset details
-            Optional<Asset> assetOpt = assetRepository.findById(assetId);
-            if (!assetOpt.isPresent()) {
-                continue;
-            }
-            
-            Asset asset = assetOpt.get();
-            String assetCurrency = asset.getCurrency();
-            
-            // Skip if already in TRY
-            if ("TRY".equals(assetCurrency)) {
+        for (Position position : positions) {
+            if (position.getFxCostByCurrency() == null) {
                 continue;
             }
+            for (Map.Entry<String, Position.FxCost> entry : position.getFxCostByCurrency().entrySet()) {
+                long cost = Money.unitsOf(entry.getValue().getCost());
+                if ("TRY".equals(entry.getKey()) || cost == 0) {
+                    continue;
+                }
 
-            // Calculate total value in original currency
-            BigDecimal totalQuantity = assetAcquisitions.stream()
-                    .map(AcquisitionLot::getQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+                long currentRate = currentRates.computeIfAbsent(entry.getKey(),
+                        currency -> fxRateHistoryService.currentRateUnits(currency, "TRY"));
+                if (currentRate == FxTimeSeries.NO_RATE) {
+                    continue;
+                }
 
-            Optional<PriceSnapshot> currentPriceOpt = priceSnapshotRepository.findLatestByAssetId(assetId);
-            if (!currentPriceOpt.isPresent()) {
-                continue;
+                totalFxImpact += Money.multiply(cost, currentRate) - Money.unitsOf(entry.getValue().getCostTry());
             }
-
-            BigDecimal currentPriceInOriginalCurrency = currentPriceOpt.get().getPrice();
-            BigDecimal valueInOriginalCurrency = currentPriceInOriginalCurrency.multiply(totalQuantity);
-
-            // For FX impact calculation, we would need historical exchange rates
-            // For now, we'll calculate a simplified estimate based on common currency volatility
-            // In a real implementation, this would use historical USD/TRY, EUR/TRY rates
-            BigDecimal estimatedFxImpact = calculateEstimatedFxImpact(assetCurrency, valueInOriginalCurrency);
-            totalFxImpact = totalFxImpact.add(estimatedFxImpact);
         }
 
-        return totalFxImpact;
+        return Money.toBigDecimal(totalFxImpact);
     }
 
+    private long calculateCurrentValue(List<Position> positions) {
+        Map<String, BigDecimal> currentPrices = getCurrentPrices(positions);
+        long totalValue = 0;
+        for (Position position : positions) {
+            long currentPrice = Quantity.unitsOf(currentPrices.get(position.getAssetId()));
+            totalValue += Money.multiplyPrice(currentPrice, Quantity.unitsOf(position.getQuantity()));
+        }
+        return totalValue;
+    }
+    
     /**
-     * Estimate FX impact based on currency and value
-     * This is a simplified calculation - a real implementation would use actual historical exchange rates
+     * Resolve current prices for every held asset in one batch
      */
-    private BigDecimal calculateEstimatedFxImpact(String currency, BigDecimal valueInOriginalCurrency) {
-        // Estimated monthly volatility against TRY for major currencies
-        BigDecimal volatilityFactor;
-        switch (currency) {
-            case "USD":
-                volatilityFactor = BigDecimal.valueOf(0.05); // 5% estimated impact
-                break;
-            case "EUR":
-                volatilityFactor = BigDecimal.valueOf(0.04); // 4% estimated impact
-                break;
-            case "GBP":
-                volatilityFactor = BigDecimal.valueOf(0.06); // 6% estimated impact
-                break;
-            default:
-                volatilityFactor = BigDecimal.valueOf(0.03); // 3% default
-                break;
-        }
-
-        // Return estimated FX impact (this would be positive or negative in real implementation)
-        return valueInOriginalCurrency.multiply(volatilityFactor);
+    private Map<String, BigDecimal> getCurrentPrices(List<Position> positions) {
+        return priceService.getCurrentPrices(assetIdsOf(positions));
+    }
+    
+    private static Set<String> assetIdsOf(List<Position> positions) {
+        return positions.stream()
+                .map(Position::getAssetId)
+                .collect(Collectors.toSet());
     }
 
-    private String getCurrentUserId() {
+    private static <T> FutureTask<T> submit(Executor executor, Callable<T> part) {
+        FutureTask<T> task = new FutureTask<>(part);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: compute on the calling thread instead of failing the request
+            task.run();
+        }
+        return task;
+    }
+    
+    private static <T> T await(FutureTask<T> task, long deadlineNanos) {
+        try {
+            return task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Portfolio analytics timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Portfolio analytics interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Portfolio analytics failed", e.getCause());
+        }
+    }
+    
+    private ZoneId getCurrentUserZone() {
+        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String timezone = userPrincipal.getTimezone();
+        return timezone != null ? ZoneId.of(timezone) : DEFAULT_ZONE;
+    }
+    
+    /**
+     * Public so cache key expressions ({@code #root.target.getCurrentUserId()}) can resolve it
+     */
+    public String getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         return userPrincipal.getId();
     }
     
-    // Helper class for top movers calculation
-    private static class TopMoversData {
-        private final String symbol;
-        private final String name;
-        private String assetId;
-        private BigDecimal totalValue = BigDecimal.ZERO;
-        private BigDecimal currentPrice = BigDecimal.ZERO;
-        
-        public TopMoversData(String symbol, String name) {
-            this.symbol = symbol;
-            this.name = name;
-        }
-        
-        public void addValue(BigDecimal value) {
-            this.totalValue = this.totalValue.add(value);
-        }
-        
-        // Getters and setters
-        public String getSymbol() { return symbol; }
-        public String getName() { return name; }
-        public String getAssetId() { return assetId; }
-        public void setAssetId(String assetId) { this.assetId = assetId; }
-        public BigDecimal getTotalValue() { return totalValue; }
-        public BigDecimal getCurrentPrice() { return currentPrice; }
-        public void setCurrentPrice(BigDecimal currentPrice) { this.currentPrice = currentPrice; }
+    /**
+     * Day-over-day move of one holding; magnitude is the absolute price change relative
+     * to the previous close, used only for ordering
+     */
+    private record Mover(String assetId, BigDecimal currentPrice, long value, long previousValue, long magnitude) {
     }
 }
\ No newline at end of file
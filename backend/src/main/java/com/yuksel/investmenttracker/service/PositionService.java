@@ -0,0 +1,220 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.Position;
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.PositionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Maintains the "positions" read model: one document per (userId, assetId) holding
+ * aggregated quantity, cost basis and fees, so valuation touches O(assets) rows instead of O(lots).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PositionService {
+
+    private final PositionRepository positionRepository;
+    private final AcquisitionLotRepository acquisitionLotRepository;
+    private final MongoTemplate mongoTemplate;
+    private final AssetHoldersIndex assetHoldersIndex;
+
+    public List<Position> getPositions(String userId) {
+        return positionRepository.findByUserId(userId);
+    }
+
+    /**
+     * Fold a newly stored lot into its position with a single atomic upsert
+     */
+    public void applyAcquisition(AcquisitionLot lot) {
+        BigDecimal fee = lot.getFee() != null ? lot.getFee() : BigDecimal.ZERO;
+        BigDecimal cost = lot.getQuantity().multiply(lot.getUnitPrice());
+
+        Query query = positionQuery(lot.getUserId(), lot.getAssetId());
+        Update update = new Update()
+                .inc("quantity", new Decimal128(lot.getQuantity()))
+                .inc("costBasis", new Decimal128(cost))
+                .inc("fees", new Decimal128(fee))
+                .inc("lotCount", 1)
+                .min("firstAcquisitionDate", lot.getAcquisitionDate())
+                .max("lastAcquisitionDate", lot.getAcquisitionDate())
+                .set("updatedAt", LocalDateTime.now());
+
+        if (lot.getFxRateAtAcquisition() != null) {
+            incFxCost(update, lot.getCurrency(), cost, cost.multiply(lot.getFxRateAtAcquisition()));
+        }
+
+        mongoTemplate.upsert(query, update, Position.class);
+        assetHoldersIndex.addHolder(lot.getAssetId(), lot.getUserId());
+        log.debug("Applied lot {} to position {}/{}", lot.getId(), lot.getUserId(), lot.getAssetId());
+    }
+
+    /**
+     * Fold a batch of stored lots into their positions, one upsert per asset sent as a
+     * single unordered bulk write
+     */
+    public void applyAcquisitions(List<AcquisitionLot> lots) {
+        List<Position> deltas = aggregateLots(lots);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Position.class);
+        for (Position delta : deltas) {
+            Query query = positionQuery(delta.getUserId(), delta.getAssetId());
+            Update update = new Update()
+                    .inc("quantity", new Decimal128(delta.getQuantity()))
+                    .inc("costBasis", new Decimal128(delta.getCostBasis()))
+                    .inc("fees", new Decimal128(delta.getFees()))
+                    .inc("lotCount", delta.getLotCount())
+                    .min("firstAcquisitionDate", delta.getFirstAcquisitionDate())
+                    .max("lastAcquisitionDate", delta.getLastAcquisitionDate())
+                    .set("updatedAt", delta.getUpdatedAt());
+
+            delta.getFxCostByCurrency().forEach((currency, fxCost) ->
+                    incFxCost(update, currency, fxCost.getCost(), fxCost.getCostTry()));
+            bulkOps.upsert(query, update);
+        }
+        bulkOps.execute();
+
+        deltas.forEach(delta -> assetHoldersIndex.addHolder(delta.getAssetId(), delta.getUserId()));
+        log.debug("Applied {} lots to {} positions", lots.size(), deltas.size());
+    }
+
+    /**
+     * Reconstruct a user's positions from acquisition_lots. Rows are overwritten in place and
+     * only positions whose lots are gone are removed, so readers never see an empty portfolio
+     */
+    public List<Position> rebuildPositions(String userId) {
+        List<Position> positions = aggregateLots(acquisitionLotRepository.findByUserId(userId));
+
+        List<String> assetIds = new ArrayList<>(positions.size());
+        if (!positions.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Position.class);
+            for (Position position : positions) {
+                Update update = new Update()
+                        .set("quantity", new Decimal128(position.getQuantity()))
+                        .set("costBasis", new Decimal128(position.getCostBasis()))
+                        .set("fees", new Decimal128(position.getFees()))
+                        .set("fxCostByCurrency", fxCostDocument(position.getFxCostByCurrency()))
+                        .set("lotCount", position.getLotCount())
+                        .set("firstAcquisitionDate", position.getFirstAcquisitionDate())
+                        .set("lastAcquisitionDate", position.getLastAcquisitionDate())
+                        .set("updatedAt", position.getUpdatedAt());
+                bulkOps.upsert(positionQuery(userId, position.getAssetId()), update);
+                assetIds.add(position.getAssetId());
+            }
+            bulkOps.execute();
+        }
+        mongoTemplate.remove(new Query(where("userId").is(userId).and("assetId").nin(assetIds)), Position.class);
+        assetIds.forEach(assetId -> assetHoldersIndex.addHolder(assetId, userId));
+
+        log.info("Rebuilt {} positions for user {}", positions.size(), userId);
+        return positions;
+    }
+
+    public void rebuildAllPositions() {
+        List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", AcquisitionLot.class, String.class);
+        log.info("Rebuilding positions for {} users", userIds.size());
+
+        int failureCount = 0;
+        for (String userId : userIds) {
+            try {
+                rebuildPositions(userId);
+            } catch (Exception e) {
+                log.error("Failed to rebuild positions for user {}: {}", userId, e.getMessage());
+                failureCount++;
+            }
+        }
+
+        log.info("Position rebuild completed. Users: {}, Failures: {}", userIds.size(), failureCount);
+    }
+
+    /**
+     * Populate the read model on first start against an existing lots collection
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializePositions() {
+        if (positionRepository.count() == 0 && acquisitionLotRepository.count() > 0) {
+            log.info("Positions collection is empty, rebuilding from acquisition lots");
+            rebuildAllPositions();
+        }
+    }
+
+    private static Query positionQuery(String userId, String assetId) {
+        return new Query(where("userId").is(userId).and("assetId").is(assetId));
+    }
+
+    private static void incFxCost(Update update, String currency, BigDecimal cost, BigDecimal costTry) {
+        update.inc("fxCostByCurrency." + currency + ".cost", new Decimal128(cost))
+                .inc("fxCostByCurrency." + currency + ".costTry", new Decimal128(costTry));
+    }
+
+    private static Document fxCostDocument(Map<String, Position.FxCost> fxCostByCurrency) {
+        Document document = new Document();
+        fxCostByCurrency.forEach((currency, fxCost) -> document.append(currency,
+                new Document("cost", new Decimal128(fxCost.getCost()))
+                        .append("costTry", new Decimal128(fxCost.getCostTry()))));
+        return document;
+    }
+
+    static List<Position> aggregateLots(List<AcquisitionLot> lots) {
+        Map<String, Position> positionsByAsset = new LinkedHashMap<>();
+
+        for (AcquisitionLot lot : lots) {
+            Position position = positionsByAsset.computeIfAbsent(lot.getAssetId(), assetId -> {
+                Position p = new Position();
+                p.setUserId(lot.getUserId());
+                p.setAssetId(assetId);
+                p.setQuantity(BigDecimal.ZERO);
+                p.setCostBasis(BigDecimal.ZERO);
+                p.setFees(BigDecimal.ZERO);
+                p.setFxCostByCurrency(new TreeMap<>());
+                p.setFirstAcquisitionDate(lot.getAcquisitionDate());
+                p.setLastAcquisitionDate(lot.getAcquisitionDate());
+                return p;
+            });
+
+            BigDecimal fee = lot.getFee() != null ? lot.getFee() : BigDecimal.ZERO;
+            BigDecimal cost = lot.getQuantity().multiply(lot.getUnitPrice());
+            position.setQuantity(position.getQuantity().add(lot.getQuantity()));
+            position.setCostBasis(position.getCostBasis().add(cost));
+            position.setFees(position.getFees().add(fee));
+            if (lot.getFxRateAtAcquisition() != null) {
+                Position.FxCost fxCost = position.getFxCostByCurrency()
+                        .computeIfAbsent(lot.getCurrency(), currency -> new Position.FxCost());
+                fxCost.setCost(fxCost.getCost().add(cost));
+                fxCost.setCostTry(fxCost.getCostTry().add(cost.multiply(lot.getFxRateAtAcquisition())));
+            }
+            position.setLotCount(position.getLotCount() + 1);
+
+            if (lot.getAcquisitionDate().isBefore(position.getFirstAcquisitionDate())) {
+                position.setFirstAcquisitionDate(lot.getAcquisitionDate());
+            }
+            if (lot.getAcquisitionDate().isAfter(position.getLastAcquisitionDate())) {
+                position.setLastAcquisitionDate(lot.getAcquisitionDate());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        positionsByAsset.values().forEach(p -> p.setUpdatedAt(now));
+        return new ArrayList<>(positionsByAsset.values());
+    }
+}
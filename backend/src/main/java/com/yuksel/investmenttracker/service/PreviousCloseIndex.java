@@ -0,0 +1,84 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Previous daily close per asset, shared by every user. Entries are grouped by the local
+ * day they are the previous close for: around midnight users in different timezones are
+ * on different days, so a generation exists per local date and rolls over when a user's
+ * day does. Misses are loaded in one batch; after warm-up lookups never touch Mongo.
+ */
+@Service
+@RequiredArgsConstructor
+public class PreviousCloseIndex {
+
+    private static final long NO_CLOSE = Long.MIN_VALUE;
+
+    // Local dates in use at one instant span at most three days (UTC-12 to UTC+14)
+    private static final int RETAINED_DAYS = 3;
+
+    private final PriceDailyBarRepository priceDailyBarRepository;
+    private final ConcurrentMap<LocalDate, ConcurrentMap<String, Long>> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Last close before {@code today} for each asset, in {@link Quantity} units. Assets that
+     * have no earlier bar are left out.
+     */
+    public Map<String, Long> getPreviousCloses(Collection<String> assetIds, LocalDate today) {
+        ConcurrentMap<String, Long> generation = generations.get(today);
+        if (generation == null) {
+            // First lookup for a new day: drop days no timezone can still be on
+            generations.keySet().removeIf(date -> date.isBefore(today.minusDays(RETAINED_DAYS)));
+            generation = generations.computeIfAbsent(today, date -> new ConcurrentHashMap<>());
+        }
+
+        List<String> misses = new ArrayList<>();
+        for (String assetId : assetIds) {
+            if (!generation.containsKey(assetId)) {
+                misses.add(assetId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Long> loaded = new HashMap<>();
+            for (PriceDailyBar bar : priceDailyBarRepository.findLatestPerAssetInBefore(misses, today)) {
+                loaded.put(bar.getAssetId(), Quantity.unitsOf(bar.getClose()));
+            }
+            for (String assetId : misses) {
+                generation.putIfAbsent(assetId, loaded.getOrDefault(assetId, NO_CLOSE));
+            }
+        }
+
+        Map<String, Long> previousCloses = new HashMap<>();
+        for (String assetId : assetIds) {
+            Long close = generation.get(assetId);
+            if (close != null && close != NO_CLOSE) {
+                previousCloses.put(assetId, close);
+            }
+        }
+        return previousCloses;
+    }
+
+    /**
+     * The bar of {@code date} changed, so drop it wherever it can be the previous close
+     */
+    public void invalidate(String assetId, LocalDate date) {
+        generations.forEach((today, generation) -> {
+            if (date.isBefore(today)) {
+                generation.remove(assetId);
+            }
+        });
+    }
+}
@@ -0,0 +1,172 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Rolls raw price snapshots up into the "price_daily_bars" collection so history and
+ * daily change read one bar per asset-day instead of every intraday tick.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceBarService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final PriceDailyBarRepository priceDailyBarRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PreviousCloseIndex previousCloseIndex;
+
+    /**
+     * Fold a freshly recorded snapshot into its daily bar with a single atomic upsert.
+     * Snapshots are expected to arrive in time order, so the latest one becomes the close.
+     */
+    public void applySnapshot(PriceSnapshot snapshot) {
+        Decimal128 price = new Decimal128(snapshot.getPrice());
+
+        Query query = new Query(where("assetId").is(snapshot.getAssetId())
+                .and("date").is(snapshot.getAsOf().toLocalDate()));
+        Update update = new Update()
+                .setOnInsert("open", price)
+                .setOnInsert("openAt", snapshot.getAsOf())
+                .setOnInsert("currency", snapshot.getCurrency())
+                .max("high", price)
+                .min("low", price)
+                .set("close", price)
+                .set("closeAt", snapshot.getAsOf())
+                .inc("sampleCount", 1);
+
+        mongoTemplate.upsert(query, update, PriceDailyBar.class);
+        previousCloseIndex.invalidate(snapshot.getAssetId(), snapshot.getAsOf().toLocalDate());
+    }
+
+    /**
+     * Rebuild daily bars for every asset from the raw snapshots
+     */
+    public void backfillDailyBars() {
+        List<String> assetIds = mongoTemplate.findDistinct(new Query(), "assetId", PriceSnapshot.class, String.class);
+        log.info("Backfilling daily bars for {} assets", assetIds.size());
+
+        int barCount = 0;
+        int failureCount = 0;
+        for (String assetId : assetIds) {
+            try {
+                barCount += backfillDailyBars(assetId);
+            } catch (Exception e) {
+                log.error("Failed to backfill daily bars for asset {}: {}", assetId, e.getMessage());
+                failureCount++;
+            }
+        }
+
+        log.info("Daily bar backfill completed. Bars: {}, Failures: {}", barCount, failureCount);
+    }
+
+    /**
+     * Stream one asset's snapshots in time order and replace its bars, in bulk batches
+     */
+    public int backfillDailyBars(String assetId) {
+        Query query = new Query(where("assetId").is(assetId)).with(Sort.by("asOf"));
+        query.fields().include("assetId", "price", "currency", "asOf");
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceDailyBar.class);
+        PriceDailyBar bar = null;
+        int pending = 0;
+        int barCount = 0;
+
+        try (Stream<PriceSnapshot> snapshots = mongoTemplate.stream(query, PriceSnapshot.class)) {
+            for (PriceSnapshot snapshot : (Iterable<PriceSnapshot>) snapshots::iterator) {
+                LocalDate date = snapshot.getAsOf().toLocalDate();
+
+                if (bar != null && bar.getDate().equals(date)) {
+                    accumulate(bar, snapshot);
+                    continue;
+                }
+
+                if (bar != null) {
+                    replaceBar(bulkOps, bar);
+                    barCount++;
+                    if (++pending >= BACKFILL_BATCH_SIZE) {
+                        bulkOps.execute();
+                        bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceDailyBar.class);
+                        pending = 0;
+                    }
+                }
+                bar = openBar(snapshot);
+            }
+        }
+
+        if (bar != null) {
+            replaceBar(bulkOps, bar);
+            barCount++;
+            pending++;
+        }
+        if (pending > 0) {
+            bulkOps.execute();
+        }
+
+        previousCloseIndex.invalidate(assetId, LocalDate.MIN);
+        log.debug("Backfilled {} daily bars for asset {}", barCount, assetId);
+        return barCount;
+    }
+
+    /**
+     * Build bars for existing snapshot data on first start, ahead of anything valued from them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void initializeDailyBars() {
+        if (priceDailyBarRepository.count() == 0 && mongoTemplate.estimatedCount(PriceSnapshot.class) > 0) {
+            log.info("Daily bars collection is empty, backfilling from price snapshots");
+            backfillDailyBars();
+        }
+    }
+
+    private void replaceBar(BulkOperations bulkOps, PriceDailyBar bar) {
+        Query query = new Query(where("assetId").is(bar.getAssetId()).and("date").is(bar.getDate()));
+        bulkOps.replaceOne(query, bar, FindAndReplaceOptions.options().upsert());
+    }
+
+    private PriceDailyBar openBar(PriceSnapshot snapshot) {
+        PriceDailyBar bar = new PriceDailyBar();
+        bar.setAssetId(snapshot.getAssetId());
+        bar.setDate(snapshot.getAsOf().toLocalDate());
+        bar.setCurrency(snapshot.getCurrency());
+        bar.setOpen(snapshot.getPrice());
+        bar.setHigh(snapshot.getPrice());
+        bar.setLow(snapshot.getPrice());
+        bar.setClose(snapshot.getPrice());
+        bar.setOpenAt(snapshot.getAsOf());
+        bar.setCloseAt(snapshot.getAsOf());
+        bar.setSampleCount(1);
+        return bar;
+    }
+
+    private void accumulate(PriceDailyBar bar, PriceSnapshot snapshot) {
+        bar.setHigh(bar.getHigh().max(snapshot.getPrice()));
+        bar.setLow(bar.getLow().min(snapshot.getPrice()));
+        bar.setClose(snapshot.getPrice());
+        bar.setCloseAt(snapshot.getAsOf());
+        bar.setSampleCount(bar.getSampleCount() + 1);
+    }
+}
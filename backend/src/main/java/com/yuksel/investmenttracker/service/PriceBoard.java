@@ -0,0 +1,42 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latest price tick per asset on this node. Every stored snapshot is written through by
+ * {@link PriceService}, so the next read sees it. Prices stay in the currency they were
+ * quoted in, the same currency as the asset's lot prices and daily bars, so they can be
+ * compared with cost basis and previous closes as they are.
+ */
+@Service
+public class PriceBoard {
+
+    private final ConcurrentMap<String, Tick> ticks = new ConcurrentHashMap<>();
+
+    private record Tick(BigDecimal price, LocalDateTime asOf) {
+    }
+
+    /**
+     * Record a snapshot unless a newer tick for the asset is already on the board
+     */
+    public void offer(PriceSnapshot snapshot) {
+        Tick tick = new Tick(snapshot.getPrice(), snapshot.getAsOf());
+        ticks.merge(snapshot.getAssetId(), tick, (current, offered) ->
+                offered.asOf.isBefore(current.asOf) ? current : offered);
+    }
+
+    /**
+     * @return latest price in its quote currency, or null if the asset has no tick on this
+     * node yet
+     */
+    public BigDecimal getPrice(String assetId) {
+        Tick tick = ticks.get(assetId);
+        return tick != null ? tick.price : null;
+    }
+}
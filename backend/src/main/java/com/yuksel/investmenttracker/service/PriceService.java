@@ -1,18 +1,16 @@
 package com.yuksel.investmenttracker.service;
 
+import com.yuksel.investmenttracker.domain.entity.Asset;
 import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
 import com.yuksel.investmenttracker.repository.PriceSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.List;
+import java.util.*;
 
 @Slf4j
 @Service
@@ -20,28 +18,81 @@ import java.util.List;
 public class PriceService {
 
     private final PriceSnapshotRepository priceSnapshotRepository;
+    private final PriceBarService priceBarService;
+    private final PriceBoard priceBoard;
+    private final ValuationCacheEvictor valuationCacheEvictor;
+    private final AssetDictionary assetDictionary;
+
+    /**
+     * @return latest price in the asset's quote currency
+     */
+    public BigDecimal getCurrentPrice(String assetId) {
+        BigDecimal price = priceBoard.getPrice(assetId);
+        if (price != null) {
+            return price;
+        }
 
-    @Cacheable(value = "current-prices", key = "#assetId + '_' + #currency", 
-               cacheManager = "pricesCacheManager")
-    public BigDecimal getCurrentPrice(String assetId, String currency) {
         Optional<PriceSnapshot> latestPrice = priceSnapshotRepository.findLatestByAssetId(assetId);
         
         if (latestPrice.isPresent()) {
             PriceSnapshot priceSnapshot = latestPrice.get();
-            
-            // For now, return the price as-is. In a real implementation, 
-            // currency conversion would be applied here if needed
+            priceBoard.offer(priceSnapshot);
             log.debug("Found price for asset {}: {} {}", assetId, priceSnapshot.getPrice(), priceSnapshot.getCurrency());
-            return priceSnapshot.getPrice();
+            return priceBoard.getPrice(assetId);
         } else {
             // If no price found, try to fetch from external API
             log.warn("No price found for asset: {}, attempting to fetch from external source", assetId);
-            return fetchAndStorePriceFromExternal(assetId, currency);
+            return fetchAndStorePriceFromExternal(assetId);
+        }
+    }
+
+    /**
+     * Resolve current prices for many assets at once. Assets already on the
+     * {@link PriceBoard} are served from memory; all misses are resolved with a single
+     * aggregation instead of one query per asset. Prices are in each asset's quote
+     * currency.
+     */
+    public Map<String, BigDecimal> getCurrentPrices(Collection<String> assetIds) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (assetIds == null || assetIds.isEmpty()) {
+            return prices;
+        }
+
+        Set<String> misses = new HashSet<>();
+
+        for (String assetId : assetIds) {
+            BigDecimal price = priceBoard.getPrice(assetId);
+            if (price != null) {
+                prices.put(assetId, price);
+            } else {
+                misses.add(assetId);
+            }
+        }
+
+        if (misses.isEmpty()) {
+            return prices;
+        }
+
+        log.debug("Resolving {} of {} prices from database", misses.size(), assetIds.size());
+        for (PriceSnapshot snapshot : priceSnapshotRepository.findLatestPerAssetIn(List.copyOf(misses))) {
+            priceBoard.offer(snapshot);
+            prices.put(snapshot.getAssetId(), priceBoard.getPrice(snapshot.getAssetId()));
+            misses.remove(snapshot.getAssetId());
+        }
+
+        // Assets without any snapshot fall back to the external source, same as getCurrentPrice
+        for (String assetId : misses) {
+            log.warn("No price found for asset: {}, attempting to fetch from external source", assetId);
+            prices.put(assetId, fetchAndStorePriceFromExternal(assetId));
         }
+
+        return prices;
     }
 
-    @CacheEvict(value = "current-prices", key = "#assetId + '_*'", 
-                cacheManager = "pricesCacheManager")
+    /**
+     * Store a new tick and write it through to the {@link PriceBoard}, so the next request
+     * on this node values the asset at the new price
+     */
     public void updatePriceForAsset(String assetId, BigDecimal price, String currency, String source) {
         PriceSnapshot priceSnapshot = new PriceSnapshot();
         priceSnapshot.setAssetId(assetId);
@@ -51,6 +102,9 @@ public class PriceService {
         priceSnapshot.setSource(source);
         
         priceSnapshotRepository.save(priceSnapshot);
+        priceBoard.offer(priceSnapshot);
+        priceBarService.applySnapshot(priceSnapshot);
+        valuationCacheEvictor.evictHoldersOf(assetId);
         log.info("Updated price for asset {}: {} {}", assetId, price, currency);
     }
 
@@ -116,13 +170,14 @@ public class PriceService {
         updatePriceForAsset(assetId, mockPrice, "USD", "EXTERNAL_API");
     }
 
-    private BigDecimal fetchAndStorePriceFromExternal(String assetId, String currency) {
+    private BigDecimal fetchAndStorePriceFromExternal(String assetId) {
         // For now, return a default price since external API integration is not implemented
         // In a real implementation, this would call external price APIs
         log.warn("External price API not implemented, returning default price for asset: {}", assetId);
         
         BigDecimal defaultPrice = BigDecimal.valueOf(100.0); // Default price
-        updatePriceForAsset(assetId, defaultPrice, currency, "DEFAULT");
+        Asset asset = assetDictionary.get(assetId);
+        updatePriceForAsset(assetId, defaultPrice, asset != null ? asset.getCurrency() : null, "DEFAULT");
         
         return defaultPrice;
     }
@@ -0,0 +1,248 @@
+package com.yuksel.investmenttracker.service;
+
+import java.util.Arrays;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.Collector;
+
+/**
+ * Single-pass risk statistics over a value series: total return, annualized volatility,
+ * Sharpe ratio, maximum drawdown and drawdown duration. Return moments use Welford's
+ * update on primitive doubles; drawdowns are tracked from the running peak, the lowest
+ * value and the position of the last new high. A plain accumulator holds only these
+ * scalars and allocates nothing as it accepts values.
+ *
+ * Accumulators from {@link #mergeable()} can be merged: {@code left.merge(right)} gives
+ * the same result as feeding both series in order into one accumulator, so partitions can
+ * be computed in parallel. How long the left side's last drawdown runs into the right side
+ * depends on where the right side first climbs back to that peak, so a mergeable
+ * accumulator also keeps the value and position of each new high it sees: memory grows
+ * with the number of new highs, up to one entry per value for a steadily rising series.
+ */
+public final class ReturnStatsAccumulator {
+
+    public static final int PERIODS_PER_YEAR = 252;
+
+    private static final int INITIAL_RECORD_CAPACITY = 16;
+
+    private long count;
+    private double firstValue;
+    private double lastValue;
+
+    // Welford state over period returns
+    private long returnCount;
+    private double meanReturn;
+    private double m2;
+
+    // Drawdown state: running peak, lowest value, deepest drawdown so far, and the
+    // longest finished run under a peak
+    private double peak;
+    private double minValue;
+    private double maxDrawdown;
+    private long lastPeakPosition;
+    private long maxClosedDuration;
+
+    // New highs and their positions, kept only by mergeable accumulators
+    private final boolean keepRecords;
+    private double[] recordPeaks;
+    private long[] recordPositions;
+    private int recordCount;
+
+    public ReturnStatsAccumulator() {
+        this(false);
+    }
+
+    private ReturnStatsAccumulator(boolean keepRecords) {
+        this.keepRecords = keepRecords;
+        if (keepRecords) {
+            recordPeaks = new double[INITIAL_RECORD_CAPACITY];
+            recordPositions = new long[INITIAL_RECORD_CAPACITY];
+        }
+    }
+
+    /**
+     * An accumulator that can be passed to {@link #merge}
+     */
+    public static ReturnStatsAccumulator mergeable() {
+        return new ReturnStatsAccumulator(true);
+    }
+
+    public static Collector<Double, ReturnStatsAccumulator, ReturnStatsAccumulator> collector() {
+        ObjDoubleConsumer<ReturnStatsAccumulator> accept = ReturnStatsAccumulator::accept;
+        return Collector.of(ReturnStatsAccumulator::mergeable, accept::accept, ReturnStatsAccumulator::merge);
+    }
+
+    public void accept(double value) {
+        if (count > 0) {
+            addReturn(lastValue, value);
+        } else {
+            firstValue = value;
+            peak = value;
+            minValue = value;
+        }
+
+        if (count == 0 || value >= peak) {
+            newPeak(value, count);
+        } else if (peak > 0) {
+            maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+        }
+        minValue = Math.min(minValue, value);
+
+        lastValue = value;
+        count++;
+    }
+
+    /**
+     * Append a series that directly follows this one
+     *
+     * @throws IllegalStateException if {@code next} was not created by {@link #mergeable()}
+     */
+    public ReturnStatsAccumulator merge(ReturnStatsAccumulator next) {
+        if (next.count == 0) {
+            return this;
+        }
+        if (!next.keepRecords) {
+            throw new IllegalStateException("Only accumulators created by mergeable() can be merged in");
+        }
+        if (count == 0) {
+            copyFrom(next);
+            return this;
+        }
+
+        // Combine return moments (Chan et al.), then add the return across the boundary
+        if (next.returnCount > 0) {
+            long combined = returnCount + next.returnCount;
+            double delta = next.meanReturn - meanReturn;
+            meanReturn += delta * next.returnCount / combined;
+            m2 += next.m2 + delta * delta * returnCount * next.returnCount / combined;
+            returnCount = combined;
+        }
+        addReturn(lastValue, next.firstValue);
+
+        // The deepest fall across the boundary is from our peak to their lowest value
+        if (peak > 0) {
+            maxDrawdown = Math.max(maxDrawdown, (peak - next.minValue) / peak);
+        }
+        maxDrawdown = Math.max(maxDrawdown, next.maxDrawdown);
+        minValue = Math.min(minValue, next.minValue);
+
+        // Their new highs below our peak are still under water; the first one at or above
+        // it ends our current drawdown, and their own drawdowns count from there on
+        int k = 0;
+        while (k < next.recordCount && next.recordPeaks[k] < peak) {
+            k++;
+        }
+        for (; k < next.recordCount; k++) {
+            newPeak(next.recordPeaks[k], count + next.recordPositions[k]);
+        }
+
+        lastValue = next.lastValue;
+        count += next.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalReturn() {
+        return count > 0 ? lastValue - firstValue : 0.0;
+    }
+
+    /**
+     * Total return as a fraction of the first value, or 0 when the first value is not positive
+     */
+    public double getTotalReturnRatio() {
+        return count > 0 && firstValue > 0 ? (lastValue - firstValue) / firstValue : 0.0;
+    }
+
+    public double getMeanReturn() {
+        return meanReturn;
+    }
+
+    /**
+     * Annualized sample standard deviation of period returns
+     */
+    public double getAnnualizedVolatility() {
+        if (returnCount < 2) {
+            return 0.0;
+        }
+        return Math.sqrt(m2 / (returnCount - 1)) * Math.sqrt(PERIODS_PER_YEAR);
+    }
+
+    /**
+     * Annualized excess return over the risk-free rate per unit of annualized volatility
+     */
+    public double getSharpeRatio(double annualRiskFreeRate) {
+        double volatility = getAnnualizedVolatility();
+        if (volatility == 0.0) {
+            return 0.0;
+        }
+        return (meanReturn * PERIODS_PER_YEAR - annualRiskFreeRate) / volatility;
+    }
+
+    /**
+     * Largest peak-to-trough decline as a fraction of the peak
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Longest run of periods spent below a previous peak
+     */
+    public long getMaxDrawdownDuration() {
+        return count > 0 ? Math.max(maxClosedDuration, count - lastPeakPosition - 1) : 0;
+    }
+
+    private void newPeak(double value, long position) {
+        if (position > 0) {
+            maxClosedDuration = Math.max(maxClosedDuration, position - lastPeakPosition - 1);
+        }
+        peak = value;
+        lastPeakPosition = position;
+        if (keepRecords) {
+            addRecord(value, position);
+        }
+    }
+
+    private void addReturn(double previous, double current) {
+        if (previous <= 0) {
+            return;
+        }
+        double periodReturn = (current - previous) / previous;
+        returnCount++;
+        double delta = periodReturn - meanReturn;
+        meanReturn += delta / returnCount;
+        m2 += delta * (periodReturn - meanReturn);
+    }
+
+    private void addRecord(double value, long position) {
+        if (recordCount == recordPeaks.length) {
+            int capacity = recordCount * 2;
+            recordPeaks = Arrays.copyOf(recordPeaks, capacity);
+            recordPositions = Arrays.copyOf(recordPositions, capacity);
+        }
+        recordPeaks[recordCount] = value;
+        recordPositions[recordCount] = position;
+        recordCount++;
+    }
+
+    private void copyFrom(ReturnStatsAccumulator other) {
+        count = other.count;
+        firstValue = other.firstValue;
+        lastValue = other.lastValue;
+        returnCount = other.returnCount;
+        meanReturn = other.meanReturn;
+        m2 = other.m2;
+        peak = other.peak;
+        minValue = other.minValue;
+        maxDrawdown = other.maxDrawdown;
+        lastPeakPosition = other.lastPeakPosition;
+        maxClosedDuration = other.maxClosedDuration;
+        if (keepRecords) {
+            recordPeaks = other.recordPeaks.clone();
+            recordPositions = other.recordPositions.clone();
+            recordCount = other.recordCount;
+        }
+    }
+}
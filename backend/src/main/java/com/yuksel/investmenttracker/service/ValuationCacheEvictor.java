@@ -0,0 +1,82 @@
+package com.yuksel.investmenttracker.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops cached valuations of the users holding an asset when its price moves. Keys of the
+ * per-user caches are the userId, optionally followed by "_" and a parameter (period,
+ * limit), so one pass over each bounded cache removes every variant for those users and
+ * leaves everyone else's entries warm. Every cache manager is searched, since the
+ * valuation caches are split between the plain and the refresh-ahead managers.
+ *
+ * <p>Entries are removed rather than refreshed: a price sweep ticks every held asset, so
+ * a user holding several of them would otherwise be recomputed once per asset, whether
+ * or not they read again. Removed entries are computed once, on the next read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ValuationCacheEvictor {
+
+    static final List<String> VALUATION_CACHES = List.of(
+            "portfolio-summary", "asset-allocation", "top-movers", "portfolio-history", "portfolio-analytics");
+
+    private final AssetHoldersIndex assetHoldersIndex;
+    private final List<CacheManager> cacheManagers;
+
+    public void evictHoldersOf(String assetId) {
+        Set<String> holders = assetHoldersIndex.getHolders(assetId);
+        if (holders.isEmpty()) {
+            return;
+        }
+        evict(holders);
+        log.debug("Evicted cached valuations of {} holders of asset {}", holders.size(), assetId);
+    }
+
+    public void evictUser(String userId) {
+        evict(Set.of(userId));
+    }
+
+    private void evict(Set<String> userIds) {
+        for (CacheManager cacheManager : cacheManagers) {
+            for (String cacheName : VALUATION_CACHES) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache == null) {
+                    continue;
+                }
+                Map<Object, ?> entries = entriesOf(cache.getNativeCache());
+                if (entries != null) {
+                    entries.keySet().removeIf(key -> userIds.contains(userIdOf(key)));
+                } else {
+                    userIds.forEach(cache::evict);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, ?> entriesOf(Object nativeCache) {
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+            return (Map<Object, ?>) cache.asMap();
+        }
+        if (nativeCache instanceof AsyncCache<?, ?> cache) {
+            return (Map<Object, ?>) cache.synchronous().asMap();
+        }
+        return null;
+    }
+
+    private static String userIdOf(Object key) {
+        String value = key.toString();
+        int separator = value.indexOf('_');
+        return separator < 0 ? value : value.substring(0, separator);
+    }
+}
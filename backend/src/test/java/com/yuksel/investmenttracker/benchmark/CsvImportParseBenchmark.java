@@ -0,0 +1,134 @@
+package com.yuksel.investmenttracker.benchmark;
+
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.service.AcquisitionBatchWriter;
+import com.yuksel.investmenttracker.service.AssetDictionary;
+import com.yuksel.investmenttracker.service.ImportService;
+import com.yuksel.investmenttracker.service.ValuationCacheEvictor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Parse stage of a 1M-row import: the sequential reader path, then the spooled-file path
+ * on parse pools of 1 to 8 threads (a pool of 1 streams the file the same way as the
+ * reader path). Lots are counted by a stub writer, so the numbers are
+ * CSV and row parsing only. Pool sizes above the machine's core count are reported but
+ * cannot scale; the speedup check covers the sizes the machine can actually run.
+ * Run with {@code ./gradlew :backend:benchmark}.
+ */
+@Tag("benchmark")
+class CsvImportParseBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int ROUNDS = 3;
+    private static final int[] POOL_SIZES = {1, 2, 4, 8};
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "GOOG", "AMZN", "THYAO", "GARAN", "BTC", "XAU"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importRows_ParallelParseShouldMatchSequentialAndScaleWithCores() throws Exception {
+        Path file = writeFile(dir.resolve("acquisitions.csv"));
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("File: %,d rows, %,d bytes, %d cores available%n", ROWS, Files.size(file), cores);
+
+        AtomicLong rows = new AtomicLong();
+        AcquisitionBatchWriter writer = mock(AcquisitionBatchWriter.class, withSettings().stubOnly());
+        when(writer.write(anyString(), anyList(), any())).thenAnswer(invocation -> {
+            List<?> chunk = invocation.getArgument(1);
+            rows.addAndGet(chunk.size());
+            return new AcquisitionBatchWriter.ChunkResult(chunk.size(), Map.of(), null);
+        });
+
+        long sequentialNanos = Long.MAX_VALUE;
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        try {
+            ImportService importService = importService(writer, sequentialPool);
+            for (int round = 0; round <= ROUNDS; round++) {
+                rows.set(0);
+                long start = System.nanoTime();
+                try (Reader source = Files.newBufferedReader(file)) {
+                    importService.importRows("user-1", source, 0, AcquisitionBatchWriter.RANDOM_LOT_IDS, outcome -> true);
+                }
+                long elapsed = System.nanoTime() - start;
+                if (round > 0) {
+                    sequentialNanos = Math.min(sequentialNanos, elapsed);
+                }
+                assertThat(rows.get()).isEqualTo(ROWS);
+            }
+        } finally {
+            sequentialPool.shutdown();
+        }
+        System.out.printf("Sequential reader : %,6d ms  %,10d rows/s%n",
+                sequentialNanos / 1_000_000, ROWS * 1_000_000_000L / sequentialNanos);
+
+        long singleThreadNanos = 0;
+        for (int poolSize : POOL_SIZES) {
+            long best = Long.MAX_VALUE;
+            ForkJoinPool pool = new ForkJoinPool(poolSize);
+            try {
+                ImportService importService = importService(writer, pool);
+                for (int round = 0; round <= ROUNDS; round++) {
+                    rows.set(0);
+                    long start = System.nanoTime();
+                    importService.importRows("user-1", file, 0, AcquisitionBatchWriter.RANDOM_LOT_IDS, outcome -> true);
+                    long elapsed = System.nanoTime() - start;
+                    if (round > 0) {
+                        best = Math.min(best, elapsed);
+                    }
+                    assertThat(rows.get()).isEqualTo(ROWS);
+                }
+            } finally {
+                pool.shutdown();
+            }
+            if (poolSize == 1) {
+                singleThreadNanos = best;
+            }
+            double speedup = (double) singleThreadNanos / best;
+            System.out.printf("Parallel, %d thread%s: %,6d ms  %,10d rows/s  %.2fx%n", poolSize,
+                    poolSize == 1 ? " " : "s", best / 1_000_000, ROWS * 1_000_000_000L / best, speedup);
+
+            if (poolSize > 1 && poolSize <= cores) {
+                assertThat(speedup).isGreaterThan(poolSize * 0.6);
+            }
+        }
+    }
+
+    private static ImportService importService(AcquisitionBatchWriter writer, ForkJoinPool pool) {
+        return new ImportService(writer, mock(AssetDictionary.class), mock(AcquisitionLotRepository.class),
+                mock(PortfolioDailyValueRepository.class), mock(ValuationCacheEvictor.class), pool);
+    }
+
+    private static Path writeFile(Path file) throws Exception {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("Symbol,Name,Asset Type,Quantity,Unit Price,Currency,Fee,Acquisition Date,Notes,Tags\n");
+            for (int i = 0; i < ROWS; i++) {
+                String symbol = SYMBOLS[i % SYMBOLS.length];
+                out.write(symbol + "," + symbol + " Holding,EQUITY," + (1 + i % 250) + ".125," + (10 + i % 990) + ".4321,USD,"
+                        + (i % 10) + ".99,20" + (10 + i % 14) + "-0" + (1 + i % 9) + "-1" + (i % 10) + ","
+                        + (i % 5 == 0 ? "\"monthly plan,\nsecond line\"" : "") + ",\"tech,long-term\"\n");
+            }
+        }
+        return file;
+    }
+}
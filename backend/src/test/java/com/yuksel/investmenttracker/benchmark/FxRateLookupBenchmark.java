@@ -0,0 +1,97 @@
+package com.yuksel.investmenttracker.benchmark;
+
+import com.yuksel.investmenttracker.domain.money.FxTimeSeries;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Point-in-time rate lookups over 10 years of daily closes for 30 pairs, in
+ * {@link FxTimeSeries} and in a boxed {@code TreeMap.floorEntry} baseline.
+ * Run with {@code ./gradlew :backend:benchmark}.
+ */
+@Tag("benchmark")
+class FxRateLookupBenchmark {
+
+    private static final int PAIRS = 30;
+    private static final int DAYS = 3_650;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int ROUNDS = 10;
+    private static final long DAY = 86_400;
+    private static final long START = 1_420_070_400L; // 2015-01-01T00:00:00Z
+
+    @Test
+    void rateAt_FxTimeSeriesShouldMatchTreeMapAndBeFaster() {
+        Random random = new Random(42);
+        FxTimeSeries[] series = new FxTimeSeries[PAIRS];
+        List<TreeMap<Long, Long>> trees = new ArrayList<>(PAIRS);
+        for (int pair = 0; pair < PAIRS; pair++) {
+            series[pair] = new FxTimeSeries();
+            trees.add(new TreeMap<>());
+            long rate = 100_000_000L + random.nextInt(100_000_000);
+            for (int day = 0; day < DAYS; day++) {
+                long time = START + day * DAY + 17 * 3_600;
+                rate += random.nextInt(2_000_001) - 1_000_000;
+                series[pair].put(time, rate);
+                trees.get(pair).put(time, rate);
+            }
+        }
+
+        int[] pairs = new int[LOOKUPS];
+        long[] times = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            pairs[i] = random.nextInt(PAIRS);
+            times[i] = START + (long) (random.nextDouble() * DAYS * DAY);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            lookupSeries(series, pairs, times);
+            lookupTrees(trees, pairs, times);
+        }
+
+        long seriesNanos = 0;
+        long treeNanos = 0;
+        long seriesChecksum = 0;
+        long treeChecksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            seriesChecksum = lookupSeries(series, pairs, times);
+            seriesNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            treeChecksum = lookupTrees(trees, pairs, times);
+            treeNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("FxTimeSeries    : %,d ns/lookup%n", seriesNanos / ROUNDS / LOOKUPS);
+        System.out.printf("TreeMap baseline: %,d ns/lookup%n", treeNanos / ROUNDS / LOOKUPS);
+
+        assertThat(seriesChecksum).isEqualTo(treeChecksum);
+        assertThat(seriesNanos).isLessThan(treeNanos);
+    }
+
+    private long lookupSeries(FxTimeSeries[] series, int[] pairs, long[] times) {
+        long checksum = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            long rate = series[pairs[i]].rateAt(times[i]);
+            checksum += rate == FxTimeSeries.NO_RATE ? -1 : rate;
+        }
+        return checksum;
+    }
+
+    private long lookupTrees(List<TreeMap<Long, Long>> trees, int[] pairs, long[] times) {
+        long checksum = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            Map.Entry<Long, Long> entry = trees.get(pairs[i]).floorEntry(times[i]);
+            checksum += entry == null ? -1 : entry.getValue();
+        }
+        return checksum;
+    }
+}
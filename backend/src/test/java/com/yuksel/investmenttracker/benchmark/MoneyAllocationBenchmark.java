@@ -0,0 +1,98 @@
+package com.yuksel.investmenttracker.benchmark;
+
+import com.yuksel.investmenttracker.domain.money.Money;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the valuation inner loop (sum of quantity x price) in BigDecimal and in
+ * fixed-point units. Run with {@code ./gradlew :backend:benchmark}.
+ */
+@Tag("benchmark")
+class MoneyAllocationBenchmark {
+
+    private static final int POSITIONS = 100_000;
+    private static final int ROUNDS = 20;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void valuationLoop_FixedPointShouldAllocateLessThanBigDecimal() {
+        Random random = new Random(42);
+        BigDecimal[] quantities = new BigDecimal[POSITIONS];
+        BigDecimal[] prices = new BigDecimal[POSITIONS];
+        long[] quantityUnits = new long[POSITIONS];
+        long[] priceUnits = new long[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            quantities[i] = BigDecimal.valueOf(random.nextInt(1_000_000), 4);
+            prices[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 3);
+            quantityUnits[i] = Quantity.unitsOf(quantities[i]);
+            priceUnits[i] = Money.unitsOf(prices[i]);
+        }
+
+        // Warm up both paths so the JIT has compiled them before measuring
+        for (int i = 0; i < 5; i++) {
+            sumBigDecimal(quantities, prices);
+            sumFixedPoint(quantityUnits, priceUnits);
+        }
+
+        long bigDecimalBytes = 0;
+        long bigDecimalNanos = 0;
+        long fixedPointBytes = 0;
+        long fixedPointNanos = 0;
+        BigDecimal bigDecimalTotal = BigDecimal.ZERO;
+        long fixedPointTotal = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            bigDecimalTotal = sumBigDecimal(quantities, prices);
+            bigDecimalNanos += System.nanoTime() - start;
+            bigDecimalBytes += allocatedBytes() - bytes;
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            fixedPointTotal = sumFixedPoint(quantityUnits, priceUnits);
+            fixedPointNanos += System.nanoTime() - start;
+            fixedPointBytes += allocatedBytes() - bytes;
+        }
+
+        System.out.printf("BigDecimal : %,d bytes/round, %,d us/round%n",
+                bigDecimalBytes / ROUNDS, bigDecimalNanos / ROUNDS / 1_000);
+        System.out.printf("Fixed-point: %,d bytes/round, %,d us/round%n",
+                fixedPointBytes / ROUNDS, fixedPointNanos / ROUNDS / 1_000);
+
+        // Each product is rounded to 4 decimals, so the totals agree within half a unit per position
+        BigDecimal tolerance = BigDecimal.valueOf(POSITIONS).multiply(new BigDecimal("0.00005"));
+        assertThat(Money.toBigDecimal(fixedPointTotal).subtract(bigDecimalTotal).abs()).isLessThanOrEqualTo(tolerance);
+        assertThat(fixedPointBytes).isLessThan(bigDecimalBytes / 10);
+    }
+
+    private BigDecimal sumBigDecimal(BigDecimal[] quantities, BigDecimal[] prices) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < quantities.length; i++) {
+            total = total.add(quantities[i].multiply(prices[i]));
+        }
+        return total;
+    }
+
+    private long sumFixedPoint(long[] quantityUnits, long[] priceUnits) {
+        long total = 0;
+        for (int i = 0; i < quantityUnits.length; i++) {
+            total += Money.multiply(priceUnits[i], quantityUnits[i]);
+        }
+        return total;
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,128 @@
+package com.yuksel.investmenttracker.benchmark;
+
+import com.yuksel.investmenttracker.domain.entity.AuthToken;
+import com.yuksel.investmenttracker.domain.entity.User;
+import com.yuksel.investmenttracker.repository.AuthTokenRepository;
+import com.yuksel.investmenttracker.repository.PasswordResetTokenRepository;
+import com.yuksel.investmenttracker.repository.UserRepository;
+import com.yuksel.investmenttracker.security.AccessTokenRevocations;
+import com.yuksel.investmenttracker.security.CustomUserDetailsService;
+import com.yuksel.investmenttracker.security.JwtTokenProvider;
+import com.yuksel.investmenttracker.security.RefreshToken;
+import com.yuksel.investmenttracker.service.AuthService;
+import com.yuksel.investmenttracker.service.EmailService;
+import com.yuksel.investmenttracker.service.OAuthService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Refresh latency with 1M stored sessions. The selector index is stood in for by a hash
+ * map behind the repository, so the numbers cover the lookup, verifier check, rotation
+ * and new access token. The previous full scan ran the password encoder once per stored
+ * session; it is projected from the measured cost of one match rather than run.
+ * Run with {@code ./gradlew :backend:benchmark}.
+ */
+@Tag("benchmark")
+class RefreshTokenLookupBenchmark {
+
+    private static final int SESSIONS = 1_000_000;
+    private static final int USERS = 250_000;
+    private static final int REFRESHES = 20_000;
+    private static final int ENCODER_MATCHES = 10;
+
+    @Test
+    void refreshToken_SelectorLookupShouldNotDependOnStoredSessions() {
+        LocalDateTime createdAt = LocalDateTime.now();
+        LocalDateTime expiresAt = createdAt.plusDays(7);
+        Map<String, AuthToken> bySelector = new HashMap<>(SESSIONS * 2);
+        String[] issued = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            RefreshToken token = RefreshToken.generate();
+            AuthToken stored = new AuthToken();
+            stored.setUserId("user-" + (i % USERS));
+            stored.setSelector(token.selector());
+            stored.setRefreshTokenHash(token.verifierHash());
+            stored.setExpiresAt(expiresAt);
+            stored.setCreatedAt(createdAt);
+            bySelector.put(token.selector(), stored);
+            issued[i] = token.value();
+        }
+
+        AuthTokenRepository authTokenRepository = mock(AuthTokenRepository.class, withSettings().stubOnly());
+        when(authTokenRepository.findBySelectorAndExpiresAtAfter(anyString(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(1);
+            return Optional.ofNullable(bySelector.get(invocation.<String>getArgument(0)))
+                    .filter(stored -> stored.getExpiresAt().isAfter(now));
+        });
+        doAnswer(invocation -> bySelector.remove(invocation.<AuthToken>getArgument(0).getSelector()))
+                .when(authTokenRepository).delete(any(AuthToken.class));
+        when(authTokenRepository.save(any(AuthToken.class))).thenAnswer(invocation -> {
+            AuthToken stored = invocation.getArgument(0);
+            bySelector.put(stored.getSelector(), stored);
+            return stored;
+        });
+
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findById(anyString())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(invocation.getArgument(0));
+            user.setProviders(new ArrayList<>());
+            return Optional.of(user);
+        });
+
+        PasswordEncoder passwordEncoder = Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+        AuthService authService = new AuthService(mock(AuthenticationManager.class), userRepository,
+                authTokenRepository, mock(PasswordResetTokenRepository.class), passwordEncoder,
+                new JwtTokenProvider("benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret", 86_400_000, 604_800_000),
+                mock(OAuthService.class), mock(EmailService.class), mock(CustomUserDetailsService.class),
+                mock(AccessTokenRevocations.class));
+
+        Random random = new Random(42);
+        for (int i = 0; i < REFRESHES; i++) {
+            refresh(authService, issued, random.nextInt(SESSIONS));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REFRESHES; i++) {
+            refresh(authService, issued, random.nextInt(SESSIONS));
+        }
+        long refreshNanos = (System.nanoTime() - start) / REFRESHES;
+
+        String legacyHash = passwordEncoder.encode("legacy-refresh-jwt");
+        start = System.nanoTime();
+        for (int i = 0; i < ENCODER_MATCHES; i++) {
+            passwordEncoder.matches("other-refresh-jwt", legacyHash);
+        }
+        long matchNanos = (System.nanoTime() - start) / ENCODER_MATCHES;
+        long projectedScanMillis = matchNanos * SESSIONS / 1_000_000;
+
+        System.out.printf("Stored sessions      : %,d%n", bySelector.size());
+        System.out.printf("Selector refresh     : %,d ns/refresh%n", refreshNanos);
+        System.out.printf("Encoder match        : %,d ns%n", matchNanos);
+        System.out.printf("Full scan (projected): %,d ms/refresh%n", projectedScanMillis);
+
+        assertThat(bySelector).hasSize(SESSIONS);
+        assertThat(refreshNanos).isLessThan(matchNanos);
+    }
+
+    private static void refresh(AuthService authService, String[] issued, int session) {
+        issued[session] = authService.refreshToken(issued[session]).getRefreshToken();
+    }
+}
@@ -0,0 +1,61 @@
+package com.yuksel.investmenttracker.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.yuksel.investmenttracker.dto.response.PortfolioHistoryResponse;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @Test
+    void weighedPolicy_ShouldBoundCacheByEstimatedBytesOfHistory() {
+        // Given
+        List<PortfolioHistoryResponse> fiveYears = Collections.nCopies(1826, new PortfolioHistoryResponse());
+        List<PortfolioHistoryResponse> oneMonth = Collections.nCopies(30, new PortfolioHistoryResponse());
+        int fiveYearBytes = CacheValueSizes.estimateBytes(fiveYears);
+        Cache<Object, Object> cache = CachePolicy.weighed("portfolio-history", fiveYearBytes + 10_000L,
+                CacheValueSizes::estimateBytes, Duration.ofMinutes(5)).caffeine().build();
+
+        // When
+        cache.put("user-1_1M", oneMonth);
+        cache.put("user-2_5Y", fiveYears);
+        cache.put("user-3_5Y", fiveYears);
+        cache.cleanUp();
+
+        // Then
+        assertThat(fiveYearBytes).isGreaterThan(300_000);
+        assertThat(cache.policy().eviction().orElseThrow().weightedSize().orElseThrow())
+                .isLessThanOrEqualTo(fiveYearBytes + 10_000L);
+        assertThat(cache.stats().evictionCount()).isPositive();
+    }
+
+    @Test
+    void refreshAheadCaches_ShouldReportHitsAndMissesToMeterRegistry() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RefreshAheadCache cache = new RefreshAheadCache(
+                cacheConfig.cachePolicyRegistry().get("portfolio-summary"), Runnable::run);
+        cacheConfig.refreshAheadCacheMeterBinderProvider()
+                .getMeterBinder(cache, Tags.of("cache.manager", "refreshAhead"))
+                .bindTo(meterRegistry);
+
+        // When
+        cache.get("user-1", () -> "summary");
+        cache.get("user-1", () -> "summary");
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "portfolio-summary", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "portfolio-summary", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
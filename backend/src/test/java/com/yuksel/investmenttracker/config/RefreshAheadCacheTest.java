@@ -0,0 +1,152 @@
+package com.yuksel.investmenttracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshAheadCacheTest {
+
+    private static final int CALLERS = 200;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(4);
+    private final RefreshAheadCache cache = new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder()
+            .ticker(nanos::get)
+            .refreshAfterWrite(Duration.ofMinutes(5)), refreshExecutor);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void get_ConcurrentColdMisses_ShouldComputeOnce() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        List<String> values = getConcurrently(() -> {
+            loads.incrementAndGet();
+            Thread.sleep(50);
+            return "v1";
+        });
+
+        // Then
+        assertThat(values).hasSize(CALLERS).containsOnly("v1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_ConcurrentReadsOfStaleKey_ShouldServeStaleValueAndRefreshOnce() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        cache.get("user-1", () -> {
+            int load = loads.incrementAndGet();
+            if (load > 1) {
+                refreshStarted.countDown();
+                releaseRefresh.await();
+            }
+            return "v" + load;
+        });
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+
+        // When
+        List<String> values = getConcurrently(() -> "unused");
+
+        // Then
+        assertThat(values).containsOnly("v1");
+        assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        releaseRefresh.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"v2".equals(cache.get("user-1", () -> "unused")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("user-1", () -> "unused")).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void put_ShouldReplaceValueAndKeepLoaderForRefresh() {
+        // Given
+        RefreshAheadCache direct = new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder(), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        direct.get("user-1", () -> "v" + loads.incrementAndGet());
+
+        // When
+        direct.put("user-1", "manual");
+
+        // Then
+        assertThat(direct.get("user-1").get()).isEqualTo("manual");
+        direct.getNativeCache().synchronous().refresh("user-1");
+        assertThat(direct.get("user-1").get()).isEqualTo("v2");
+    }
+
+    @Test
+    void putIfAbsent_ShouldOnlyStoreMissingKey() {
+        // Given
+        RefreshAheadCache direct = new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder(), Runnable::run);
+
+        // When
+        Cache.ValueWrapper first = direct.putIfAbsent("user-1", "a");
+        Cache.ValueWrapper second = direct.putIfAbsent("user-1", "b");
+
+        // Then
+        assertThat(first).isNull();
+        assertThat(second.get()).isEqualTo("a");
+        assertThat(direct.get("user-1").get()).isEqualTo("a");
+    }
+
+    @Test
+    void refresh_EntryWithoutLoader_ShouldDropItUntilNextGet() {
+        // Given
+        RefreshAheadCache direct = new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder(), Runnable::run);
+        direct.put("user-1", "manual");
+
+        // When
+        direct.getNativeCache().synchronous().refresh("user-1");
+        direct.getNativeCache().synchronous().refresh("user-2");
+
+        // Then
+        assertThat(direct.get("user-1")).isNull();
+        assertThat(direct.get("user-2")).isNull();
+        assertThat(direct.get("user-1", () -> "v1")).isEqualTo("v1");
+    }
+
+    private List<String> getConcurrently(Callable<String> loader) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return cache.get("user-1", loader);
+            }));
+        }
+        start.countDown();
+
+        List<String> values = new ArrayList<>();
+        for (Future<String> future : futures) {
+            values.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return values;
+    }
+}
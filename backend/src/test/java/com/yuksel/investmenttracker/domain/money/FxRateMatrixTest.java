@@ -0,0 +1,39 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import com.yuksel.investmenttracker.domain.enums.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FxRateMatrixTest {
+
+    private final FxRateMatrix matrix = FxRateMatrix.of(Map.of(
+            CurrencyCode.USD, new BigDecimal("32"),
+            CurrencyCode.EUR, new BigDecimal("34.56")));
+
+    @Test
+    void of_ShouldPrecomputeInverseAndCrossRates() {
+        assertThat(matrix.rate(CurrencyCode.USD, CurrencyCode.TRY)).isEqualByComparingTo("32");
+        assertThat(matrix.rate(CurrencyCode.TRY, CurrencyCode.USD)).isEqualByComparingTo("0.03125");
+        assertThat(matrix.rate(CurrencyCode.EUR, CurrencyCode.USD)).isEqualByComparingTo("1.08");
+        assertThat(matrix.rate(CurrencyCode.GBP, CurrencyCode.GBP)).isEqualByComparingTo("1");
+        assertThat(matrix.rate(CurrencyCode.GBP, CurrencyCode.TRY)).isNull();
+        assertThat(matrix.hasRate(CurrencyCode.GBP)).isFalse();
+    }
+
+    @Test
+    void withRate_CrossPair_ShouldAnchorOnKnownSideAndLeaveOriginalUntouched() {
+        // When
+        FxRateMatrix updated = matrix.withRate(CurrencyCode.GBP, CurrencyCode.USD, new BigDecimal("1.25"));
+
+        // Then
+        assertThat(updated.rate(CurrencyCode.GBP, CurrencyCode.TRY)).isEqualByComparingTo("40");
+        assertThat(updated.rate(CurrencyCode.GBP, CurrencyCode.EUR)).isEqualByComparingTo(
+                new BigDecimal("40").divide(new BigDecimal("34.56"), Quantity.SCALE, RoundingMode.HALF_UP));
+        assertThat(matrix.hasRate(CurrencyCode.GBP)).isFalse();
+    }
+}
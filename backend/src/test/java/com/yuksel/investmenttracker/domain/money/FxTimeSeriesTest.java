@@ -0,0 +1,67 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FxTimeSeriesTest {
+
+    private static final long DAY = 86_400;
+
+    @Test
+    void rateAt_ShouldReturnLatestObservationAtOrBefore() {
+        // Given
+        FxTimeSeries series = new FxTimeSeries();
+        series.put(100, 10);
+        series.put(200, 20);
+        series.put(300, 30);
+
+        // Then
+        assertThat(series.rateAt(99)).isEqualTo(FxTimeSeries.NO_RATE);
+        assertThat(series.rateAt(100)).isEqualTo(10);
+        assertThat(series.rateAt(250)).isEqualTo(20);
+        assertThat(series.rateAt(1_000)).isEqualTo(30);
+        assertThat(series.latest()).isEqualTo(30);
+    }
+
+    @Test
+    void put_OutOfOrderOrRepeated_ShouldKeepSeriesSorted() {
+        // Given
+        FxTimeSeries series = new FxTimeSeries();
+        for (int i = 0; i < 40; i += 2) {
+            series.put(i * 10L, i);
+        }
+
+        // When
+        series.put(150, 15);
+        series.put(100, 99);
+
+        // Then
+        assertThat(series.size()).isEqualTo(21);
+        assertThat(series.rateAt(155)).isEqualTo(15);
+        assertThat(series.rateAt(100)).isEqualTo(99);
+        assertThat(series.rateAt(160)).isEqualTo(16);
+    }
+
+    @Test
+    void compactBefore_ShouldKeepLastObservationOfEachDay() {
+        // Given
+        FxTimeSeries series = new FxTimeSeries();
+        series.put(DAY + 60, 1);
+        series.put(DAY + 120, 2);
+        series.put(2 * DAY + 60, 3);
+        series.put(2 * DAY + 120, 4);
+        series.put(3 * DAY + 60, 5);
+        series.put(3 * DAY + 120, 6);
+
+        // When
+        int dropped = series.compactBefore(3 * DAY);
+
+        // Then
+        assertThat(dropped).isEqualTo(2);
+        assertThat(series.size()).isEqualTo(4);
+        assertThat(series.rateAt(DAY + 100)).isEqualTo(FxTimeSeries.NO_RATE);
+        assertThat(series.rateAt(2 * DAY)).isEqualTo(2);
+        assertThat(series.rateAt(3 * DAY + 90)).isEqualTo(5);
+    }
+}
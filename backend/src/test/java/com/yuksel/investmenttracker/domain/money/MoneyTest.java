@@ -0,0 +1,74 @@
+package com.yuksel.investmenttracker.domain.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoneyTest {
+
+    @Test
+    void of_ShouldRoundHalfUpToFourDecimals() {
+        assertThat(Money.of(new BigDecimal("1.00005")).units()).isEqualTo(10_001);
+        assertThat(Money.of(new BigDecimal("1.00004")).units()).isEqualTo(10_000);
+        assertThat(Money.of(new BigDecimal("-1.00005")).units()).isEqualTo(-10_001);
+    }
+
+    @Test
+    void times_ShouldMatchBigDecimalProduct() {
+        // Given
+        Money price = Money.of(new BigDecimal("110.0"));
+        Quantity quantity = Quantity.of(new BigDecimal("10"));
+
+        // When
+        Money value = price.times(quantity);
+
+        // Then
+        assertThat(value.toBigDecimal()).isEqualByComparingTo("1100");
+        assertThat(Money.of(new BigDecimal("0.3333")).times(Quantity.of(new BigDecimal("0.5"))).toBigDecimal())
+                .isEqualByComparingTo("0.1667");
+    }
+
+    @Test
+    void multiply_ShouldNotOverflowOnLargeIntermediateProducts() {
+        // 1,000,000,000.0000 x 50,000.00000000 exceeds 64 bits before rescaling
+        long value = Money.multiply(Money.unitsOf(new BigDecimal("1000000000")), Quantity.unitsOf(new BigDecimal("50000")));
+
+        assertThat(Money.toBigDecimal(value)).isEqualByComparingTo("50000000000000");
+    }
+
+    @Test
+    void multiplyPrice_SubBasisPointPriceTimesLargeQuantity_ShouldRoundOnlyTheProduct() {
+        // 0.00667 would round to 0.0067 as an amount, overstating the value by 30.0000
+        long price = Quantity.unitsOf(new BigDecimal("0.00667"));
+        long quantity = Quantity.unitsOf(new BigDecimal("1000000"));
+
+        assertThat(Money.toBigDecimal(Money.multiplyPrice(price, quantity))).isEqualByComparingTo("6670");
+        assertThat(Money.toBigDecimal(Money.multiplyPrice(Quantity.unitsOf(new BigDecimal("0.00000003")),
+                Quantity.unitsOf(new BigDecimal("5"))))).isEqualByComparingTo("0.0000");
+        assertThat(Money.toBigDecimal(Money.multiplyPrice(Quantity.unitsOf(new BigDecimal("12345.67891234")),
+                Quantity.unitsOf(new BigDecimal("98765.4321")))))
+                .isEqualByComparingTo(new BigDecimal("12345.67891234").multiply(new BigDecimal("98765.4321"))
+                        .setScale(Money.SCALE, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void percent_ShouldRoundLikeBigDecimalDivide() {
+        assertThat(Money.percent(Money.unitsOf(BigDecimal.valueOf(95)), Money.unitsOf(BigDecimal.valueOf(1005))))
+                .isEqualTo(new BigDecimal("9.45"));
+        assertThat(Money.percent(Money.unitsOf(BigDecimal.valueOf(-1)), Money.unitsOf(BigDecimal.valueOf(3))))
+                .isEqualTo(new BigDecimal("-33.33"));
+        assertThat(Money.percent(Money.unitsOf(BigDecimal.valueOf(1)), Money.unitsOf(BigDecimal.valueOf(8))))
+                .isEqualTo(new BigDecimal("12.50"));
+    }
+
+    @Test
+    void divideHalfUp_ShouldRoundTiesAwayFromZero() {
+        assertThat(FixedPoint.divideHalfUp(15, 10)).isEqualTo(2);
+        assertThat(FixedPoint.divideHalfUp(-15, 10)).isEqualTo(-2);
+        assertThat(FixedPoint.divideHalfUp(14, 10)).isEqualTo(1);
+        assertThat(FixedPoint.divideHalfUp(-14, 10)).isEqualTo(-1);
+    }
+}
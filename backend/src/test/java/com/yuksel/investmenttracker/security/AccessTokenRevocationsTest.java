@@ -0,0 +1,108 @@
+package com.yuksel.investmenttracker.security;
+
+import com.yuksel.investmenttracker.domain.entity.TokenRevocation;
+import com.yuksel.investmenttracker.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenRevocationsTest {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private AccessTokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new AccessTokenRevocations(tokenRevocationRepository, DAY_MS);
+        lenient().when(tokenRevocationRepository.save(any(TokenRevocation.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void revokeToken_ShouldRevokeOnlyThatTokenUntilItExpires() {
+        // Given
+        long issuedAt = nowSeconds() - 60;
+
+        // When
+        revocations.revokeToken("jti-1", "user-1", new Date(System.currentTimeMillis() + DAY_MS));
+        revocations.revokeToken("jti-2", "user-1", new Date(System.currentTimeMillis() - 1_000));
+
+        // Then
+        assertThat(revocations.isRevoked("jti-1", "user-1", issuedAt)).isTrue();
+        assertThat(revocations.isRevoked("jti-2", "user-1", issuedAt)).isFalse();
+        assertThat(revocations.isRevoked("jti-3", "user-1", issuedAt)).isFalse();
+        verify(tokenRevocationRepository, times(2)).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void revokeUser_ShouldRevokeTokensIssuedBeforeButNotAfter() {
+        // When
+        revocations.revokeUser("user-1");
+
+        // Then
+        assertThat(revocations.isRevoked("jti-old", "user-1", nowSeconds() - 60)).isTrue();
+        assertThat(revocations.isRevoked("jti-new", "user-1", nowSeconds() + 1)).isFalse();
+        assertThat(revocations.isRevoked("jti-other", "user-2", nowSeconds() - 60)).isFalse();
+    }
+
+    @Test
+    void pollRevocations_ShouldApplyRevocationsWrittenByOtherNodes() {
+        // Given
+        TokenRevocation remote = new TokenRevocation();
+        remote.setTokenId("jti-remote");
+        remote.setUserId("user-9");
+        remote.setRevokedAt(LocalDateTime.now());
+        remote.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(tokenRevocationRepository.findByRevokedAtAfter(any(LocalDateTime.class))).thenReturn(List.of(remote));
+
+        // When
+        revocations.pollRevocations();
+
+        // Then
+        assertThat(revocations.isRevoked("jti-remote", "user-9", nowSeconds())).isTrue();
+        verify(tokenRevocationRepository, never()).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void purgeExpired_ShouldDropExpiredEntriesAndKeepLiveOnes() {
+        // Given
+        TokenRevocation expiredUser = new TokenRevocation();
+        expiredUser.setUserId("user-expired");
+        expiredUser.setRevokedAt(LocalDateTime.now().minusDays(2));
+        expiredUser.setExpiresAt(LocalDateTime.now().minusDays(1));
+        when(tokenRevocationRepository.findByRevokedAtAfter(any(LocalDateTime.class))).thenReturn(List.of(expiredUser));
+        revocations.pollRevocations();
+        Date expiresAt = new Date(System.currentTimeMillis() + DAY_MS);
+        for (int i = 0; i < 5_000; i++) {
+            revocations.revokeToken("jti-" + i, "user-1", expiresAt);
+        }
+
+        // When
+        revocations.purgeExpired();
+
+        // Then
+        assertThat(revocations.size()).isEqualTo(5_000);
+        assertThat(revocations.isRevoked("jti-4999", "user-1", nowSeconds())).isTrue();
+        assertThat(revocations.isRevoked("jti-5000", "user-1", nowSeconds())).isFalse();
+    }
+
+    private static long nowSeconds() {
+        return LocalDateTime.now().atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,99 @@
+package com.yuksel.investmenttracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("PasswordHashing-");
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void matches_ShouldHashOnPoolThreadAndRecordLatency() {
+        // Given
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new RecordingEncoder(null), executor, meterRegistry);
+
+        // When
+        String encoded = encoder.encode("secret");
+        boolean matches = encoder.matches("secret", encoded);
+
+        // Then
+        assertThat(encoded).startsWith("PasswordHashing-");
+        assertThat(matches).isTrue();
+        assertThat(meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hashing").tag("operation", "matches").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hashing.queue.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void encode_PoolAndQueueFull_ShouldRejectWithoutWaiting() throws Exception {
+        // Given
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new RecordingEncoder(release), executor, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOf(PasswordHashingBusyException.class)
+                .extracting(e -> ((PasswordHashingBusyException) e).getRetryAfterSeconds())
+                .isEqualTo(BoundedPasswordEncoder.RETRY_AFTER_SECONDS);
+        assertThat(meterRegistry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hashing.queue.size").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    // Encodes to the hashing thread's name, optionally blocking until released
+    private record RecordingEncoder(CountDownLatch gate) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.endsWith(":" + rawPassword);
+        }
+    }
+}
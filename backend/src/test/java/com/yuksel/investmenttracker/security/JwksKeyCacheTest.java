@@ -0,0 +1,120 @@
+package com.yuksel.investmenttracker.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwksKeyCacheTest {
+
+    private JwksStandInServer jwksServer;
+    private final MovableClock clock = new MovableClock();
+    private JwksKeyCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jwksServer = new JwksStandInServer();
+        cache = new JwksKeyCache("Test", jwksServer.uri(), HttpClient.newHttpClient(), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwksServer.close();
+    }
+
+    @Test
+    void maxAge_ShouldHonorCacheControl() {
+        assertThat(JwksKeyCache.maxAge("public, max-age=21600, must-revalidate")).isEqualTo(Duration.ofHours(6));
+        assertThat(JwksKeyCache.maxAge("max-age=5")).isEqualTo(JwksKeyCache.MIN_REFRESH_INTERVAL);
+        assertThat(JwksKeyCache.maxAge("no-store")).isEqualTo(JwksKeyCache.MIN_REFRESH_INTERVAL);
+        assertThat(JwksKeyCache.maxAge("s-maxage=60")).isEqualTo(JwksKeyCache.DEFAULT_MAX_AGE);
+        assertThat(JwksKeyCache.maxAge(null)).isEqualTo(JwksKeyCache.DEFAULT_MAX_AGE);
+    }
+
+    @Test
+    void refreshIfStale_ShouldFetchOnlyWhenDue() {
+        // Given
+        jwksServer.publish("key-1");
+        jwksServer.setCacheControl("public, max-age=1000");
+
+        // When
+        cache.refreshIfStale();
+        cache.refreshIfStale();
+
+        // Then
+        assertThat(jwksServer.requestCount()).isEqualTo(1);
+        assertThat(cache.refreshAt()).isEqualTo(clock.instant().plusSeconds(800));
+
+        // When
+        clock.advance(Duration.ofSeconds(800));
+        cache.refreshIfStale();
+
+        // Then
+        assertThat(jwksServer.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void key_UnknownKeyId_ShouldRefreshOnceWithinInterval() {
+        // Given
+        jwksServer.publish("key-1");
+        cache.refreshIfStale();
+
+        // When / Then
+        assertThatThrownBy(() -> cache.key("made-up")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.key("made-up-too")).isInstanceOf(JwtException.class);
+        assertThat(jwksServer.requestCount()).isEqualTo(1);
+        assertThat(cache.key("key-1")).isNotNull();
+    }
+
+    @Test
+    void key_RotatedKey_ShouldFetchImmediatelyOnceIntervalHasPassed() {
+        // Given
+        jwksServer.publish("key-1");
+        cache.refreshIfStale();
+        jwksServer.publish("key-2");
+        jwksServer.unpublish("key-1");
+        clock.advance(JwksKeyCache.MIN_REFRESH_INTERVAL);
+
+        // When
+        cache.key("key-2");
+
+        // Then
+        assertThat(jwksServer.requestCount()).isEqualTo(2);
+        assertThatThrownBy(() -> cache.key("key-1")).isInstanceOf(JwtException.class);
+    }
+
+    private static final class MovableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.yuksel.investmenttracker.security;
+
+import com.yuksel.investmenttracker.domain.enums.OAuthProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret-test-secret-1234";
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private AccessTokenRevocations accessTokenRevocations;
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        tokenProvider = new JwtTokenProvider(SECRET, 60_000, 600_000);
+        filter = new JwtAuthenticationFilter(tokenProvider, customUserDetailsService, accessTokenRevocations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_TokenWithProfileClaims_ShouldAuthenticateWithoutLoadingUser() throws Exception {
+        // Given
+        UserPrincipal issuedFor = UserPrincipal.authenticated("user-1", "Test User", "user@example.com",
+                new ArrayList<>(List.of(OAuthProvider.GOOGLE)), "Europe/Istanbul", "USD");
+        String jwt = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(issuedFor, null, issuedFor.getAuthorities()));
+
+        // When
+        filter.doFilter(requestWithBearer(jwt), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(issuedFor);
+        verifyNoInteractions(customUserDetailsService);
+    }
+
+    @Test
+    void doFilter_TokenWithoutProfileClaims_ShouldFallBackToUserLoad() throws Exception {
+        // Given
+        String jwt = Jwts.builder()
+                .subject("user-1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        UserPrincipal stored = UserPrincipal.authenticated("user-1", "Test User", "user@example.com",
+                List.of(), "Europe/Istanbul", "TRY");
+        when(customUserDetailsService.loadUserById("user-1")).thenReturn(stored);
+
+        // When
+        filter.doFilter(requestWithBearer(jwt), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(stored);
+    }
+
+    @Test
+    void doFilter_RevokedToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        // Given
+        UserPrincipal issuedFor = UserPrincipal.authenticated("user-1", "Test User", "user@example.com",
+                List.of(), "Europe/Istanbul", "TRY");
+        String jwt = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(issuedFor, null, issuedFor.getAuthorities()));
+        String tokenId = tokenProvider.parseClaims(jwt).orElseThrow().getId();
+        when(accessTokenRevocations.isRevoked(eq(tokenId), eq("user-1"), anyLong())).thenReturn(true);
+
+        // When
+        filter.doFilter(requestWithBearer(jwt), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertThat(tokenId).isNotBlank();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(customUserDetailsService);
+    }
+
+    private MockHttpServletRequest requestWithBearer(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/portfolio/summary");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
@@ -0,0 +1,145 @@
+package com.yuksel.investmenttracker.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.domain.enums.AssetType;
+import com.yuksel.investmenttracker.dto.request.AcquisitionRequest;
+import com.yuksel.investmenttracker.repository.AssetRepository;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AcquisitionBatchWriterTest {
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private AssetDictionary assetDictionary;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PositionService positionService;
+
+    @Mock
+    private FxRateHistoryService fxRateHistoryService;
+
+    @Mock
+    private BulkOperations bulkOps;
+
+    private AcquisitionBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new AcquisitionBatchWriter(assetRepository, assetDictionary, mongoTemplate, positionService, fxRateHistoryService);
+        lenient().when(fxRateHistoryService.closeOn(anyString(), anyString(), any())).thenReturn(Optional.empty());
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(AcquisitionLot.class))).thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+    }
+
+    @Test
+    void write_KnownSymbols_ShouldResolveWithSingleQueryAndInsertOnce() {
+        // Given
+        when(assetRepository.findBySymbolInOrderByIdAsc(anyCollection()))
+                .thenReturn(List.of(createAsset("a1", "AAPL"), createAsset("m1", "MSFT")));
+        List<AcquisitionBatchWriter.Row> rows = List.of(
+                new AcquisitionBatchWriter.Row(2, createRequest("AAPL", "2024-01-03")),
+                new AcquisitionBatchWriter.Row(3, createRequest("MSFT", "2024-01-02")),
+                new AcquisitionBatchWriter.Row(4, createRequest("AAPL", "2024-01-04")));
+
+        // When
+        AcquisitionBatchWriter.ChunkResult result = writer.write("user-1", rows, AcquisitionBatchWriter.RANDOM_LOT_IDS);
+
+        // Then
+        assertThat(result.written()).isEqualTo(3);
+        assertThat(result.failures()).isEmpty();
+        assertThat(result.earliestAcquisitionDate()).isEqualTo(LocalDate.of(2024, 1, 2));
+        verify(assetRepository, times(1)).findBySymbolInOrderByIdAsc(argThat(symbols -> symbols.size() == 2));
+        verify(assetRepository, never()).findFirstBySymbolOrderByIdAsc(anyString());
+        verify(bulkOps, times(1)).execute();
+        verify(positionService).applyAcquisitions(argThat(lots -> lots.size() == 3));
+    }
+
+    @Test
+    void write_RejectedLot_ShouldReportItsLineAndApplyTheRest() {
+        // Given
+        when(assetRepository.findBySymbolInOrderByIdAsc(anyCollection())).thenReturn(List.of(createAsset("a1", "AAPL")));
+        BulkOperationException rejection = mock(BulkOperationException.class);
+        when(rejection.getErrors()).thenReturn(List.of(new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        when(bulkOps.execute()).thenThrow(rejection);
+        List<AcquisitionBatchWriter.Row> rows = List.of(
+                new AcquisitionBatchWriter.Row(7, createRequest("AAPL", "2024-01-03")),
+                new AcquisitionBatchWriter.Row(9, createRequest("AAPL", "2024-01-02")));
+
+        // When
+        AcquisitionBatchWriter.ChunkResult result = writer.write("user-1", rows, AcquisitionBatchWriter.RANDOM_LOT_IDS);
+
+        // Then
+        assertThat(result.written()).isEqualTo(1);
+        assertThat(result.failures()).containsOnlyKeys(9);
+        assertThat(result.earliestAcquisitionDate()).isEqualTo(LocalDate.of(2024, 1, 3));
+        verify(positionService).applyAcquisitions(argThat(lots -> lots.size() == 1));
+    }
+
+    @Test
+    void write_SymbolCreatedTwiceConcurrently_ShouldUseTheLowestId() {
+        // Given - another import inserted the same symbol alongside this one
+        BulkOperations assetBulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Asset.class)).thenReturn(assetBulkOps);
+        Asset first = createAsset("65a000000000000000000001", "NEW");
+        when(assetRepository.findBySymbolInOrderByIdAsc(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(first, createAsset("65a000000000000000000002", "NEW")));
+        List<AcquisitionBatchWriter.Row> rows = List.of(new AcquisitionBatchWriter.Row(2, createRequest("NEW", "2024-01-03")));
+
+        // When
+        writer.write("user-1", rows, AcquisitionBatchWriter.RANDOM_LOT_IDS);
+
+        // Then
+        verify(assetBulkOps).execute();
+        verify(assetDictionary).put(first);
+        verifyNoMoreInteractions(assetDictionary);
+        verify(positionService).applyAcquisitions(argThat(lots ->
+                lots.size() == 1 && lots.get(0).getAssetId().equals("65a000000000000000000001")));
+    }
+
+    private Asset createAsset(String id, String symbol) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        asset.setSymbol(symbol);
+        asset.setType(AssetType.EQUITY);
+        asset.setCurrency("USD");
+        return asset;
+    }
+
+    private AcquisitionRequest createRequest(String symbol, String date) {
+        AcquisitionRequest request = new AcquisitionRequest();
+        request.setAssetSymbol(symbol);
+        request.setAssetType(AssetType.EQUITY);
+        request.setQuantity(BigDecimal.ONE);
+        request.setUnitPrice(BigDecimal.TEN);
+        request.setCurrency("USD");
+        request.setFee(BigDecimal.ZERO);
+        request.setAcquisitionDate(LocalDate.parse(date));
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.domain.enums.AssetType;
+import com.yuksel.investmenttracker.repository.AssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetDictionaryTest {
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    private AssetDictionary assetDictionary;
+
+    @BeforeEach
+    void setUp() {
+        assetDictionary = new AssetDictionary(assetRepository, new ConcurrentMapCacheManager("asset-details"));
+    }
+
+    @Test
+    void getAll_ShouldLoadMissesInOneQueryAndServeRepeatsFromMemory() {
+        // Given
+        when(assetRepository.findAllById(any())).thenReturn(List.of(asset("a", "AAPL"), asset("b", "MSFT")));
+
+        // When
+        Map<String, Asset> first = assetDictionary.getAll(List.of("a", "b", "unknown"));
+        Map<String, Asset> second = assetDictionary.getAll(List.of("a", "b"));
+
+        // Then
+        assertThat(first).containsOnlyKeys("a", "b");
+        assertThat(second).containsOnlyKeys("a", "b");
+        verify(assetRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getAll_ShouldInternSymbolAndCurrency() {
+        // Given - strings as they come off the wire, not literals
+        Asset asset = asset("a", new String("AAPL"));
+        asset.setCurrency(new String("USD"));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(asset));
+
+        // When
+        Asset loaded = assetDictionary.get("a");
+
+        // Then
+        assertThat(loaded.getSymbol()).isSameAs("AAPL");
+        assertThat(loaded.getCurrency()).isSameAs("USD");
+    }
+
+    @Test
+    void put_ShouldMakeNewAssetVisibleWithoutQuery() {
+        // Given
+        assetDictionary.put(asset("new", "NVDA"));
+        when(assetRepository.findAllById(any())).thenReturn(List.of());
+
+        // When
+        Map<String, Asset> assets = assetDictionary.getAll(List.of("new", "other"));
+
+        // Then
+        assertThat(assets.get("new").getSymbol()).isEqualTo("NVDA");
+        verify(assetRepository).findAllById(argThat(ids -> !ids.iterator().next().equals("new")));
+    }
+
+    private Asset asset(String id, String symbol) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        asset.setSymbol(symbol);
+        asset.setName(symbol);
+        asset.setType(AssetType.EQUITY);
+        asset.setCurrency("USD");
+        return asset;
+    }
+}
@@ -0,0 +1,70 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.Position;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetHoldersIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AssetHoldersIndex assetHoldersIndex;
+
+    @BeforeEach
+    void setUp() {
+        assetHoldersIndex = new AssetHoldersIndex(mongoTemplate);
+    }
+
+    @Test
+    void pollHolders_PositionWrittenByAnotherNode_ShouldAddItsHolder() {
+        // Given
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq(Position.class), eq(Document.class)))
+                .thenReturn(Stream.of(new Document("_id", "asset-1").append("userIds", List.of("user-1"))));
+        assetHoldersIndex.initializeIndex();
+        when(mongoTemplate.stream(any(Query.class), eq(Position.class))).thenReturn(Stream.of(position("user-2", "asset-1")));
+
+        // When
+        assetHoldersIndex.pollHolders();
+
+        // Then
+        assertThat(assetHoldersIndex.getHolders("asset-1")).containsExactlyInAnyOrder("user-1", "user-2");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Position.class));
+        assertThat(query.getValue().getQueryObject().get("updatedAt", Document.class)).containsKey("$gt");
+    }
+
+    @Test
+    void pollHolders_BeforeStartupLoad_ShouldNotQuery() {
+        // When
+        assetHoldersIndex.pollHolders();
+
+        // Then
+        verifyNoInteractions(mongoTemplate);
+        assertThat(assetHoldersIndex.getHolders("asset-1")).isEmpty();
+    }
+
+    private static Position position(String userId, String assetId) {
+        Position position = new Position();
+        position.setUserId(userId);
+        position.setAssetId(assetId);
+        return position;
+    }
+}
@@ -0,0 +1,157 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AuthToken;
+import com.yuksel.investmenttracker.domain.entity.User;
+import com.yuksel.investmenttracker.dto.response.AuthResponse;
+import com.yuksel.investmenttracker.repository.AuthTokenRepository;
+import com.yuksel.investmenttracker.repository.PasswordResetTokenRepository;
+import com.yuksel.investmenttracker.repository.UserRepository;
+import com.yuksel.investmenttracker.security.AccessTokenRevocations;
+import com.yuksel.investmenttracker.security.CustomUserDetailsService;
+import com.yuksel.investmenttracker.security.JwtTokenProvider;
+import com.yuksel.investmenttracker.security.RefreshToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthTokenRepository authTokenRepository;
+
+    @Mock
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtTokenProvider tokenProvider;
+
+    @Mock
+    private OAuthService oauthService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private AccessTokenRevocations accessTokenRevocations;
+
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        authService = new AuthService(authenticationManager, userRepository, authTokenRepository,
+                passwordResetTokenRepository, passwordEncoder, tokenProvider, oauthService, emailService,
+                customUserDetailsService, accessTokenRevocations);
+    }
+
+    @Test
+    void refreshToken_SelectorToken_ShouldLookUpBySelectorAndRotate() {
+        // Given
+        RefreshToken issued = RefreshToken.generate();
+        AuthToken stored = createStoredToken(issued.selector(), issued.verifierHash());
+        when(authTokenRepository.findBySelectorAndExpiresAtAfter(eq(issued.selector()), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(stored));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(createUser()));
+        when(tokenProvider.generateToken(any())).thenReturn("access-jwt");
+
+        // When
+        AuthResponse response = authService.refreshToken(issued.value());
+
+        // Then
+        verify(authTokenRepository).delete(stored);
+        verify(authTokenRepository, never()).findAll();
+        verifyNoInteractions(passwordEncoder);
+
+        ArgumentCaptor<AuthToken> saved = ArgumentCaptor.forClass(AuthToken.class);
+        verify(authTokenRepository).save(saved.capture());
+        RefreshToken rotated = RefreshToken.parse(response.getRefreshToken()).orElseThrow();
+        assertThat(rotated.selector()).isEqualTo(saved.getValue().getSelector()).isNotEqualTo(issued.selector());
+        assertThat(rotated.matches(saved.getValue().getRefreshTokenHash())).isTrue();
+    }
+
+    @Test
+    void refreshToken_WrongVerifier_ShouldReject() {
+        // Given
+        RefreshToken issued = RefreshToken.generate();
+        AuthToken stored = createStoredToken(issued.selector(), RefreshToken.generate().verifierHash());
+        when(authTokenRepository.findBySelectorAndExpiresAtAfter(eq(issued.selector()), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(stored));
+
+        // When / Then
+        assertThatThrownBy(() -> authService.refreshToken(issued.value()))
+                .hasMessage("Invalid or expired refresh token");
+        verify(authTokenRepository, never()).delete(any(AuthToken.class));
+    }
+
+    @Test
+    void refreshToken_LegacyJwt_ShouldCheckOnlyOwnersTokensAndReissueAsSelectorToken() {
+        // Given
+        String legacyToken = "header.payload.signature";
+        AuthToken stale = createStoredToken(null, "hash-of-other-device");
+        AuthToken current = createStoredToken(null, "hash-of-legacy-token");
+        when(tokenProvider.getUserIdFromToken(legacyToken)).thenReturn("user-1");
+        when(authTokenRepository.findByUserIdAndSelectorIsNullAndExpiresAtAfter(eq("user-1"), any(LocalDateTime.class)))
+                .thenReturn(List.of(stale, current));
+        when(passwordEncoder.matches(legacyToken, "hash-of-other-device")).thenReturn(false);
+        when(passwordEncoder.matches(legacyToken, "hash-of-legacy-token")).thenReturn(true);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(createUser()));
+        when(tokenProvider.generateToken(any())).thenReturn("access-jwt");
+
+        // When
+        AuthResponse response = authService.refreshToken(legacyToken);
+
+        // Then
+        verify(authTokenRepository).delete(current);
+        verify(authTokenRepository, never()).findAll();
+        verify(passwordEncoder, never()).encode(anyString());
+        assertThat(RefreshToken.parse(response.getRefreshToken())).isPresent();
+    }
+
+    private AuthToken createStoredToken(String selector, String hash) {
+        AuthToken token = new AuthToken();
+        token.setId("token-" + hash);
+        token.setUserId("user-1");
+        token.setSelector(selector);
+        token.setRefreshTokenHash(hash);
+        token.setExpiresAt(LocalDateTime.now().plusDays(7));
+        return token;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setId("user-1");
+        user.setName("Test User");
+        user.setEmail("user@example.com");
+        user.setProviders(new ArrayList<>());
+        return user;
+    }
+}
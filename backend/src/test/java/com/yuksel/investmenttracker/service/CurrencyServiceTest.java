@@ -3,6 +3,7 @@ package com.yuksel.investmenttracker.service;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -12,6 +13,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ExtendWith(MockitoExtension.class)
 class CurrencyServiceTest {
 
+    @Mock
+    private FxRateHistoryService fxRateHistoryService;
+
     @InjectMocks
     private CurrencyService currencyService;
 
@@ -112,4 +116,23 @@ class CurrencyServiceTest {
         // Then
         assertThat(retrievedRate).isEqualTo(newRate);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getExchangeRate_CrossPair_ShouldBeDerivedViaTRY() {
+        // Given
+        currencyService.updateExchangeRate("USD", "TRY", BigDecimal.valueOf(32));
+        currencyService.updateExchangeRate("EUR", "TRY", new BigDecimal("34.56"));
+
+        // When
+        BigDecimal rate = currencyService.getExchangeRate("EUR", "USD");
+
+        // Then
+        assertThat(rate).isEqualByComparingTo("1.08");
+        assertThat(currencyService.getExchangeRate("TRY", "USD")).isEqualByComparingTo("0.03125");
+    }
+
+    @Test
+    void isSupportedCurrency_Unknown_ShouldReturnFalse() {
+        assertThat(currencyService.isSupportedCurrency("XYZ")).isFalse();
+    }
+}
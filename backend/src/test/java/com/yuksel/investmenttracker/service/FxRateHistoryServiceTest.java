@@ -0,0 +1,157 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.FxRate;
+import com.yuksel.investmenttracker.repository.FxRateRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FxRateHistoryServiceTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @Mock
+    private PositionService positionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOps;
+
+    private FxRateHistoryService fxRateHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        fxRateHistoryService = new FxRateHistoryService(fxRateRepository, positionService, mongoTemplate);
+    }
+
+    @Test
+    void rateAt_ShouldUseLatestObservationAtOrBeforeTime() {
+        // Given
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("30"), LocalDateTime.parse("2024-03-04T10:00"));
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("31"), LocalDateTime.parse("2024-03-05T10:00"));
+
+        // When / Then
+        assertThat(fxRateHistoryService.rateAt("USD", "TRY", LocalDateTime.parse("2024-03-04T23:00")))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("30"));
+        assertThat(fxRateHistoryService.rateAt("USD", "TRY", LocalDateTime.parse("2024-03-05T10:00")))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("31"));
+        assertThat(fxRateHistoryService.rateAt("USD", "TRY", LocalDateTime.parse("2024-03-04T09:59"))).isEmpty();
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(FxRate.class));
+    }
+
+    @Test
+    void rateAt_WithOnlyInversePairRecorded_ShouldInvertIt() {
+        // Given
+        fxRateHistoryService.record("TRY", "USD", new BigDecimal("0.025"), LocalDateTime.parse("2024-03-04T10:00"));
+
+        // When / Then
+        assertThat(fxRateHistoryService.rateAt("USD", "TRY", LocalDateTime.parse("2024-03-04T12:00")))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("40"));
+    }
+
+    @Test
+    void closeOn_WithoutPairOrInverse_ShouldCrossThroughTry() {
+        // Given
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("32"), LocalDateTime.parse("2024-03-04T10:00"));
+        fxRateHistoryService.record("TRY", "EUR", new BigDecimal("0.025"), LocalDateTime.parse("2024-03-04T11:00"));
+
+        // When / Then
+        assertThat(fxRateHistoryService.closeOn("USD", "EUR", LocalDate.of(2024, 3, 4)))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("0.8"));
+        assertThat(fxRateHistoryService.closeOn("EUR", "USD", LocalDate.of(2024, 3, 4)))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("1.25"));
+        assertThat(fxRateHistoryService.closeOn("USD", "GBP", LocalDate.of(2024, 3, 4))).isEmpty();
+        assertThat(fxRateHistoryService.closeOn("USD", "EUR", LocalDate.of(2024, 3, 3))).isEmpty();
+    }
+
+    @Test
+    void compactTicks_ShouldKeepOnlyTheLastTickOfEachOldDay() {
+        // Given
+        LocalDate oldDay = LocalDate.now().minusDays(40);
+        LocalDateTime morning = oldDay.atTime(9, 0);
+        LocalDateTime noon = oldDay.atTime(12, 0);
+        LocalDateTime evening = oldDay.atTime(17, 0);
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("30"), morning);
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("31"), noon);
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("32"), evening);
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("33"), oldDay.plusDays(1).atTime(9, 0));
+        when(mongoTemplate.stream(any(Query.class), eq(FxRate.class))).thenReturn(Stream.of(
+                fxRate("tick-1", morning), fxRate("tick-2", noon), fxRate("tick-3", evening),
+                fxRate("tick-4", oldDay.plusDays(1).atTime(9, 0))));
+
+        // When
+        fxRateHistoryService.compactTicks();
+
+        // Then
+        verify(fxRateRepository).deleteAllById(List.of("tick-1", "tick-2"));
+        assertThat(fxRateHistoryService.rateAt("USD", "TRY", noon.plusMinutes(1))).isEmpty();
+        assertThat(fxRateHistoryService.closeOn("USD", "TRY", oldDay))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("32"));
+        assertThat(fxRateHistoryService.closeOn("USD", "TRY", oldDay.plusDays(1)))
+                .hasValueSatisfying(rate -> assertThat(rate).isEqualByComparingTo("33"));
+    }
+
+    @Test
+    void backfillAcquisitionRates_ShouldStampOnlyLotsWithAKnownRate() {
+        // Given
+        fxRateHistoryService.record("USD", "TRY", new BigDecimal("30"), LocalDateTime.parse("2024-03-04T17:00"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AcquisitionLot.class)).thenReturn(bulkOps);
+        when(mongoTemplate.stream(any(Query.class), eq(AcquisitionLot.class))).thenReturn(Stream.of(
+                lot("lot-1", "USD", "2024-03-05"),
+                lot("lot-2", "USD", "2024-03-01"),
+                lot("lot-3", "GBP", "2024-03-05")));
+
+        // When
+        int updated = fxRateHistoryService.backfillAcquisitionRates();
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOps).updateOne(query.capture(), update.capture());
+        assertThat(query.getValue().getQueryObject()).containsEntry("id", "lot-1");
+        assertThat((BigDecimal) update.getValue().getUpdateObject().get("$set", Document.class).get("fxRateAtAcquisition"))
+                .isEqualByComparingTo("30");
+        verify(bulkOps).execute();
+    }
+
+    private static FxRate fxRate(String id, LocalDateTime asOf) {
+        FxRate rate = new FxRate();
+        rate.setId(id);
+        rate.setPair("USD_TRY");
+        rate.setAsOf(asOf);
+        return rate;
+    }
+
+    private static AcquisitionLot lot(String id, String currency, String date) {
+        AcquisitionLot lot = new AcquisitionLot();
+        lot.setId(id);
+        lot.setCurrency(currency);
+        lot.setAcquisitionDate(LocalDate.parse(date));
+        return lot;
+    }
+}
@@ -0,0 +1,70 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.dto.response.PortfolioHistoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoricalValuationEngineTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void sweep_ShouldCarryLastKnownPriceForward() {
+        // Given
+        List<AcquisitionLot> lots = List.of(createLot("A", 10, 100, START));
+        List<PriceDailyBar> opening = List.of(createBar("A", 90, START.minusDays(3)));
+        List<PriceDailyBar> bars = List.of(
+                createBar("A", 100, START.plusDays(3)),
+                createBar("A", 120, START.plusDays(1)));
+
+        // When
+        List<PortfolioHistoryResponse> history = HistoricalValuationEngine.sweep(lots, opening, bars, START, START.plusDays(3));
+
+        // Then
+        assertThat(history).extracting(PortfolioHistoryResponse::getValue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(900), BigDecimal.valueOf(1200),
+                        BigDecimal.valueOf(1200), BigDecimal.valueOf(1000));
+        assertThat(history.get(1).getChangePercent()).isEqualByComparingTo("33.33");
+    }
+
+    @Test
+    void sweep_ShouldOnlyCountLotsHeldOnEachDay() {
+        // Given
+        List<AcquisitionLot> lots = List.of(
+                createLot("B", 5, 20, START.plusDays(2)),
+                createLot("A", 1, 50, START.minusDays(10)));
+
+        // When
+        List<PortfolioHistoryResponse> history = HistoricalValuationEngine.sweep(lots, List.of(), List.of(), START, START.plusDays(2));
+
+        // Then
+        assertThat(history).extracting(PortfolioHistoryResponse::getValue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.valueOf(50), BigDecimal.valueOf(50), BigDecimal.valueOf(150));
+    }
+
+    private AcquisitionLot createLot(String assetId, double quantity, double unitPrice, LocalDate date) {
+        AcquisitionLot lot = new AcquisitionLot();
+        lot.setAssetId(assetId);
+        lot.setQuantity(BigDecimal.valueOf(quantity));
+        lot.setUnitPrice(BigDecimal.valueOf(unitPrice));
+        lot.setAcquisitionDate(date);
+        return lot;
+    }
+
+    private PriceDailyBar createBar(String assetId, double close, LocalDate date) {
+        PriceDailyBar bar = new PriceDailyBar();
+        bar.setAssetId(assetId);
+        bar.setClose(BigDecimal.valueOf(close));
+        bar.setDate(date);
+        return bar;
+    }
+}
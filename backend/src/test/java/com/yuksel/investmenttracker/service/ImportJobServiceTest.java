@@ -0,0 +1,135 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.ImportJob;
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import com.yuksel.investmenttracker.dto.response.ImportJobResponse;
+import com.yuksel.investmenttracker.repository.ImportJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private ImportService importService;
+
+    @Mock
+    private PositionService positionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path spoolDir;
+
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void setUp() {
+        importJobService = new ImportJobService(importJobRepository, importService, positionService,
+                mongoTemplate, Runnable::run, spoolDir.toString());
+    }
+
+    @Test
+    void run_InterruptedJob_ShouldResumeAfterCommittedLineAndRebuildPositions() throws Exception {
+        // Given
+        Path spoolFile = Files.writeString(spoolDir.resolve("import-1.csv"), "header\n");
+        ImportJob job = createJob(spoolFile);
+        job.setCommittedLine(1001);
+        job.setAttempts(2);
+        job.setSuccessCount(1000);
+        job.setEarliestAcquisitionDate(LocalDate.of(2024, 1, 1));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ImportJob.class))).thenReturn(job);
+        when(importService.importRows(eq("user-1"), any(Path.class), eq(1001), any(), any())).thenReturn(true);
+        when(importJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+
+        // When
+        importJobService.run("job-1");
+
+        // Then
+        verify(importService).importRows(eq("user-1"), any(Path.class), eq(1001), any(), any());
+        verify(positionService).rebuildPositions("user-1");
+        verify(importService).finishImport("user-1", LocalDate.of(2024, 1, 1));
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat(update -> update.getUpdateObject().toString().contains("COMPLETED")), eq(ImportJob.class));
+        assertThat(spoolFile).doesNotExist();
+    }
+
+    @Test
+    void run_JobClaimedElsewhere_ShouldNotImport() throws Exception {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ImportJob.class))).thenReturn(null);
+
+        // When
+        importJobService.run("job-1");
+
+        // Then
+        verify(importService, never()).importRows(any(), any(Path.class), anyInt(), any(), any());
+    }
+
+    @Test
+    void toResponse_RunningJob_ShouldReportThroughputAndEta() {
+        // Given
+        ImportJob job = createJob(spoolDir.resolve("import-1.csv"));
+        job.setStatus(JobStatus.RUNNING);
+        job.setEstimatedRows(10_000);
+        job.setRowsProcessed(2_000);
+        job.setActiveMillis(4_000);
+
+        // When
+        ImportJobResponse response = importJobService.toResponse(job);
+
+        // Then
+        assertThat(response.getRowsPerSecond()).isEqualTo(500);
+        assertThat(response.getEtaSeconds()).isEqualTo(16);
+    }
+
+    @Test
+    void copyCountingLines_LastLineWithoutBreak_ShouldCountIt() throws Exception {
+        // Given
+        byte[] content = "header\nrow1\nrow2".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long lines = ImportJobService.copyCountingLines(new ByteArrayInputStream(content), out);
+
+        // Then
+        assertThat(lines).isEqualTo(3);
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    private ImportJob createJob(Path spoolFile) {
+        ImportJob job = new ImportJob();
+        job.setId("job-1");
+        job.setUserId("user-1");
+        job.setSpoolFile(spoolFile.toString());
+        job.setStatus(JobStatus.RUNNING);
+        return job;
+    }
+}
@@ -0,0 +1,230 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.domain.enums.AssetType;
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    private static final String HEADER = "Symbol,Name,Asset Type,Quantity,Unit Price,Currency,Fee,Acquisition Date,Notes,Tags\n";
+    private static final String TEST_USER_ID = "test-user-123";
+
+    @Mock
+    private AcquisitionBatchWriter acquisitionBatchWriter;
+
+    @Mock
+    private AssetDictionary assetDictionary;
+
+    @Mock
+    private AcquisitionLotRepository acquisitionLotRepository;
+
+    @Mock
+    private PortfolioDailyValueRepository portfolioDailyValueRepository;
+
+    @Mock
+    private ValuationCacheEvictor valuationCacheEvictor;
+
+    private final ForkJoinPool parsePool = new ForkJoinPool(2);
+
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ImportService(acquisitionBatchWriter, assetDictionary, acquisitionLotRepository,
+                portfolioDailyValueRepository, valuationCacheEvictor, parsePool);
+
+        UserPrincipal userPrincipal = new UserPrincipal(TEST_USER_ID, "Test User", "test@example.com",
+                "hashedPassword", Collections.emptyList(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), "Europe/Istanbul", "TRY");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        parsePool.shutdown();
+    }
+
+    @Test
+    void importAcquisitionsFromCsv_ManyRows_ShouldWriteChunksAndEvictOnce() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 2500; i++) {
+            csv.append("SYM").append(i % 40).append(",,EQUITY,1,10,USD,0,2024-01-0").append(1 + i % 9).append(",,\n");
+        }
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(acquisitionBatchWriter.write(eq(TEST_USER_ID), anyList(), any())).thenAnswer(invocation -> {
+            List<AcquisitionBatchWriter.Row> rows = invocation.getArgument(1);
+            chunkSizes.add(rows.size());
+            LocalDate earliest = rows.stream().map(row -> row.request().getAcquisitionDate())
+                    .min(LocalDate::compareTo).orElseThrow();
+            return new AcquisitionBatchWriter.ChunkResult(rows.size(), Map.of(), earliest);
+        });
+
+        // When
+        Map<String, Object> result = importService.importAcquisitionsFromCsv(csvFile(csv.toString()));
+
+        // Then
+        assertThat(result.get("successCount")).isEqualTo(2500);
+        assertThat(result.get("errorCount")).isEqualTo(0);
+        assertThat(chunkSizes).containsExactly(ImportService.CHUNK_SIZE, ImportService.CHUNK_SIZE, 500);
+        verify(valuationCacheEvictor, times(1)).evictUser(TEST_USER_ID);
+        verify(portfolioDailyValueRepository, times(1))
+                .deleteByUserIdAndDateGreaterThanEqual(TEST_USER_ID, LocalDate.of(2024, 1, 1));
+    }
+
+    @Test
+    void importAcquisitionsFromCsv_ParseAndWriteErrors_ShouldReportOriginalLinesInOrder() throws Exception {
+        // Given
+        String csv = HEADER
+                + "AAPL,,EQUITY,1,10,USD,0,2024-01-02,,\n"
+                + "MSFT,,EQUITY,abc,10,USD,0,2024-01-02,,\n"
+                + "GOOG,,EQUITY,1,10,USD,0,2024-01-02,,\n";
+        when(acquisitionBatchWriter.write(eq(TEST_USER_ID), anyList(), any())).thenReturn(
+                new AcquisitionBatchWriter.ChunkResult(1, Map.of(2, "Document failed validation"), LocalDate.of(2024, 1, 2)));
+
+        // When
+        Map<String, Object> result = importService.importAcquisitionsFromCsv(csvFile(csv));
+
+        // Then
+        assertThat(result.get("successCount")).isEqualTo(1);
+        assertThat(result.get("errorCount")).isEqualTo(2);
+        assertThat(result.get("totalProcessed")).isEqualTo(3);
+        assertThat(result.get("errors")).isEqualTo(List.of(
+                "Line 2: Document failed validation",
+                "Line 3: Error parsing line: Invalid quantity: abc"));
+    }
+
+    @Test
+    void importRows_ResumedAfterLine_ShouldSkipCommittedRowsAndKeepLineNumbers() throws Exception {
+        // Given
+        String csv = HEADER
+                + "AAPL,,EQUITY,1,10,USD,0,2024-01-02,,\n"
+                + ",,,,,,,,,\n"
+                + "MSFT,,EQUITY,1,10,USD,0,2024-01-02,,\n"
+                + "GOOG,,EQUITY,1,10,USD,0,2024-01-02,,\n";
+        List<Integer> writtenLines = new ArrayList<>();
+        when(acquisitionBatchWriter.write(eq(TEST_USER_ID), anyList(), any())).thenAnswer(invocation -> {
+            List<AcquisitionBatchWriter.Row> rows = invocation.getArgument(1);
+            rows.forEach(row -> writtenLines.add(row.lineNumber()));
+            return new AcquisitionBatchWriter.ChunkResult(rows.size(), Map.of(), LocalDate.of(2024, 1, 2));
+        });
+        List<ImportService.ChunkOutcome> outcomes = new ArrayList<>();
+
+        // When
+        boolean completed = importService.importRows(TEST_USER_ID, new StringReader(csv), 3,
+                AcquisitionBatchWriter.RANDOM_LOT_IDS, outcomes::add);
+
+        // Then
+        assertThat(completed).isTrue();
+        assertThat(writtenLines).containsExactly(4);
+        assertThat(outcomes).hasSize(1);
+        assertThat(outcomes.get(0).lastLineNumber()).isEqualTo(4);
+        verifyNoInteractions(valuationCacheEvictor);
+    }
+
+    @Test
+    void importRows_SpooledFile_ShouldMatchSequentialLineNumbers(@TempDir Path dir) throws Exception {
+        // Given
+        String csv = HEADER
+                + "AAPL,,EQUITY,1,10,USD,0,2024-01-02,\"bought\nafter split\",\n"
+                + ",,,,,,,,,\n"
+                + "MSFT,,EQUITY,abc,10,USD,0,2024-01-02,,\n"
+                + "GOOG,,EQUITY,1,10,USD,0,2024-01-02,,\n";
+        Path file = Files.writeString(dir.resolve("import.csv"), csv);
+        when(acquisitionBatchWriter.write(eq(TEST_USER_ID), anyList(), any())).thenAnswer(invocation -> {
+            List<AcquisitionBatchWriter.Row> rows = invocation.getArgument(1);
+            return new AcquisitionBatchWriter.ChunkResult(rows.size(), Map.of(), LocalDate.of(2024, 1, 2));
+        });
+        List<ImportService.ChunkOutcome> sequential = new ArrayList<>();
+        List<ImportService.ChunkOutcome> parallel = new ArrayList<>();
+
+        // When
+        importService.importRows(TEST_USER_ID, new StringReader(csv), 0, AcquisitionBatchWriter.RANDOM_LOT_IDS, sequential::add);
+        importService.importRows(TEST_USER_ID, file, 0, AcquisitionBatchWriter.RANDOM_LOT_IDS, parallel::add);
+
+        // Then
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallel.get(0).errors()).containsOnlyKeys(3);
+        assertThat(parallel.get(0).lastLineNumber()).isEqualTo(4);
+        verify(acquisitionBatchWriter, times(2)).write(eq(TEST_USER_ID),
+                argThat(rows -> rows.size() == 2 && rows.get(0).request().getNotes().equals("bought\nafter split")
+                        && rows.get(1).lineNumber() == 4), any());
+    }
+
+    @Test
+    void writeAcquisitionsCsv_ManyLots_ShouldResolveAssetsPerWindow() throws Exception {
+        // Given
+        Asset asset = new Asset();
+        asset.setId("asset-1");
+        asset.setSymbol("AAPL");
+        asset.setName("Apple Inc.");
+        asset.setType(AssetType.EQUITY);
+        List<AcquisitionLot> lots = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            AcquisitionLot lot = new AcquisitionLot();
+            lot.setAssetId("asset-1");
+            lot.setQuantity(BigDecimal.ONE);
+            lot.setUnitPrice(BigDecimal.TEN);
+            lot.setCurrency("USD");
+            lot.setFee(BigDecimal.ZERO);
+            lot.setAcquisitionDate(LocalDate.of(2024, 1, 2));
+            lots.add(lot);
+        }
+        when(acquisitionLotRepository.streamByUserId(TEST_USER_ID)).thenReturn(lots.stream());
+        when(assetDictionary.getAll(anyCollection())).thenReturn(Map.of("asset-1", asset));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        importService.writeAcquisitionsCsv(TEST_USER_ID, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1201);
+        assertThat(lines[1]).startsWith("\"AAPL\",\"Apple Inc.\",\"EQUITY\",\"1\",\"10\"");
+        verify(assetDictionary, times(3)).getAll(anyCollection());
+        verify(acquisitionLotRepository, never()).findByUserId(anyString());
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "acquisitions.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.enums.OAuthProvider;
+import com.yuksel.investmenttracker.dto.OAuthUserInfo;
+import com.yuksel.investmenttracker.security.JwksStandInServer;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.PrivateKey;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OAuthServiceTest {
+
+    private static final String GOOGLE_CLIENT_ID = "google-client.apps.googleusercontent.com";
+    private static final String APPLE_CLIENT_ID = "com.yuksel.investmenttracker";
+
+    private JwksStandInServer googleKeys;
+    private JwksStandInServer appleKeys;
+    private OAuthService oauthService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        googleKeys = new JwksStandInServer();
+        appleKeys = new JwksStandInServer();
+        oauthService = new OAuthService(GOOGLE_CLIENT_ID, APPLE_CLIENT_ID, googleKeys.uri(), appleKeys.uri());
+    }
+
+    @AfterEach
+    void tearDown() {
+        googleKeys.close();
+        appleKeys.close();
+    }
+
+    @Test
+    void validateOAuthToken_Google_ShouldVerifyLocallyAfterFirstFetch() {
+        // Given
+        PrivateKey signingKey = googleKeys.publish("google-1").getPrivate();
+        String token = idToken("google-1", signingKey, "https://accounts.google.com", GOOGLE_CLIENT_ID);
+
+        // When
+        OAuthUserInfo first = oauthService.validateOAuthToken(token, OAuthProvider.GOOGLE);
+        OAuthUserInfo second = oauthService.validateOAuthToken(token, OAuthProvider.GOOGLE);
+
+        // Then
+        assertThat(first.getEmail()).isEqualTo("user@example.com");
+        assertThat(first.getProviderId()).isEqualTo("subject-1");
+        assertThat(first.isEmailVerified()).isTrue();
+        assertThat(first.getProvider()).isEqualTo(OAuthProvider.GOOGLE);
+        assertThat(second).isEqualTo(first);
+        assertThat(googleKeys.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void validateOAuthToken_Apple_ShouldRejectWrongSignatureAudienceOrIssuer() {
+        // Given
+        PrivateKey signingKey = appleKeys.publish("apple-1").getPrivate();
+        PrivateKey unpublishedKey = JwksStandInServer.generateKeyPair().getPrivate();
+        oauthService.refreshSigningKeys();
+
+        // When / Then
+        assertThat(oauthService.validateOAuthToken(
+                idToken("apple-1", signingKey, "https://appleid.apple.com", APPLE_CLIENT_ID), OAuthProvider.APPLE)
+                .getProviderId()).isEqualTo("subject-1");
+        assertThatThrownBy(() -> oauthService.validateOAuthToken(
+                idToken("apple-1", unpublishedKey, "https://appleid.apple.com", APPLE_CLIENT_ID), OAuthProvider.APPLE))
+                .isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> oauthService.validateOAuthToken(
+                idToken("apple-1", signingKey, "https://appleid.apple.com", "some.other.app"), OAuthProvider.APPLE))
+                .isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> oauthService.validateOAuthToken(
+                idToken("apple-1", signingKey, "https://accounts.google.com", APPLE_CLIENT_ID), OAuthProvider.APPLE))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(appleKeys.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void validateOAuthToken_MissingClientId_ShouldReject() {
+        // Given
+        OAuthService unconfigured = new OAuthService("", "", googleKeys.uri(), appleKeys.uri());
+        PrivateKey signingKey = googleKeys.publish("google-1").getPrivate();
+
+        // When / Then
+        assertThatThrownBy(() -> unconfigured.validateOAuthToken(
+                idToken("google-1", signingKey, "accounts.google.com", ""), OAuthProvider.GOOGLE))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(googleKeys.requestCount()).isZero();
+    }
+
+    private static String idToken(String keyId, PrivateKey signingKey, String issuer, String audience) {
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .issuer(issuer)
+                .audience().add(audience).and()
+                .subject("subject-1")
+                .claim("email", "user@example.com")
+                .claim("email_verified", true)
+                .claim("name", "Test User")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(signingKey)
+                .compact();
+    }
+}
@@ -0,0 +1,107 @@
+package com.yuksel.investmenttracker.service;
+
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelCsvParserTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void parse_QuotedLineBreaksAcrossSmallRanges_ShouldKeepRecordsWholeAndInOrder(@TempDir Path dir) throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("id,note\n");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String note = i % 3 == 0 ? "line one\nline \"\"two\"\"" : "plain " + i;
+            csv.append(i).append(",\"").append(note).append("\"\n");
+            expected.add(i + ":" + note.replace("\"\"", "\""));
+        }
+        Path file = Files.writeString(dir.resolve("notes.csv"), csv);
+        ParallelCsvParser<String> parser = new ParallelCsvParser<>(pool, record -> record[0] + ":" + record[1], 64);
+        List<String> parsed = new ArrayList<>();
+
+        // When
+        boolean completed = parser.parse(file, true, (value, error) -> parsed.add(value));
+
+        // Then
+        assertThat(completed).isTrue();
+        assertThat(parsed).isEqualTo(expected);
+    }
+
+    @Test
+    void recordBoundaries_ShouldNeverSplitInsideQuotes(@TempDir Path dir) throws Exception {
+        // Given
+        Path file = Files.writeString(dir.resolve("quoted.csv"), "h\n\"a\nb\nc\"\nd\n\"e\\\"\nf\"\ng\n");
+        ParallelCsvParser<String> parser = new ParallelCsvParser<>(pool, record -> record[0], 1);
+
+        // When
+        long[] bounds;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bounds = parser.recordBoundaries(channel, true);
+        }
+
+        // Then
+        assertThat(bounds).containsExactly(2, 10, 12, 20, 22);
+    }
+
+    @Test
+    void parse_EscapedQuoteOutsideQuotes_ShouldSplitWhereSequentialReaderDoes(@TempDir Path dir) throws Exception {
+        // Given - the backslash keeps the first quote literal, so only "c\nd" is quoted
+        String csv = "h\na\\\"b,\"c\nd\"\ne,f\n";
+        Path file = Files.writeString(dir.resolve("escaped.csv"), csv);
+        ParallelCsvParser<String> parser = new ParallelCsvParser<>(pool, record -> String.join("|", record), 1);
+        List<String> expected = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            reader.skip(1);
+            for (String[] record : reader) {
+                expected.add(String.join("|", record));
+            }
+        }
+        List<String> parsed = new ArrayList<>();
+
+        // When
+        boolean completed = parser.parse(file, true, (value, error) -> parsed.add(value));
+
+        // Then
+        assertThat(completed).isTrue();
+        assertThat(parsed).containsExactly("a\"b|c\nd", "e|f").isEqualTo(expected);
+    }
+
+    @Test
+    void parse_FailingRecordsAndStop_ShouldReportErrorsAndStopEarly(@TempDir Path dir) throws Exception {
+        // Given
+        Path file = Files.writeString(dir.resolve("numbers.csv"), "n\n1\nx\n\n3\n4\n");
+        ParallelCsvParser<Integer> parser = new ParallelCsvParser<>(pool,
+                record -> record[0].isEmpty() ? null : Integer.valueOf(record[0]), 2);
+        List<String> seen = new ArrayList<>();
+
+        // When
+        boolean completed = parser.parse(file, true, (value, error) -> {
+            seen.add(value != null ? value.toString() : "error");
+            return value == null || value < 3;
+        });
+
+        // Then
+        assertThat(completed).isFalse();
+        assertThat(seen).containsExactly("1", "error", "3");
+    }
+}
@@ -0,0 +1,256 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.JobCheckpoint;
+import com.yuksel.investmenttracker.domain.entity.PortfolioDailyValue;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.entity.User;
+import com.yuksel.investmenttracker.domain.enums.JobStatus;
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.JobCheckpointRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioDailyValueServiceTest {
+
+    @Mock
+    private PortfolioDailyValueRepository portfolioDailyValueRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private AcquisitionLotRepository acquisitionLotRepository;
+
+    @Mock
+    private PriceDailyBarRepository priceDailyBarRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private PortfolioDailyValueService portfolioDailyValueService;
+
+    private final LocalDate yesterday = LocalDate.now().minusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        portfolioDailyValueService = new PortfolioDailyValueService(portfolioDailyValueRepository,
+                jobCheckpointRepository, acquisitionLotRepository, priceDailyBarRepository, mongoTemplate, Runnable::run);
+    }
+
+    @Test
+    void valueUser_WithStoredHistory_ShouldOnlyReplayMissingDays() {
+        // Given - stored through three days ago, one close recorded since
+        when(acquisitionLotRepository.findByUserId("user-1")).thenReturn(List.of(lot("asset-1", 10, 100, yesterday.minusDays(10))));
+        PortfolioDailyValue latest = new PortfolioDailyValue();
+        latest.setDate(yesterday.minusDays(2));
+        when(portfolioDailyValueRepository.findTopByUserIdOrderByDateDesc("user-1")).thenReturn(Optional.of(latest));
+        when(priceDailyBarRepository.findByAssetIdInAndDateBetween(anyCollection(), eq(yesterday.minusDays(1)), eq(yesterday)))
+                .thenReturn(List.of(bar("asset-1", yesterday, 120)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PortfolioDailyValue.class)).thenReturn(bulkOperations);
+
+        // When
+        int written = portfolioDailyValueService.valueUser("user-1", yesterday, false);
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        ArgumentCaptor<PortfolioDailyValue> values = ArgumentCaptor.forClass(PortfolioDailyValue.class);
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), values.capture(), any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(priceDailyBarRepository).findLatestPerAssetInBefore(anyCollection(), eq(yesterday.minusDays(1)));
+
+        PortfolioDailyValue close = values.getAllValues().get(1);
+        assertThat(close.getDate()).isEqualTo(yesterday);
+        assertThat(close.getTotalValue()).isEqualByComparingTo("1200");
+        assertThat(close.getCostBasis()).isEqualByComparingTo("1000");
+        assertThat(close.getAssets()).singleElement()
+                .satisfies(asset -> assertThat(asset.getPrice()).isEqualByComparingTo("120"));
+    }
+
+    @Test
+    void valueUser_WhenUpToDate_ShouldWriteNothing() {
+        // Given
+        when(acquisitionLotRepository.findByUserId("user-1")).thenReturn(List.of(lot("asset-1", 10, 100, yesterday.minusDays(10))));
+        PortfolioDailyValue latest = new PortfolioDailyValue();
+        latest.setDate(yesterday);
+        when(portfolioDailyValueRepository.findTopByUserIdOrderByDateDesc("user-1")).thenReturn(Optional.of(latest));
+
+        // When
+        int written = portfolioDailyValueService.valueUser("user-1", yesterday, false);
+
+        // Then
+        assertThat(written).isZero();
+        verifyNoInteractions(priceDailyBarRepository, mongoTemplate);
+    }
+
+    @Test
+    void run_WithInterruptedCheckpoint_ShouldResumeAfterLastCommittedUser() {
+        // Given - the node running it stopped heartbeating
+        JobCheckpoint checkpoint = checkpoint(JobStatus.RUNNING, LocalDateTime.now().minus(PortfolioDailyValueService.LEASE).minusMinutes(1));
+        checkpoint.setLastUserId("user-2");
+        when(jobCheckpointRepository.findById(PortfolioDailyValueService.JOB_NAME)).thenReturn(Optional.of(checkpoint));
+        JobCheckpoint claimed = checkpoint(JobStatus.RUNNING, LocalDateTime.now());
+        claimed.setLastUserId("user-2");
+        claimed.setOwner("owner-1");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobCheckpoint.class)))
+                .thenReturn(claimed);
+
+        User user = new User();
+        user.setId("user-3");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user)).thenReturn(List.of());
+        when(acquisitionLotRepository.findByUserId("user-3")).thenReturn(List.of());
+
+        // When
+        portfolioDailyValueService.run(yesterday, false);
+
+        // Then
+        ArgumentCaptor<Query> pages = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(pages.capture(), eq(User.class));
+        assertThat(pages.getAllValues().get(0).getQueryObject().toJson()).contains("user-2");
+        assertThat(pages.getAllValues().get(1).getQueryObject().toJson()).contains("user-3");
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(4)).findAndModify(queries.capture(), updates.capture(),
+                any(FindAndModifyOptions.class), eq(JobCheckpoint.class));
+        Document claim = updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertThat(claim).containsEntry("status", JobStatus.RUNNING).doesNotContainKey("lastUserId");
+        assertThat(queries.getAllValues().get(0).getQueryObject()).containsEntry("updatedAt", checkpoint.getUpdatedAt());
+        assertThat(queries.getAllValues().get(2).getQueryObject()).containsEntry("owner", "owner-1");
+        assertThat(updates.getAllValues().get(2).getUpdateObject().get("$set", Document.class))
+                .containsEntry("lastUserId", "user-3");
+        assertThat(updates.getAllValues().get(2).getUpdateObject().get("$inc", Document.class))
+                .containsEntry("processedUsers", 1);
+        assertThat(updates.getAllValues().get(3).getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", JobStatus.COMPLETED);
+        verify(acquisitionLotRepository, never()).findByUserId("user-1");
+    }
+
+    @Test
+    void run_WhileAnotherNodeHeartbeats_ShouldSkip() {
+        // Given
+        when(jobCheckpointRepository.findById(PortfolioDailyValueService.JOB_NAME))
+                .thenReturn(Optional.of(checkpoint(JobStatus.RUNNING, LocalDateTime.now())));
+
+        // When
+        portfolioDailyValueService.run(yesterday, false);
+
+        // Then
+        verifyNoInteractions(mongoTemplate, acquisitionLotRepository);
+    }
+
+    @Test
+    void run_WhenAnotherNodeClaimsFirst_ShouldSkip() {
+        // Given - both nodes saw no checkpoint, the other one inserted it
+        when(jobCheckpointRepository.findById(PortfolioDailyValueService.JOB_NAME)).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobCheckpoint.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        // When
+        portfolioDailyValueService.run(yesterday, false);
+
+        // Then
+        verify(mongoTemplate, never()).find(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    void run_WhenTakenOverMidway_ShouldStopWithoutCompleting() {
+        // Given
+        when(jobCheckpointRepository.findById(PortfolioDailyValueService.JOB_NAME)).thenReturn(Optional.empty());
+        JobCheckpoint claimed = checkpoint(JobStatus.RUNNING, LocalDateTime.now());
+        claimed.setOwner("owner-1");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(JobCheckpoint.class)))
+                .thenReturn(claimed, (JobCheckpoint) null);
+        User user = new User();
+        user.setId("user-1");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user));
+        when(acquisitionLotRepository.findByUserId("user-1")).thenReturn(List.of());
+
+        // When
+        portfolioDailyValueService.run(yesterday, false);
+
+        // Then - claim, chunk heartbeat and page commit, but no second page and no completion
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(JobCheckpoint.class));
+        assertThat(updates.getAllValues()).noneSatisfy(update -> assertThat(
+                update.getUpdateObject().get("$set", Document.class)).containsEntry("status", JobStatus.COMPLETED));
+    }
+
+    @Test
+    void run_WhenDateAlreadyCompleted_ShouldSkip() {
+        // Given
+        JobCheckpoint checkpoint = new JobCheckpoint();
+        checkpoint.setRunDate(yesterday);
+        checkpoint.setStatus(JobStatus.COMPLETED);
+        when(jobCheckpointRepository.findById(PortfolioDailyValueService.JOB_NAME)).thenReturn(Optional.of(checkpoint));
+
+        // When
+        portfolioDailyValueService.run(yesterday, false);
+
+        // Then
+        verifyNoInteractions(mongoTemplate, acquisitionLotRepository);
+        verify(jobCheckpointRepository, never()).save(any());
+    }
+
+    private JobCheckpoint checkpoint(JobStatus status, LocalDateTime heartbeatAt) {
+        JobCheckpoint checkpoint = new JobCheckpoint();
+        checkpoint.setJobName(PortfolioDailyValueService.JOB_NAME);
+        checkpoint.setRunDate(yesterday);
+        checkpoint.setStatus(status);
+        checkpoint.setProcessedUsers(2);
+        checkpoint.setHeartbeatAt(heartbeatAt);
+        checkpoint.setUpdatedAt(heartbeatAt);
+        return checkpoint;
+    }
+
+    private AcquisitionLot lot(String assetId, long quantity, long unitPrice, LocalDate date) {
+        AcquisitionLot lot = new AcquisitionLot();
+        lot.setUserId("user-1");
+        lot.setAssetId(assetId);
+        lot.setQuantity(BigDecimal.valueOf(quantity));
+        lot.setUnitPrice(BigDecimal.valueOf(unitPrice));
+        lot.setFee(BigDecimal.ZERO);
+        lot.setAcquisitionDate(date);
+        return lot;
+    }
+
+    private PriceDailyBar bar(String assetId, LocalDate date, long close) {
+        PriceDailyBar bar = new PriceDailyBar();
+        bar.setAssetId(assetId);
+        bar.setDate(date);
+        bar.setClose(BigDecimal.valueOf(close));
+        return bar;
+    }
+}
@@ -1,35 +1,55 @@
 package com.yuksel.investmenttracker.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuksel.investmenttracker.config.RefreshAheadCache;
 import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
 import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.domain.entity.PortfolioDailyValue;
+import com.yuksel.investmenttracker.domain.entity.Position;
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
 import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
 import com.yuksel.investmenttracker.domain.enums.AssetType;
+import com.yuksel.investmenttracker.domain.money.Quantity;
 import com.yuksel.investmenttracker.dto.response.PortfolioAnalyticsResponse;
 import com.yuksel.investmenttracker.dto.response.PortfolioSummaryResponse;
 import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
 import com.yuksel.investmenttracker.repository.AssetRepository;
+import com.yuksel.investmenttracker.repository.PortfolioDailyValueRepository;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
 import com.yuksel.investmenttracker.repository.PriceSnapshotRepository;
 import com.yuksel.investmenttracker.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -47,16 +67,36 @@ class PortfolioServiceTest {
     @Mock
     private PriceService priceService;
 
+    @Mock
+    private FxRateHistoryService fxRateHistoryService;
+
     @Mock
     private PriceSnapshotRepository priceSnapshotRepository;
 
+    @Mock
+    private PriceBarService priceBarService;
+
+    @Mock
+    private PriceDailyBarRepository priceDailyBarRepository;
+
+    @Mock
+    private PositionService positionService;
+
+    @Mock
+    private PortfolioDailyValueRepository portfolioDailyValueRepository;
+
+    @Mock
+    private ValuationCacheEvictor valuationCacheEvictor;
+
     @Mock
     private SecurityContext securityContext;
 
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
+    @Mock
+    private ObjectProvider<PortfolioService> portfolioServiceProvider;
+
     private PortfolioService portfolioService;
 
     private final String TEST_USER_ID = "test-user-123";
@@ -64,8 +104,10 @@ class PortfolioServiceTest {
 
     @BeforeEach
     void setUp() {
+        portfolioService = createService(Runnable::run, Duration.ofSeconds(5));
+        
         SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
+        lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         
         UserPrincipal userPrincipal = new UserPrincipal(
                 TEST_USER_ID,
@@ -73,16 +115,23 @@ class PortfolioServiceTest {
                 "test@example.com",
                 "hashedPassword",
                 Collections.emptyList(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")),
+                "Europe/Istanbul",
+                "TRY"
         );
         
-        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        lenient().when(authentication.getPrincipal()).thenReturn(userPrincipal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
     void getPortfolioSummary_WithEmptyPortfolio_ShouldReturnEmptyResponse() {
         // Given
-        when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenReturn(List.of());
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(List.of());
 
         // When
         PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
@@ -97,26 +146,94 @@ class PortfolioServiceTest {
     @Test
     void getPortfolioSummary_WithAcquisitions_ShouldCalculateCorrectly() {
         // Given
-        List<AcquisitionLot> acquisitions = createMockAcquisitions();
-        when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenReturn(acquisitions);
-        when(priceService.getCurrentPrice(anyString(), anyString())).thenReturn(BigDecimal.valueOf(110.0));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
         
-        // Mock price snapshots for daily change calculation
-        PriceSnapshot currentSnapshot = new PriceSnapshot();
-        currentSnapshot.setAssetId(TEST_ASSET_ID);
-        currentSnapshot.setPrice(BigDecimal.valueOf(110.0));
-        currentSnapshot.setAsOf(LocalDateTime.now());
-        when(priceSnapshotRepository.findLatestByAssetId(anyString())).thenReturn(Optional.of(currentSnapshot));
-        when(priceSnapshotRepository.findByAssetIdAndAsOfBetween(anyString(), any(), any())).thenReturn(List.of());
+        // Mock previous daily close for daily change calculation
+        PriceDailyBar previousClose = new PriceDailyBar();
+        previousClose.setAssetId(TEST_ASSET_ID);
+        previousClose.setDate(LocalDate.now().minusDays(1));
+        previousClose.setClose(BigDecimal.valueOf(100.0));
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any())).thenReturn(List.of(previousClose));
 
         // When
         PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getTotalValueTRY()).isPositive();
+        assertThat(result.getTotalValueTRY()).isEqualByComparingTo(BigDecimal.valueOf(1100));
+        assertThat(result.getCostBasisTRY()).isEqualByComparingTo(BigDecimal.valueOf(1005));
+        assertThat(result.getTodayChangePercent()).isEqualByComparingTo("10.00");
         assertThat(result.getStatus()).isIn("UP", "DOWN", "NEUTRAL");
-        verify(priceService, atLeastOnce()).getCurrentPrice(anyString(), eq("TRY"));
+        verify(priceService, atLeastOnce()).getCurrentPrices(anyCollection());
+        verify(priceService, never()).getCurrentPrice(anyString());
+    }
+
+    @Test
+    void getPortfolioSummary_WithUsdAssetAtPurchasePrice_ShouldReportNoProfitOrLoss() {
+        // Given - bought at 100 USD, last tick and yesterday's close both 100 USD
+        portfolioService = createService(Runnable::run, Duration.ofSeconds(5),
+                new PriceService(priceSnapshotRepository, priceBarService, new PriceBoard(), valuationCacheEvictor,
+                        new AssetDictionary(assetRepository, new ConcurrentMapCacheManager("asset-details"))));
+        AcquisitionLot lot = createMockAcquisitions().get(0);
+        lot.setFee(BigDecimal.ZERO);
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(PositionService.aggregateLots(List.of(lot)));
+
+        PriceSnapshot snapshot = new PriceSnapshot();
+        snapshot.setAssetId(TEST_ASSET_ID);
+        snapshot.setPrice(BigDecimal.valueOf(100));
+        snapshot.setCurrency("USD");
+        snapshot.setAsOf(LocalDateTime.now());
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection())).thenReturn(List.of(snapshot));
+
+        PriceDailyBar previousClose = new PriceDailyBar();
+        previousClose.setAssetId(TEST_ASSET_ID);
+        previousClose.setDate(LocalDate.now().minusDays(1));
+        previousClose.setClose(BigDecimal.valueOf(100));
+        previousClose.setCurrency("USD");
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any())).thenReturn(List.of(previousClose));
+
+        // When
+        PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
+
+        // Then
+        assertThat(result.getTotalValueTRY()).isEqualByComparingTo(result.getCostBasisTRY());
+        assertThat(result.getTotalUnrealizedPLTRY()).isEqualByComparingTo("0");
+        assertThat(result.getTodayChangePercent()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void getPortfolioSummary_WithForeignLot_ShouldAttributeFxMoveSinceAcquisition() {
+        // Given
+        AcquisitionLot lot = createMockAcquisitions().get(0);
+        lot.setFxRateAtAcquisition(BigDecimal.valueOf(30));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(PositionService.aggregateLots(List.of(lot)));
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+        when(fxRateHistoryService.currentRateUnits("USD", "TRY")).thenReturn(Quantity.unitsOf(BigDecimal.valueOf(32)));
+
+        // When
+        PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
+
+        // Then
+        assertThat(result.getFxInfluenceTRY()).isEqualByComparingTo("2000");
+    }
+
+    @Test
+    void getPortfolioSummary_WithLotInOtherCurrencyThanAsset_ShouldRevalueAtLotCurrencyRate() {
+        // Given - a USD-quoted asset bought with EUR at 35 TRY, EUR now at 36 TRY
+        AcquisitionLot lot = createMockAcquisitions().get(0);
+        lot.setCurrency("EUR");
+        lot.setFxRateAtAcquisition(BigDecimal.valueOf(35));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(PositionService.aggregateLots(List.of(lot)));
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+        when(fxRateHistoryService.currentRateUnits("EUR", "TRY")).thenReturn(Quantity.unitsOf(BigDecimal.valueOf(36)));
+
+        // When
+        PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
+
+        // Then
+        assertThat(result.getFxInfluenceTRY()).isEqualByComparingTo("1000");
+        verify(fxRateHistoryService, never()).currentRateUnits(eq("USD"), anyString());
     }
 
     @Test
@@ -124,8 +241,9 @@ class PortfolioServiceTest {
         // Given
         List<AcquisitionLot> acquisitions = createMockAcquisitions();
         when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenReturn(acquisitions);
-        when(priceService.getCurrentPrice(anyString(), anyString())).thenReturn(BigDecimal.valueOf(105.0));
-        when(assetRepository.findById(anyString())).thenReturn(Optional.of(createMockAsset()));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(105.0)));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(createMockAsset()));
 
         // When
         PortfolioAnalyticsResponse result = portfolioService.getPortfolioAnalytics("30D");
@@ -140,22 +258,201 @@ class PortfolioServiceTest {
         assertThat(result.getMaxDrawdown()).isNotNull();
     }
 
+    @Test
+    void getPortfolioAnalytics_OnWorkerThreads_ShouldPropagateSecurityContext() {
+        // Given
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        portfolioService = createService(pool, Duration.ofSeconds(5));
+        AtomicReference<String> workerThread = new AtomicReference<>();
+        when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenAnswer(invocation -> {
+            workerThread.set(Thread.currentThread().getName());
+            return createMockAcquisitions();
+        });
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(105.0)));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(createMockAsset()));
+
+        try {
+            // When
+            PortfolioAnalyticsResponse result = portfolioService.getPortfolioAnalytics("30D");
+
+            // Then - every part resolved the caller's user off the request thread
+            assertThat(result.getPortfolioHistory()).isNotEmpty();
+            assertThat(result.getAssetAllocation()).isNotEmpty();
+            assertThat(result.getTopMovers()).isNotEmpty();
+            assertThat(workerThread.get()).isNotEqualTo(Thread.currentThread().getName());
+            verify(portfolioServiceProvider).getObject();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getPortfolioAnalytics_WhenDeadlinePasses_ShouldFailAndCancelParts() {
+        // Given - an executor that accepts work but never runs it
+        portfolioService = createService(task -> { }, Duration.ofMillis(50));
+
+        // When / Then
+        assertThatThrownBy(() -> portfolioService.getPortfolioAnalytics("30D"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("timed out");
+        verifyNoInteractions(acquisitionLotRepository, positionService, priceService);
+    }
+
+    @Test
+    void getPortfolioHistory_WithStoredDailyValues_ShouldOnlyValueTodayLive() {
+        // Given - the lot was bought 30 days ago and every closed day since is stored
+        LocalDate today = LocalDate.now();
+        List<PortfolioDailyValue> stored = new ArrayList<>();
+        for (LocalDate date = today.minusDays(30); date.isBefore(today); date = date.plusDays(1)) {
+            PortfolioDailyValue point = new PortfolioDailyValue();
+            point.setUserId(TEST_USER_ID);
+            point.setDate(date);
+            point.setTotalValue(BigDecimal.valueOf(1000));
+            stored.add(point);
+        }
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(portfolioDailyValueRepository.findByUserIdAndDateBetween(TEST_USER_ID, today.minusDays(30), today.minusDays(1)))
+                .thenReturn(stored);
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+
+        // When
+        var result = portfolioService.getPortfolioHistory("90D");
+
+        // Then
+        assertThat(result).hasSize(91);
+        assertThat(result.get(0).getValue()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.get(60).getValue()).isEqualByComparingTo("1000");
+        assertThat(result.get(90).getDate()).isEqualTo(today);
+        assertThat(result.get(90).getValue()).isEqualByComparingTo("1100");
+        assertThat(result.get(90).getChangePercent()).isEqualByComparingTo("10.00");
+        verify(acquisitionLotRepository, never()).findByUserId(anyString());
+        verifyNoInteractions(priceDailyBarRepository);
+    }
+
+    @Test
+    void getPortfolioHistory_WithGapInStoredValues_ShouldReplayFromLots() {
+        // Given - nothing stored yet
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenReturn(createMockAcquisitions());
+
+        // When
+        var result = portfolioService.getPortfolioHistory("30D");
+
+        // Then
+        assertThat(result).hasSize(31);
+        assertThat(result.get(30).getValue()).isEqualByComparingTo("1000");
+        verify(priceDailyBarRepository).findByAssetIdInAndDateBetween(anyCollection(), any(), any());
+    }
+
+    @Test
+    void getTopMovers_ShouldRankRealMovesAndKeepOnlyTopK() {
+        // Given - four holdings moving -20%, +5%, +12% and 0% since the previous close
+        List<Position> positions = PositionService.aggregateLots(List.of(
+                lot("a", 100), lot("b", 100), lot("c", 100), lot("d", 100)));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(positions);
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(
+                "a", BigDecimal.valueOf(80), "b", BigDecimal.valueOf(105),
+                "c", BigDecimal.valueOf(112), "d", BigDecimal.valueOf(100)));
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any())).thenReturn(List.of(
+                previousClose("a", 100), previousClose("b", 100), previousClose("c", 100), previousClose("d", 100)));
+        when(assetRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Asset> assets = new ArrayList<>();
+            for (String id : invocation.<Iterable<String>>getArgument(0)) {
+                Asset asset = createMockAsset();
+                asset.setId(id);
+                asset.setSymbol(id.toUpperCase());
+                assets.add(asset);
+            }
+            return assets;
+        });
+
+        // When
+        var result = portfolioService.getTopMovers(2);
+
+        // Then
+        assertThat(result).extracting("assetId").containsExactly("a", "c");
+        assertThat(result.get(0).getChangePercent()).isEqualByComparingTo("-20.00");
+        assertThat(result.get(0).getChange()).isEqualByComparingTo("-200");
+        assertThat(result.get(0).getDirection()).isEqualTo("DOWN");
+        assertThat(result.get(1).getChangePercent()).isEqualByComparingTo("12.00");
+        assertThat(result.get(1).getDirection()).isEqualTo("UP");
+    }
+
+    @Test
+    void getTopMovers_OnRepeatedRequests_ShouldReusePreviousCloseIndex() {
+        // Given
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any())).thenReturn(List.of(previousClose(TEST_ASSET_ID, 100)));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(createMockAsset()));
+
+        // When
+        portfolioService.getTopMovers(5);
+        var result = portfolioService.getTopMovers(5);
+
+        // Then
+        assertThat(result).singleElement()
+                .satisfies(mover -> assertThat(mover.getChangePercent()).isEqualByComparingTo("10.00"));
+        verify(priceDailyBarRepository, times(1)).findLatestPerAssetInBefore(anyCollection(), any());
+        verify(assetRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getTopMovers_WithLimitAboveHoldings_ShouldReturnEveryMover() {
+        // Given
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any())).thenReturn(List.of(previousClose(TEST_ASSET_ID, 100)));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(createMockAsset()));
+
+        // When
+        var result = portfolioService.getTopMovers(Integer.MAX_VALUE);
+
+        // Then
+        assertThat(result).singleElement().extracting("assetId").isEqualTo(TEST_ASSET_ID);
+    }
+
     @Test
     void getAssetAllocation_ShouldGroupByAssetType() {
         // Given
-        List<AcquisitionLot> acquisitions = createMockAcquisitions();
-        when(acquisitionLotRepository.findByUserId(TEST_USER_ID)).thenReturn(acquisitions);
-        when(priceService.getCurrentPrice(anyString(), anyString())).thenReturn(BigDecimal.valueOf(100.0));
-        when(assetRepository.findById(anyString())).thenReturn(Optional.of(createMockAsset()));
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(createMockPositions());
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(100.0)));
+        when(assetRepository.findAllById(any())).thenReturn(List.of(createMockAsset()));
 
         // When
         var result = portfolioService.getAssetAllocation();
+        portfolioService.getAssetAllocation();
 
         // Then
         assertThat(result).isNotEmpty();
         assertThat(result.get(0).getAssetType()).isNotNull();
         assertThat(result.get(0).getValue()).isPositive();
         assertThat(result.get(0).getPercentage()).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+        verify(assetRepository, times(1)).findAllById(any());
+        verify(assetRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getPortfolioSummary_WithManyLots_ShouldResolvePricesInOneBatch() {
+        // Given
+        List<AcquisitionLot> acquisitions = new java.util.ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            acquisitions.addAll(createMockAcquisitions());
+        }
+        when(positionService.getPositions(TEST_USER_ID)).thenReturn(PositionService.aggregateLots(acquisitions));
+        when(priceService.getCurrentPrices(anyCollection())).thenReturn(Map.of(TEST_ASSET_ID, BigDecimal.valueOf(110.0)));
+
+        // When
+        PortfolioSummaryResponse result = portfolioService.getPortfolioSummary();
+
+        // Then
+        assertThat(result.getTotalValueTRY()).isEqualByComparingTo(BigDecimal.valueOf(275000));
+        assertThat(result.getCostBasisTRY()).isEqualByComparingTo(BigDecimal.valueOf(251250));
+        verify(acquisitionLotRepository, never()).findByUserId(anyString());
+        verify(priceService, times(1)).getCurrentPrices(anyCollection());
+        verify(priceService, never()).getCurrentPrice(anyString());
+        verify(priceDailyBarRepository, times(1)).findLatestPerAssetInBefore(anyCollection(), any());
     }
 
     private List<AcquisitionLot> createMockAcquisitions() {
@@ -174,6 +471,10 @@ class PortfolioServiceTest {
         return Arrays.asList(acquisition1);
     }
 
+    private List<Position> createMockPositions() {
+        return PositionService.aggregateLots(createMockAcquisitions());
+    }
+
     private Asset createMockAsset() {
         Asset asset = new Asset();
         asset.setId(TEST_ASSET_ID);
@@ -183,4 +484,42 @@ class PortfolioServiceTest {
         asset.setCurrency("USD");
         return asset;
     }
-}
\ No newline at end of file
+
+    private AcquisitionLot lot(String assetId, long unitPrice) {
+        AcquisitionLot lot = createMockAcquisitions().get(0);
+        lot.setAssetId(assetId);
+        lot.setUnitPrice(BigDecimal.valueOf(unitPrice));
+        return lot;
+    }
+
+    private PriceDailyBar previousClose(String assetId, long close) {
+        PriceDailyBar bar = new PriceDailyBar();
+        bar.setAssetId(assetId);
+        bar.setDate(LocalDate.now().minusDays(1));
+        bar.setClose(BigDecimal.valueOf(close));
+        return bar;
+    }
+
+    private CacheManager refreshAheadCacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder(), Runnable::run),
+                new RefreshAheadCache("portfolio-analytics", Caffeine.newBuilder(), Runnable::run)));
+        cacheManager.initializeCaches();
+        return cacheManager;
+    }
+
+    private PortfolioService createService(Executor executor, Duration timeout) {
+        return createService(executor, timeout, priceService);
+    }
+
+    private PortfolioService createService(Executor executor, Duration timeout, PriceService prices) {
+        AssetDictionary assetDictionary = new AssetDictionary(assetRepository, new ConcurrentMapCacheManager("asset-details"));
+        PortfolioService service = new PortfolioService(acquisitionLotRepository, assetRepository, assetDictionary, prices,
+                fxRateHistoryService, positionService, priceDailyBarRepository, new PreviousCloseIndex(priceDailyBarRepository),
+                portfolioDailyValueRepository, executor,
+                portfolioServiceProvider, timeout, valuationCacheEvictor, refreshAheadCacheManager());
+        lenient().when(portfolioServiceProvider.getObject()).thenReturn(service);
+        return service;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.AcquisitionLot;
+import com.yuksel.investmenttracker.domain.entity.Position;
+import com.yuksel.investmenttracker.repository.AcquisitionLotRepository;
+import com.yuksel.investmenttracker.repository.PositionRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PositionServiceTest {
+
+    @Mock
+    private PositionRepository positionRepository;
+
+    @Mock
+    private AcquisitionLotRepository acquisitionLotRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AssetHoldersIndex assetHoldersIndex;
+
+    @Mock
+    private BulkOperations bulkOps;
+
+    private PositionService positionService;
+
+    @BeforeEach
+    void setUp() {
+        positionService = new PositionService(positionRepository, acquisitionLotRepository, mongoTemplate, assetHoldersIndex);
+    }
+
+    @Test
+    void applyAcquisition_ShouldIncrementTotalsAndWidenDateRangeInOneUpsert() {
+        // Given
+        AcquisitionLot lot = createLot("asset-1", "2", "150", "1.5", "2024-03-10", "30");
+
+        // When
+        positionService.applyAcquisition(lot);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(Position.class));
+        assertThat(query.getValue().getQueryObject())
+                .containsEntry("userId", "user-1")
+                .containsEntry("assetId", "asset-1");
+
+        Document operations = update.getValue().getUpdateObject();
+        assertThat(operations.get("$inc", Document.class))
+                .containsEntry("quantity", decimal("2"))
+                .containsEntry("costBasis", decimal("300"))
+                .containsEntry("fees", decimal("1.5"))
+                .containsEntry("lotCount", 1)
+                .containsEntry("fxCostByCurrency.USD.cost", decimal("300"))
+                .containsEntry("fxCostByCurrency.USD.costTry", decimal("9000"));
+        assertThat(operations.get("$min", Document.class)).containsEntry("firstAcquisitionDate", LocalDate.of(2024, 3, 10));
+        assertThat(operations.get("$max", Document.class)).containsEntry("lastAcquisitionDate", LocalDate.of(2024, 3, 10));
+        verify(assetHoldersIndex).addHolder("asset-1", "user-1");
+    }
+
+    @Test
+    void applyAcquisition_LotWithoutRate_ShouldLeaveFxCostBasisAlone() {
+        // Given
+        AcquisitionLot lot = createLot("asset-1", "2", "150", null, "2024-03-10", null);
+
+        // When
+        positionService.applyAcquisition(lot);
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(Position.class));
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+                .containsEntry("fees", decimal("0"))
+                .doesNotContainKeys("fxCostByCurrency.USD.cost", "fxCostByCurrency.USD.costTry");
+    }
+
+    @Test
+    void aggregateLots_ShouldSumPerAssetAndFxCostPerLotCurrency() {
+        // Given
+        List<AcquisitionLot> lots = List.of(
+                createLot("asset-1", "2", "100", "1", "2024-02-01", "30"),
+                createLot("asset-2", "5", "10", null, "2024-01-15", null),
+                createLot("asset-1", "3", "120", "2", "2024-01-01", null),
+                createLot("asset-1", "1", "130", null, "2024-03-01", "32"),
+                createLot("asset-1", "1", "50", null, "2024-03-02", "35", "EUR"));
+
+        // When
+        List<Position> positions = PositionService.aggregateLots(lots);
+
+        // Then
+        assertThat(positions).extracting(Position::getAssetId).containsExactly("asset-1", "asset-2");
+        Position first = positions.get(0);
+        assertThat(first.getQuantity()).isEqualByComparingTo("7");
+        assertThat(first.getCostBasis()).isEqualByComparingTo("740");
+        assertThat(first.getFees()).isEqualByComparingTo("3");
+        assertThat(first.getLotCount()).isEqualTo(4);
+        assertThat(first.getFxCostByCurrency()).containsOnlyKeys("USD", "EUR");
+        assertThat(first.getFxCostByCurrency().get("USD").getCost()).isEqualByComparingTo("330");
+        assertThat(first.getFxCostByCurrency().get("USD").getCostTry()).isEqualByComparingTo("10160");
+        assertThat(first.getFxCostByCurrency().get("EUR").getCost()).isEqualByComparingTo("50");
+        assertThat(first.getFxCostByCurrency().get("EUR").getCostTry()).isEqualByComparingTo("1750");
+        assertThat(first.getFirstAcquisitionDate()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(first.getLastAcquisitionDate()).isEqualTo(LocalDate.of(2024, 3, 2));
+        assertThat(positions.get(1).getFxCostByCurrency()).isEmpty();
+    }
+
+    @Test
+    void rebuildPositions_ShouldOverwriteRowsInPlaceThenRemoveOnlyLeftovers() {
+        // Given
+        when(acquisitionLotRepository.findByUserId("user-1")).thenReturn(List.of(
+                createLot("asset-1", "2", "100", "1", "2024-02-01", "30"),
+                createLot("asset-2", "5", "10", null, "2024-01-15", null)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Position.class)).thenReturn(bulkOps);
+
+        // When
+        List<Position> positions = positionService.rebuildPositions("user-1");
+
+        // Then
+        assertThat(positions).hasSize(2);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        InOrder inOrder = inOrder(bulkOps, mongoTemplate);
+        inOrder.verify(bulkOps, times(2)).upsert(any(Query.class), updates.capture());
+        inOrder.verify(bulkOps).execute();
+        ArgumentCaptor<Query> leftovers = ArgumentCaptor.forClass(Query.class);
+        inOrder.verify(mongoTemplate).remove(leftovers.capture(), eq(Position.class));
+
+        assertThat(updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class))
+                .containsEntry("quantity", decimal("2"))
+                .containsEntry("costBasis", decimal("200"))
+                .containsEntry("lotCount", 1L)
+                .containsEntry("fxCostByCurrency", new Document("USD",
+                        new Document("cost", decimal("200")).append("costTry", decimal("6000"))));
+        assertThat(leftovers.getValue().getQueryObject())
+                .containsEntry("userId", "user-1")
+                .containsEntry("assetId", new Document("$nin", List.of("asset-1", "asset-2")));
+        verifyNoInteractions(positionRepository);
+    }
+
+    @Test
+    void rebuildPositions_NoLotsLeft_ShouldRemoveAllWithoutBulkWrite() {
+        // Given
+        when(acquisitionLotRepository.findByUserId("user-1")).thenReturn(List.of());
+
+        // When
+        positionService.rebuildPositions("user-1");
+
+        // Then
+        ArgumentCaptor<Query> leftovers = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(leftovers.capture(), eq(Position.class));
+        assertThat(leftovers.getValue().getQueryObject())
+                .containsEntry("assetId", new Document("$nin", List.of()));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Position.class));
+    }
+
+    private static Decimal128 decimal(String value) {
+        return new Decimal128(new BigDecimal(value));
+    }
+
+    private static AcquisitionLot createLot(String assetId, String quantity, String unitPrice, String fee,
+                                            String date, String fxRate) {
+        return createLot(assetId, quantity, unitPrice, fee, date, fxRate, "USD");
+    }
+
+    private static AcquisitionLot createLot(String assetId, String quantity, String unitPrice, String fee,
+                                            String date, String fxRate, String currency) {
+        AcquisitionLot lot = new AcquisitionLot();
+        lot.setId("lot-" + assetId + "-" + date);
+        lot.setUserId("user-1");
+        lot.setAssetId(assetId);
+        lot.setQuantity(new BigDecimal(quantity));
+        lot.setUnitPrice(new BigDecimal(unitPrice));
+        lot.setCurrency(currency);
+        lot.setFee(fee != null ? new BigDecimal(fee) : null);
+        lot.setAcquisitionDate(LocalDate.parse(date));
+        lot.setFxRateAtAcquisition(fxRate != null ? new BigDecimal(fxRate) : null);
+        return lot;
+    }
+}
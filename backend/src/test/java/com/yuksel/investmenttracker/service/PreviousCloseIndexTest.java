@@ -0,0 +1,101 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.money.Quantity;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PreviousCloseIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    @Mock
+    private PriceDailyBarRepository priceDailyBarRepository;
+
+    private PreviousCloseIndex previousCloseIndex;
+
+    @BeforeEach
+    void setUp() {
+        previousCloseIndex = new PreviousCloseIndex(priceDailyBarRepository);
+    }
+
+    @Test
+    void getPreviousCloses_ShouldLoadOnlyMissesOnce() {
+        // Given
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), eq(TODAY)))
+                .thenReturn(List.of(bar("a", TODAY.minusDays(1), 100)))
+                .thenReturn(List.of(bar("b", TODAY.minusDays(3), 50)));
+
+        // When
+        previousCloseIndex.getPreviousCloses(List.of("a", "missing"), TODAY);
+        Map<String, Long> closes = previousCloseIndex.getPreviousCloses(List.of("a", "b", "missing"), TODAY);
+
+        // Then - assets without a close are remembered and not queried again
+        assertThat(closes).containsOnly(
+                Map.entry("a", Quantity.unitsOf(BigDecimal.valueOf(100))),
+                Map.entry("b", Quantity.unitsOf(BigDecimal.valueOf(50))));
+        verify(priceDailyBarRepository).findLatestPerAssetInBefore(argThat(ids -> ids.size() == 1 && ids.contains("b")), eq(TODAY));
+        verify(priceDailyBarRepository, times(2)).findLatestPerAssetInBefore(anyCollection(), eq(TODAY));
+    }
+
+    @Test
+    void getPreviousCloses_OnNextLocalDay_ShouldRollOver() {
+        // Given - a user past midnight sees today's close as the previous one
+        LocalDate tomorrow = TODAY.plusDays(1);
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), eq(TODAY)))
+                .thenReturn(List.of(bar("a", TODAY.minusDays(1), 100)));
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), eq(tomorrow)))
+                .thenReturn(List.of(bar("a", TODAY, 110)));
+
+        // When
+        Map<String, Long> today = previousCloseIndex.getPreviousCloses(List.of("a"), TODAY);
+        Map<String, Long> next = previousCloseIndex.getPreviousCloses(List.of("a"), tomorrow);
+
+        // Then
+        assertThat(today.get("a")).isEqualTo(Quantity.unitsOf(BigDecimal.valueOf(100)));
+        assertThat(next.get("a")).isEqualTo(Quantity.unitsOf(BigDecimal.valueOf(110)));
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnlyDaysTheBarPrecedes() {
+        // Given
+        LocalDate tomorrow = TODAY.plusDays(1);
+        when(priceDailyBarRepository.findLatestPerAssetInBefore(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of(bar("a", TODAY.minusDays(1), 100)));
+        previousCloseIndex.getPreviousCloses(List.of("a"), TODAY);
+        previousCloseIndex.getPreviousCloses(List.of("a"), tomorrow);
+
+        // When - today's bar changes, which only tomorrow's generation depends on
+        previousCloseIndex.invalidate("a", TODAY);
+        previousCloseIndex.getPreviousCloses(List.of("a"), TODAY);
+        previousCloseIndex.getPreviousCloses(List.of("a"), tomorrow);
+
+        // Then
+        verify(priceDailyBarRepository, times(1)).findLatestPerAssetInBefore(anyCollection(), eq(TODAY));
+        verify(priceDailyBarRepository, times(2)).findLatestPerAssetInBefore(anyCollection(), eq(tomorrow));
+    }
+
+    private PriceDailyBar bar(String assetId, LocalDate date, long close) {
+        PriceDailyBar bar = new PriceDailyBar();
+        bar.setAssetId(assetId);
+        bar.setDate(date);
+        bar.setClose(BigDecimal.valueOf(close));
+        return bar;
+    }
+}
@@ -0,0 +1,194 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceDailyBar;
+import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import com.yuksel.investmenttracker.repository.PriceDailyBarRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceBarServiceTest {
+
+    @Mock
+    private PriceDailyBarRepository priceDailyBarRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PreviousCloseIndex previousCloseIndex;
+
+    @Mock
+    private BulkOperations bulkOps;
+
+    private PriceBarService priceBarService;
+
+    // What Mongo would hold after the captured upserts, keyed by bar date
+    private final Map<Object, Document> upsertedBars = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        priceBarService = new PriceBarService(priceDailyBarRepository, mongoTemplate, previousCloseIndex);
+        lenient().when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(PriceDailyBar.class)))
+                .thenAnswer(invocation -> {
+                    applyUpsert(invocation.getArgument(0), invocation.getArgument(1));
+                    return null;
+                });
+    }
+
+    @Test
+    void applySnapshot_FirstTickOfDay_ShouldOpenBarAtThatPrice() {
+        // When
+        priceBarService.applySnapshot(snapshot("2024-03-04T09:30", "100"));
+
+        // Then
+        Document bar = upsertedBars.get(LocalDate.of(2024, 3, 4));
+        assertThat(decimal(bar, "open")).isEqualByComparingTo("100");
+        assertThat(decimal(bar, "high")).isEqualByComparingTo("100");
+        assertThat(decimal(bar, "low")).isEqualByComparingTo("100");
+        assertThat(decimal(bar, "close")).isEqualByComparingTo("100");
+        assertThat(bar.get("openAt")).isEqualTo(LocalDateTime.parse("2024-03-04T09:30"));
+        assertThat(bar.get("currency")).isEqualTo("USD");
+        assertThat(bar.get("sampleCount")).isEqualTo(1);
+        verify(previousCloseIndex).invalidate("asset-1", LocalDate.of(2024, 3, 4));
+    }
+
+    @Test
+    void applySnapshot_LaterTicks_ShouldKeepOpenAndMoveHighLowAndClose() {
+        // When
+        priceBarService.applySnapshot(snapshot("2024-03-04T09:30", "100"));
+        priceBarService.applySnapshot(snapshot("2024-03-04T10:30", "104"));
+        priceBarService.applySnapshot(snapshot("2024-03-04T11:30", "97"));
+        priceBarService.applySnapshot(snapshot("2024-03-04T12:30", "101"));
+
+        // Then
+        Document bar = upsertedBars.get(LocalDate.of(2024, 3, 4));
+        assertThat(decimal(bar, "open")).isEqualByComparingTo("100");
+        assertThat(decimal(bar, "high")).isEqualByComparingTo("104");
+        assertThat(decimal(bar, "low")).isEqualByComparingTo("97");
+        assertThat(decimal(bar, "close")).isEqualByComparingTo("101");
+        assertThat(bar.get("openAt")).isEqualTo(LocalDateTime.parse("2024-03-04T09:30"));
+        assertThat(bar.get("closeAt")).isEqualTo(LocalDateTime.parse("2024-03-04T12:30"));
+        assertThat(bar.get("sampleCount")).isEqualTo(4);
+    }
+
+    @Test
+    void backfillDailyBars_ShouldProduceTheBarsLiveUpdatesWould() {
+        // Given
+        List<PriceSnapshot> snapshots = List.of(
+                snapshot("2024-03-04T09:30", "100"),
+                snapshot("2024-03-04T10:30", "104"),
+                snapshot("2024-03-04T11:30", "97"),
+                snapshot("2024-03-05T09:30", "98"),
+                snapshot("2024-03-06T09:30", "99"),
+                snapshot("2024-03-06T15:30", "103"));
+        snapshots.forEach(priceBarService::applySnapshot);
+        when(mongoTemplate.stream(any(Query.class), eq(PriceSnapshot.class))).thenReturn(snapshots.stream());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceDailyBar.class)).thenReturn(bulkOps);
+
+        // When
+        int barCount = priceBarService.backfillDailyBars("asset-1");
+
+        // Then
+        assertThat(barCount).isEqualTo(3);
+        ArgumentCaptor<PriceDailyBar> bars = ArgumentCaptor.forClass(PriceDailyBar.class);
+        verify(bulkOps, times(3)).replaceOne(any(Query.class), bars.capture(), any(FindAndReplaceOptions.class));
+        verify(bulkOps, times(1)).execute();
+        for (PriceDailyBar bar : bars.getAllValues()) {
+            Document live = upsertedBars.get(bar.getDate());
+            assertThat(bar.getOpen()).isEqualByComparingTo(decimal(live, "open"));
+            assertThat(bar.getHigh()).isEqualByComparingTo(decimal(live, "high"));
+            assertThat(bar.getLow()).isEqualByComparingTo(decimal(live, "low"));
+            assertThat(bar.getClose()).isEqualByComparingTo(decimal(live, "close"));
+            assertThat(bar.getOpenAt()).isEqualTo(live.get("openAt"));
+            assertThat(bar.getCloseAt()).isEqualTo(live.get("closeAt"));
+            assertThat(bar.getSampleCount()).isEqualTo(((Number) live.get("sampleCount")).longValue());
+        }
+        verify(previousCloseIndex).invalidate("asset-1", LocalDate.MIN);
+    }
+
+    @Test
+    void backfillDailyBars_ShouldFlushInBatches() {
+        // Given
+        List<PriceSnapshot> snapshots = new ArrayList<>();
+        LocalDateTime first = LocalDateTime.parse("2020-01-01T12:00");
+        for (int day = 0; day < 1001; day++) {
+            snapshots.add(snapshot(first.plusDays(day).toString(), "100"));
+        }
+        when(mongoTemplate.stream(any(Query.class), eq(PriceSnapshot.class))).thenReturn(snapshots.stream());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceDailyBar.class)).thenReturn(bulkOps);
+
+        // When
+        int barCount = priceBarService.backfillDailyBars("asset-1");
+
+        // Then
+        assertThat(barCount).isEqualTo(1001);
+        verify(bulkOps, times(1001)).replaceOne(any(Query.class), any(PriceDailyBar.class), any(FindAndReplaceOptions.class));
+        verify(bulkOps, times(2)).execute();
+    }
+
+    private void applyUpsert(Query query, Update update) {
+        Object date = query.getQueryObject().get("date");
+        Document operations = update.getUpdateObject();
+        Document bar = upsertedBars.get(date);
+        if (bar == null) {
+            bar = new Document();
+            upsertedBars.put(date, bar);
+            bar.putAll(operations.get("$setOnInsert", Document.class));
+        }
+        for (Map.Entry<String, Object> max : operations.get("$max", Document.class).entrySet()) {
+            Decimal128 current = (Decimal128) bar.get(max.getKey());
+            if (current == null || ((Decimal128) max.getValue()).compareTo(current) > 0) {
+                bar.put(max.getKey(), max.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> min : operations.get("$min", Document.class).entrySet()) {
+            Decimal128 current = (Decimal128) bar.get(min.getKey());
+            if (current == null || ((Decimal128) min.getValue()).compareTo(current) < 0) {
+                bar.put(min.getKey(), min.getValue());
+            }
+        }
+        bar.putAll(operations.get("$set", Document.class));
+        for (Map.Entry<String, Object> inc : operations.get("$inc", Document.class).entrySet()) {
+            Number current = (Number) bar.getOrDefault(inc.getKey(), 0);
+            bar.put(inc.getKey(), current.intValue() + ((Number) inc.getValue()).intValue());
+        }
+    }
+
+    private static BigDecimal decimal(Document bar, String field) {
+        return ((Decimal128) bar.get(field)).bigDecimalValue();
+    }
+
+    private static PriceSnapshot snapshot(String asOf, String price) {
+        PriceSnapshot snapshot = new PriceSnapshot();
+        snapshot.setAssetId("asset-1");
+        snapshot.setAsOf(LocalDateTime.parse(asOf));
+        snapshot.setPrice(new BigDecimal(price));
+        snapshot.setCurrency("USD");
+        return snapshot;
+    }
+}
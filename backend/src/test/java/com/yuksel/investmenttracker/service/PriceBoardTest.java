@@ -0,0 +1,50 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceBoardTest {
+
+    @Test
+    void offer_OlderSnapshot_ShouldNotReplaceNewerTick() {
+        // Given
+        PriceBoard board = new PriceBoard();
+        LocalDateTime now = LocalDateTime.now();
+        board.offer(snapshot("a", 11.0, now));
+
+        // When
+        board.offer(snapshot("a", 10.0, now.minusMinutes(1)));
+
+        // Then
+        assertThat(board.getPrice("a")).isEqualByComparingTo("11.0");
+        assertThat(board.getPrice("b")).isNull();
+    }
+
+    @Test
+    void offer_NewerSnapshot_ShouldReplaceTick() {
+        // Given
+        PriceBoard board = new PriceBoard();
+        LocalDateTime now = LocalDateTime.now();
+        board.offer(snapshot("a", 10.0, now.minusMinutes(1)));
+
+        // When
+        board.offer(snapshot("a", 12.0, now));
+
+        // Then
+        assertThat(board.getPrice("a")).isEqualByComparingTo("12.0");
+    }
+
+    private PriceSnapshot snapshot(String assetId, double price, LocalDateTime asOf) {
+        PriceSnapshot snapshot = new PriceSnapshot();
+        snapshot.setAssetId(assetId);
+        snapshot.setPrice(BigDecimal.valueOf(price));
+        snapshot.setCurrency("TRY");
+        snapshot.setAsOf(asOf);
+        return snapshot;
+    }
+}
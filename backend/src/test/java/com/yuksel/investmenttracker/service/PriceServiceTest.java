@@ -0,0 +1,173 @@
+package com.yuksel.investmenttracker.service;
+
+import com.yuksel.investmenttracker.domain.entity.Asset;
+import com.yuksel.investmenttracker.domain.entity.PriceSnapshot;
+import com.yuksel.investmenttracker.repository.PriceSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceServiceTest {
+
+    @Mock
+    private PriceSnapshotRepository priceSnapshotRepository;
+
+    @Mock
+    private PriceBarService priceBarService;
+
+    @Mock
+    private ValuationCacheEvictor valuationCacheEvictor;
+
+    @Mock
+    private AssetDictionary assetDictionary;
+
+    private PriceService priceService;
+
+    @BeforeEach
+    void setUp() {
+        priceService = new PriceService(priceSnapshotRepository, priceBarService, new PriceBoard(), valuationCacheEvictor, assetDictionary);
+    }
+
+    @Test
+    void getCurrentPrices_ManyAssets_ShouldIssueSingleQuery() {
+        // Given
+        List<String> assetIds = IntStream.range(0, 500)
+                .mapToObj(i -> "asset-" + i)
+                .collect(Collectors.toList());
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection()))
+                .thenReturn(assetIds.stream().map(id -> createSnapshot(id, 42.0)).collect(Collectors.toList()));
+
+        // When
+        Map<String, BigDecimal> prices = priceService.getCurrentPrices(assetIds);
+
+        // Then
+        assertThat(prices).hasSize(500);
+        assertThat(prices.get("asset-7")).isEqualByComparingTo("42.0");
+        verify(priceSnapshotRepository, times(1)).findLatestPerAssetIn(anyCollection());
+        verify(priceSnapshotRepository, never()).findLatestByAssetId(anyString());
+    }
+
+    @Test
+    void getCurrentPrices_CachedAssets_ShouldOnlyQueryMisses() {
+        // Given
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection()))
+                .thenAnswer(invocation -> {
+                    List<PriceSnapshot> snapshots = new ArrayList<>();
+                    for (Object id : invocation.getArgument(0, java.util.Collection.class)) {
+                        snapshots.add(createSnapshot((String) id, 10.0));
+                    }
+                    return snapshots;
+                });
+        priceService.getCurrentPrices(List.of("a", "b"));
+
+        // When
+        Map<String, BigDecimal> prices = priceService.getCurrentPrices(List.of("a", "b", "c"));
+
+        // Then
+        assertThat(prices).containsOnlyKeys("a", "b", "c");
+        verify(priceSnapshotRepository, times(2)).findLatestPerAssetIn(anyCollection());
+        verify(priceSnapshotRepository).findLatestPerAssetIn(argThat(ids -> ids.size() == 1 && ids.contains("c")));
+    }
+
+    @Test
+    void getCurrentPrices_FullyCached_ShouldNotQuery() {
+        // Given
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection()))
+                .thenReturn(List.of(createSnapshot("a", 10.0)));
+        priceService.getCurrentPrices(List.of("a"));
+
+        // When
+        Map<String, BigDecimal> prices = priceService.getCurrentPrices(List.of("a"));
+
+        // Then
+        assertThat(prices.get("a")).isEqualByComparingTo("10.0");
+        verify(priceSnapshotRepository, times(1)).findLatestPerAssetIn(anyCollection());
+    }
+
+    @Test
+    void getCurrentPrices_AssetWithoutSnapshot_ShouldStoreFallbackInAssetCurrency() {
+        // Given
+        Asset asset = new Asset();
+        asset.setId("a");
+        asset.setCurrency("USD");
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection())).thenReturn(List.of());
+        when(assetDictionary.get("a")).thenReturn(asset);
+
+        // When
+        Map<String, BigDecimal> prices = priceService.getCurrentPrices(List.of("a"));
+
+        // Then
+        assertThat(prices.get("a")).isEqualByComparingTo("100");
+        verify(priceSnapshotRepository).save(argThat(snapshot -> "USD".equals(snapshot.getCurrency())));
+    }
+
+    @Test
+    void updatePriceForAsset_ShouldEvictHoldersValuations() {
+        // When
+        priceService.updatePriceForAsset("a", BigDecimal.valueOf(12.5), "TRY", "TEST");
+
+        // Then
+        verify(priceBarService).applySnapshot(argThat(snapshot -> "a".equals(snapshot.getAssetId())));
+        verify(valuationCacheEvictor).evictHoldersOf("a");
+    }
+
+    @Test
+    void updatePriceForAsset_ShouldBeVisibleToNextReadWithoutQuery() {
+        // Given
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection()))
+                .thenReturn(List.of(createSnapshot("a", 10.0)));
+        priceService.getCurrentPrices(List.of("a"));
+
+        // When
+        priceService.updatePriceForAsset("a", BigDecimal.valueOf(11.0), "TRY", "TEST");
+
+        // Then
+        assertThat(priceService.getCurrentPrice("a")).isEqualByComparingTo("11.0");
+        assertThat(priceService.getCurrentPrices(List.of("a")).get("a")).isEqualByComparingTo("11.0");
+        verify(priceSnapshotRepository, times(1)).findLatestPerAssetIn(anyCollection());
+        verify(priceSnapshotRepository, never()).findLatestByAssetId(anyString());
+    }
+
+    @Test
+    void getCurrentPrices_ForeignQuote_ShouldReturnQuoteCurrencyPrice() {
+        // Given
+        PriceSnapshot snapshot = createSnapshot("a", 10.0);
+        snapshot.setCurrency("USD");
+        when(priceSnapshotRepository.findLatestPerAssetIn(anyCollection())).thenReturn(List.of(snapshot));
+
+        // When
+        BigDecimal first = priceService.getCurrentPrices(List.of("a")).get("a");
+        BigDecimal second = priceService.getCurrentPrice("a");
+
+        // Then
+        assertThat(first).isEqualByComparingTo("10.0");
+        assertThat(second).isEqualByComparingTo("10.0");
+        verify(priceSnapshotRepository, times(1)).findLatestPerAssetIn(anyCollection());
+    }
+
+    private PriceSnapshot createSnapshot(String assetId, double price) {
+        PriceSnapshot snapshot = new PriceSnapshot();
+        snapshot.setAssetId(assetId);
+        snapshot.setPrice(BigDecimal.valueOf(price));
+        snapshot.setCurrency("TRY");
+        snapshot.setAsOf(LocalDateTime.now());
+        return snapshot;
+    }
+}
@@ -0,0 +1,145 @@
+package com.yuksel.investmenttracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ReturnStatsAccumulatorTest {
+
+    private static final double[] SERIES = {100, 110, 99, 104.5, 120, 90, 95, 130, 128, 131};
+
+    @Test
+    void accept_WithKnownSeries_ShouldMatchTwoPassStatistics() {
+        // Given
+        ReturnStatsAccumulator stats = accumulate(SERIES);
+
+        double[] returns = new double[SERIES.length - 1];
+        for (int i = 1; i < SERIES.length; i++) {
+            returns[i - 1] = (SERIES[i] - SERIES[i - 1]) / SERIES[i - 1];
+        }
+        double mean = Arrays.stream(returns).average().orElseThrow();
+        double variance = Arrays.stream(returns).map(r -> (r - mean) * (r - mean)).sum() / (returns.length - 1);
+        double volatility = Math.sqrt(variance) * Math.sqrt(252);
+
+        // Then
+        assertThat(stats.getCount()).isEqualTo(SERIES.length);
+        assertThat(stats.getTotalReturn()).isCloseTo(31.0, within(1e-9));
+        assertThat(stats.getTotalReturnRatio()).isCloseTo(0.31, within(1e-9));
+        assertThat(stats.getMeanReturn()).isCloseTo(mean, within(1e-12));
+        assertThat(stats.getAnnualizedVolatility()).isCloseTo(volatility, within(1e-12));
+        assertThat(stats.getSharpeRatio(0.02)).isCloseTo((mean * 252 - 0.02) / volatility, within(1e-9));
+    }
+
+    @Test
+    void accept_WithDrawdowns_ShouldReportDeepestAndLongest() {
+        // Given
+        ReturnStatsAccumulator stats = accumulate(SERIES);
+
+        // Then - deepest is 120 -> 90, longest is the two days under 110 and the two under 120
+        assertThat(stats.getMaxDrawdown()).isCloseTo(0.25, within(1e-12));
+        assertThat(stats.getMaxDrawdownDuration()).isEqualTo(2);
+    }
+
+    @Test
+    void accept_WhenSeriesEndsUnderWater_ShouldCountOpenDrawdown() {
+        // Given
+        ReturnStatsAccumulator stats = accumulate(new double[]{100, 120, 110, 105, 100, 115});
+
+        // Then
+        assertThat(stats.getMaxDrawdownDuration()).isEqualTo(4);
+        assertThat(stats.getMaxDrawdown()).isCloseTo(20.0 / 120, within(1e-12));
+    }
+
+    @Test
+    void merge_AtEverySplitPoint_ShouldMatchSequentialPass() {
+        // Given
+        ReturnStatsAccumulator sequential = accumulate(SERIES);
+
+        for (int split = 0; split <= SERIES.length; split++) {
+            // When
+            ReturnStatsAccumulator merged = accumulate(ReturnStatsAccumulator.mergeable(), Arrays.copyOfRange(SERIES, 0, split))
+                    .merge(accumulate(ReturnStatsAccumulator.mergeable(), Arrays.copyOfRange(SERIES, split, SERIES.length)));
+
+            // Then
+            assertThat(merged.getCount()).isEqualTo(sequential.getCount());
+            assertThat(merged.getTotalReturn()).isCloseTo(sequential.getTotalReturn(), within(1e-9));
+            assertThat(merged.getMeanReturn()).isCloseTo(sequential.getMeanReturn(), within(1e-12));
+            assertThat(merged.getAnnualizedVolatility()).isCloseTo(sequential.getAnnualizedVolatility(), within(1e-12));
+            assertThat(merged.getMaxDrawdown()).isCloseTo(sequential.getMaxDrawdown(), within(1e-12));
+            assertThat(merged.getMaxDrawdownDuration()).isEqualTo(sequential.getMaxDrawdownDuration());
+        }
+    }
+
+    @Test
+    void collector_WithParallelStream_ShouldMatchSequentialPass() {
+        // Given
+        double[] values = new double[10_000];
+        double value = 1000;
+        for (int i = 0; i < values.length; i++) {
+            value *= 1 + Math.sin(i * 0.37) * 0.02;
+            values[i] = value;
+        }
+        ReturnStatsAccumulator sequential = accumulate(values);
+
+        // When
+        ReturnStatsAccumulator parallel = DoubleStream.of(values).boxed().parallel()
+                .collect(ReturnStatsAccumulator.collector());
+
+        // Then
+        assertThat(parallel.getCount()).isEqualTo(values.length);
+        assertThat(parallel.getAnnualizedVolatility()).isCloseTo(sequential.getAnnualizedVolatility(), within(1e-9));
+        assertThat(parallel.getMaxDrawdown()).isCloseTo(sequential.getMaxDrawdown(), within(1e-12));
+        assertThat(parallel.getMaxDrawdownDuration()).isEqualTo(sequential.getMaxDrawdownDuration());
+    }
+
+    @Test
+    void merge_WithPlainAccumulator_ShouldReject() {
+        // Given
+        ReturnStatsAccumulator left = accumulate(ReturnStatsAccumulator.mergeable(), SERIES);
+
+        // When / Then
+        assertThatThrownBy(() -> left.merge(accumulate(SERIES))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void accept_WithSteadilyRisingSeries_ShouldReportNoDrawdown() {
+        // Given
+        ReturnStatsAccumulator stats = new ReturnStatsAccumulator();
+        for (int i = 0; i < 100_000; i++) {
+            stats.accept(1000 + i);
+        }
+
+        // Then
+        assertThat(stats.getMaxDrawdown()).isZero();
+        assertThat(stats.getMaxDrawdownDuration()).isZero();
+        assertThat(stats.getTotalReturn()).isCloseTo(99_999.0, within(1e-9));
+    }
+
+    @Test
+    void accept_WithSingleValue_ShouldReportZeroRisk() {
+        // Given
+        ReturnStatsAccumulator stats = accumulate(new double[]{100});
+
+        // Then
+        assertThat(stats.getAnnualizedVolatility()).isZero();
+        assertThat(stats.getSharpeRatio(0.02)).isZero();
+        assertThat(stats.getMaxDrawdown()).isZero();
+        assertThat(stats.getMaxDrawdownDuration()).isZero();
+    }
+
+    private static ReturnStatsAccumulator accumulate(double[] values) {
+        return accumulate(new ReturnStatsAccumulator(), values);
+    }
+
+    private static ReturnStatsAccumulator accumulate(ReturnStatsAccumulator stats, double[] values) {
+        for (double value : values) {
+            stats.accept(value);
+        }
+        return stats;
+    }
+}
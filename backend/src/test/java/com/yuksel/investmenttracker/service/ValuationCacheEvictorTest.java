@@ -0,0 +1,111 @@
+package com.yuksel.investmenttracker.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuksel.investmenttracker.config.RefreshAheadCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ValuationCacheEvictorTest {
+
+    @Mock
+    private AssetHoldersIndex assetHoldersIndex;
+
+    private final CaffeineCacheManager cacheManager =
+            new CaffeineCacheManager(ValuationCacheEvictor.VALUATION_CACHES.toArray(String[]::new));
+
+    @Test
+    void evictHoldersOf_ShouldDropOnlyHoldersEntriesInEveryVariant() {
+        // Given
+        Cache summary = cacheManager.getCache("portfolio-summary");
+        Cache topMovers = cacheManager.getCache("top-movers");
+        summary.put("holder", "stale");
+        summary.put("other", "fresh");
+        topMovers.put("holder_5", "stale");
+        topMovers.put("holder_10", "stale");
+        topMovers.put("other_5", "fresh");
+        when(assetHoldersIndex.getHolders("asset-1")).thenReturn(Set.of("holder"));
+
+        // When
+        new ValuationCacheEvictor(assetHoldersIndex, List.of(cacheManager)).evictHoldersOf("asset-1");
+
+        // Then
+        assertThat(summary.get("holder")).isNull();
+        assertThat(topMovers.get("holder_5")).isNull();
+        assertThat(topMovers.get("holder_10")).isNull();
+        assertThat(summary.get("other")).isNotNull();
+        assertThat(topMovers.get("other_5")).isNotNull();
+    }
+
+    @Test
+    void evictHoldersOf_AssetWithoutHolders_ShouldKeepCaches() {
+        // Given
+        Cache summary = cacheManager.getCache("portfolio-summary");
+        summary.put("other", "fresh");
+        when(assetHoldersIndex.getHolders("asset-1")).thenReturn(Set.of());
+
+        // When
+        new ValuationCacheEvictor(assetHoldersIndex, List.of(cacheManager)).evictHoldersOf("asset-1");
+
+        // Then
+        assertThat(summary.get("other")).isNotNull();
+    }
+
+    @Test
+    void evictHoldersOf_SweepOverSeveralHeldAssets_ShouldRecomputeOnceOnNextRead() {
+        // Given
+        List<Runnable> refreshes = new ArrayList<>();
+        RefreshAheadCache summary = new RefreshAheadCache("portfolio-summary", Caffeine.newBuilder(), refreshes::add);
+        SimpleCacheManager refreshAheadCacheManager = new SimpleCacheManager();
+        refreshAheadCacheManager.setCaches(List.of(summary));
+        refreshAheadCacheManager.initializeCaches();
+        AtomicInteger loads = new AtomicInteger();
+        summary.get("holder", () -> "v" + loads.incrementAndGet());
+        List<String> assetIds = List.of("asset-1", "asset-2", "asset-3");
+        assetIds.forEach(assetId -> when(assetHoldersIndex.getHolders(assetId)).thenReturn(Set.of("holder")));
+        ValuationCacheEvictor evictor = new ValuationCacheEvictor(assetHoldersIndex, List.of(refreshAheadCacheManager));
+
+        // When
+        assetIds.forEach(evictor::evictHoldersOf);
+
+        // Then
+        assertThat(refreshes).isEmpty();
+        assertThat(loads).hasValue(1);
+        assertThat(summary.get("holder", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(summary.get("holder", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictUser_RefreshAheadCache_ShouldDropEveryVariantOfUser() {
+        // Given
+        RefreshAheadCache analytics = new RefreshAheadCache("portfolio-analytics", Caffeine.newBuilder(), Runnable::run);
+        SimpleCacheManager refreshAheadCacheManager = new SimpleCacheManager();
+        refreshAheadCacheManager.setCaches(List.of(analytics));
+        refreshAheadCacheManager.initializeCaches();
+        analytics.get("user_30D", () -> "stale");
+        analytics.get("user_1Y", () -> "stale");
+        analytics.get("other_30D", () -> "fresh");
+
+        // When
+        new ValuationCacheEvictor(assetHoldersIndex, List.of(cacheManager, refreshAheadCacheManager)).evictUser("user");
+
+        // Then
+        assertThat(analytics.get("user_30D")).isNull();
+        assertThat(analytics.get("user_1Y")).isNull();
+        assertThat(analytics.get("other_30D")).isNotNull();
+    }
+}